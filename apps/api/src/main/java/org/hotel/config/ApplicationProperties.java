@@ -1,5 +1,8 @@
 package org.hotel.config;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -14,6 +17,12 @@ public class ApplicationProperties {
     private final S3 s3 = new S3();
     private final Liquibase liquibase = new Liquibase();
     private final Keycloak keycloak = new Keycloak();
+    private final RoomTypeLocks roomTypeLocks = new RoomTypeLocks();
+    private final Cache cache = new Cache();
+    private final PublicContent publicContent = new PublicContent();
+    private final Jwt jwt = new Jwt();
+    private final MailOutbox mailOutbox = new MailOutbox();
+    private final Bulkheads bulkheads = new Bulkheads();
 
     public Liquibase getLiquibase() {
         return liquibase;
@@ -27,6 +36,30 @@ public class ApplicationProperties {
         return keycloak;
     }
 
+    public RoomTypeLocks getRoomTypeLocks() {
+        return roomTypeLocks;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public PublicContent getPublicContent() {
+        return publicContent;
+    }
+
+    public Jwt getJwt() {
+        return jwt;
+    }
+
+    public MailOutbox getMailOutbox() {
+        return mailOutbox;
+    }
+
+    public Bulkheads getBulkheads() {
+        return bulkheads;
+    }
+
     public static class S3 {
         private String bucket;
         private String region;
@@ -125,6 +158,497 @@ public class ApplicationProperties {
         public void setPassword(String password) {
             this.password = password;
         }
+
+        /**
+         * Conexiones HTTP reutilizables del cliente de administración (compartido por toda la aplicación).
+         */
+        private int connectionPoolSize = 10;
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        private Duration readTimeout = Duration.ofSeconds(10);
+        private Duration connectionTtl = Duration.ofMinutes(5);
+
+        /**
+         * El token de administración se renueva cuando le queda menos de este tiempo de validez.
+         */
+        private Duration tokenMinValidity = Duration.ofSeconds(30);
+
+        private final DirectorySync directorySync = new DirectorySync();
+
+        public int getConnectionPoolSize() {
+            return connectionPoolSize;
+        }
+
+        public void setConnectionPoolSize(int connectionPoolSize) {
+            this.connectionPoolSize = connectionPoolSize;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+
+        public Duration getConnectionTtl() {
+            return connectionTtl;
+        }
+
+        public void setConnectionTtl(Duration connectionTtl) {
+            this.connectionTtl = connectionTtl;
+        }
+
+        public Duration getTokenMinValidity() {
+            return tokenMinValidity;
+        }
+
+        public void setTokenMinValidity(Duration tokenMinValidity) {
+            this.tokenMinValidity = tokenMinValidity;
+        }
+
+        public DirectorySync getDirectorySync() {
+            return directorySync;
+        }
+
+        /**
+         * Réplica local (jhi_user/jhi_authority) de los usuarios de Keycloak y sus grupos.
+         */
+        public static class DirectorySync {
+
+            private boolean enabled = true;
+            private Duration interval = Duration.ofMinutes(5);
+            private int pageSize = 100;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public Duration getInterval() {
+                return interval;
+            }
+
+            public void setInterval(Duration interval) {
+                this.interval = interval;
+            }
+
+            public int getPageSize() {
+                return pageSize;
+            }
+
+            public void setPageSize(int pageSize) {
+                this.pageSize = pageSize;
+            }
+        }
+    }
+    public static class RoomTypeLocks {
+
+        private boolean enabled = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+    public static class Cache {
+
+        /**
+         * Contenido web activo por código de colección (endpoints públicos del CMS).
+         */
+        private final Spec publicContent = new Spec(Duration.ofMinutes(10), 200);
+
+        /**
+         * Cada región de la caché de segundo nivel de Hibernate (entidades y colecciones): datos de referencia como
+         * tipos de habitación, servicios del hotel y colecciones de assets.
+         */
+        private final Spec hibernate = new Spec(Duration.ofHours(1), 1000);
+
+        /**
+         * Huella de los claims del último token sincronizado por login ({@code GET/PUT /api/account}).
+         */
+        private final Spec userSync = new Spec(Duration.ofMinutes(30), 5000);
+
+        /**
+         * Id del cliente por login del usuario (portal del cliente).
+         */
+        private final Spec customerLookup = new Spec(Duration.ofHours(1), 10_000);
+
+        public Spec getPublicContent() {
+            return publicContent;
+        }
+
+        public Spec getHibernate() {
+            return hibernate;
+        }
+
+        public Spec getUserSync() {
+            return userSync;
+        }
+
+        public Spec getCustomerLookup() {
+            return customerLookup;
+        }
+
+        public static class Spec {
+
+            private Duration timeToLive;
+            private long maxEntries;
+
+            public Spec(Duration timeToLive, long maxEntries) {
+                this.timeToLive = timeToLive;
+                this.maxEntries = maxEntries;
+            }
+
+            public Duration getTimeToLive() {
+                return timeToLive;
+            }
+
+            public void setTimeToLive(Duration timeToLive) {
+                this.timeToLive = timeToLive;
+            }
+
+            public long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+        }
+    }
+    public static class PublicContent {
+
+        /**
+         * Colecciones del bundle de la portada ({@code GET /api/public/content/bundle} sin {@code codes}).
+         */
+        private List<String> homeBundle = new ArrayList<>(
+            List.of("HOME_HERO", "HOME_FEATURES", "HOME_GALLERY", "CONTACT_INFO", "MAIN_LOCATION", "FOOTER_INFO")
+        );
+
+        /**
+         * Máximo de colecciones que se pueden pedir en un mismo bundle.
+         */
+        private int maxBundleCodes = 20;
+
+        public List<String> getHomeBundle() {
+            return homeBundle;
+        }
+
+        public void setHomeBundle(List<String> homeBundle) {
+            this.homeBundle = homeBundle;
+        }
+
+        public int getMaxBundleCodes() {
+            return maxBundleCodes;
+        }
+
+        public void setMaxBundleCodes(int maxBundleCodes) {
+            this.maxBundleCodes = maxBundleCodes;
+        }
+    }
+    public static class MailOutbox {
+
+        private boolean enabled = true;
+
+        /**
+         * Cada cuánto se revisa la bandeja además del despacho tras cada commit (reintentos y correos huérfanos).
+         */
+        private Duration pollInterval = Duration.ofSeconds(30);
+
+        /**
+         * Correos enviados por la misma conexión SMTP.
+         */
+        private int batchSize = 20;
+
+        /**
+         * Intentos antes de dejar el correo en FAILED.
+         */
+        private int maxAttempts = 8;
+
+        /**
+         * Espera tras el primer fallo; se duplica en cada intento hasta {@code max-backoff}.
+         */
+        private Duration initialBackoff = Duration.ofMinutes(1);
+
+        private Duration maxBackoff = Duration.ofHours(1);
+
+        /**
+         * Tiempo que un lote reclamado queda reservado: si el proceso cae a mitad de envío, se reintenta pasado este plazo.
+         */
+        private Duration claimTimeout = Duration.ofMinutes(5);
+
+        /**
+         * Hilos dedicados a generar las plantillas de correo.
+         */
+        private int renderThreads = 2;
+
+        private int renderQueueCapacity = 100;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        public void setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+
+        public Duration getClaimTimeout() {
+            return claimTimeout;
+        }
+
+        public void setClaimTimeout(Duration claimTimeout) {
+            this.claimTimeout = claimTimeout;
+        }
+
+        public int getRenderThreads() {
+            return renderThreads;
+        }
+
+        public void setRenderThreads(int renderThreads) {
+            this.renderThreads = renderThreads;
+        }
+
+        public int getRenderQueueCapacity() {
+            return renderQueueCapacity;
+        }
+
+        public void setRenderQueueCapacity(int renderQueueCapacity) {
+            this.renderQueueCapacity = renderQueueCapacity;
+        }
+    }
+    public static class Bulkheads {
+
+        /**
+         * Hilos virtuales en lugar de pools de hilos de plataforma (requiere Java 21).
+         */
+        private boolean virtualThreads = false;
+
+        /**
+         * Servidor SMTP: la bandeja de salida reintenta lo que no cabe.
+         */
+        private final Spec mail = new Spec(2, 100, RejectionPolicy.ABORT);
+
+        /**
+         * S3: subidas de imágenes y listados del gestor de archivos.
+         */
+        private final Spec storage = new Spec(8, 50, RejectionPolicy.ABORT);
+
+        /**
+         * Keycloak: como mucho tantas llamadas como conexiones tiene su cliente ({@code keycloak.connection-pool-size}).
+         */
+        private final Spec identity = new Spec(10, 20, RejectionPolicy.ABORT);
+
+        /**
+         * PayPal: con la cola llena responde 503 al momento; ejecutarlo en el hilo que llama se saltaría el tiempo máximo
+         * de {@link org.hotel.service.PaypalPaymentGateway}.
+         */
+        private final Spec payment = new Spec(8, 50, RejectionPolicy.ABORT);
+
+        public boolean isVirtualThreads() {
+            return virtualThreads;
+        }
+
+        public void setVirtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+        }
+
+        public Spec getMail() {
+            return mail;
+        }
+
+        public Spec getStorage() {
+            return storage;
+        }
+
+        public Spec getIdentity() {
+            return identity;
+        }
+
+        public Spec getPayment() {
+            return payment;
+        }
+
+        public enum RejectionPolicy {
+            ABORT,
+            CALLER_RUNS,
+        }
+
+        public static class Spec {
+
+            private int maxThreads;
+            private int queueCapacity;
+            private RejectionPolicy rejectionPolicy;
+
+            public Spec(int maxThreads, int queueCapacity, RejectionPolicy rejectionPolicy) {
+                this.maxThreads = maxThreads;
+                this.queueCapacity = queueCapacity;
+                this.rejectionPolicy = rejectionPolicy;
+            }
+
+            public int getMaxThreads() {
+                return maxThreads;
+            }
+
+            public void setMaxThreads(int maxThreads) {
+                this.maxThreads = maxThreads;
+            }
+
+            public int getQueueCapacity() {
+                return queueCapacity;
+            }
+
+            public void setQueueCapacity(int queueCapacity) {
+                this.queueCapacity = queueCapacity;
+            }
+
+            public RejectionPolicy getRejectionPolicy() {
+                return rejectionPolicy;
+            }
+
+            public void setRejectionPolicy(RejectionPolicy rejectionPolicy) {
+                this.rejectionPolicy = rejectionPolicy;
+            }
+        }
     }
     // jhipster-needle-application-properties-property-class
+    public static class Jwt {
+
+        /**
+         * Tokens ya verificados que se recuerdan (hasta su {@code exp}) para no repetir la firma en cada petición.
+         */
+        private long verifiedTokenCacheSize = 10_000;
+
+        /**
+         * Vigencia de las claves públicas del emisor antes de volver a descargarlas.
+         */
+        private Duration jwkSetTimeToLive = Duration.ofMinutes(10);
+
+        /**
+         * Antelación con la que se renuevan las claves en segundo plano, antes de que caduquen.
+         */
+        private Duration jwkSetRefreshAhead = Duration.ofMinutes(1);
+
+        /**
+         * Tiempo que se siguen usando las últimas claves si el emisor no responde.
+         */
+        private Duration jwkSetOutageTolerance = Duration.ofHours(1);
+
+        /**
+         * Espera mínima entre dos intentos de descubrimiento OIDC fallidos.
+         */
+        private Duration discoveryRetryInterval = Duration.ofSeconds(30);
+
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration readTimeout = Duration.ofSeconds(5);
+
+        public long getVerifiedTokenCacheSize() {
+            return verifiedTokenCacheSize;
+        }
+
+        public void setVerifiedTokenCacheSize(long verifiedTokenCacheSize) {
+            this.verifiedTokenCacheSize = verifiedTokenCacheSize;
+        }
+
+        public Duration getJwkSetTimeToLive() {
+            return jwkSetTimeToLive;
+        }
+
+        public void setJwkSetTimeToLive(Duration jwkSetTimeToLive) {
+            this.jwkSetTimeToLive = jwkSetTimeToLive;
+        }
+
+        public Duration getJwkSetRefreshAhead() {
+            return jwkSetRefreshAhead;
+        }
+
+        public void setJwkSetRefreshAhead(Duration jwkSetRefreshAhead) {
+            this.jwkSetRefreshAhead = jwkSetRefreshAhead;
+        }
+
+        public Duration getJwkSetOutageTolerance() {
+            return jwkSetOutageTolerance;
+        }
+
+        public void setJwkSetOutageTolerance(Duration jwkSetOutageTolerance) {
+            this.jwkSetOutageTolerance = jwkSetOutageTolerance;
+        }
+
+        public Duration getDiscoveryRetryInterval() {
+            return discoveryRetryInterval;
+        }
+
+        public void setDiscoveryRetryInterval(Duration discoveryRetryInterval) {
+            this.discoveryRetryInterval = discoveryRetryInterval;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+    }
 }
@@ -0,0 +1,71 @@
+package org.hotel.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hotel.service.IoBulkhead;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Un {@link IoBulkhead} por cada sistema externo que se llama de forma bloqueante, configurados en
+ * {@code application.bulkheads}. Se inyectan por nombre ({@code @Qualifier(BulkheadConfiguration.MAIL)}, etc.).
+ */
+@Configuration
+public class BulkheadConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BulkheadConfiguration.class);
+
+    public static final String MAIL = "mailBulkhead";
+    public static final String STORAGE = "storageBulkhead";
+    public static final String IDENTITY = "identityBulkhead";
+    public static final String PAYMENT = "paymentBulkhead";
+
+    private final ApplicationProperties.Bulkheads properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final boolean virtualThreads;
+
+    public BulkheadConfiguration(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.properties = applicationProperties.getBulkheads();
+        this.meterRegistry = meterRegistry;
+        this.virtualThreads = properties.isVirtualThreads() && JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE);
+        if (properties.isVirtualThreads() && !virtualThreads) {
+            LOG.warn("Virtual threads need Java 21 or later, bulkheads will use platform thread pools");
+        }
+    }
+
+    /**
+     * Envío SMTP: despacho de la bandeja de salida y {@code @Async} de {@link org.hotel.service.MailService}.
+     */
+    @Bean(name = MAIL)
+    public IoBulkhead mailBulkhead() {
+        return new IoBulkhead("mail", properties.getMail(), virtualThreads, meterRegistry);
+    }
+
+    /**
+     * Subidas, borrados y listados en S3.
+     */
+    @Bean(name = STORAGE)
+    public IoBulkhead storageBulkhead() {
+        return new IoBulkhead("storage", properties.getStorage(), virtualThreads, meterRegistry);
+    }
+
+    /**
+     * API de administración de Keycloak.
+     */
+    @Bean(name = IDENTITY)
+    public IoBulkhead identityBulkhead() {
+        return new IoBulkhead("identity", properties.getIdentity(), virtualThreads, meterRegistry);
+    }
+
+    /**
+     * Órdenes y capturas de PayPal.
+     */
+    @Bean(name = PAYMENT)
+    public IoBulkhead paymentBulkhead() {
+        return new IoBulkhead("payment", properties.getPayment(), virtualThreads, meterRegistry);
+    }
+}
@@ -0,0 +1,139 @@
+package org.hotel.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.net.URI;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hotel.domain.AssetCollection;
+import org.hotel.domain.Authority;
+import org.hotel.domain.HotelService;
+import org.hotel.domain.RoomType;
+import org.hotel.domain.User;
+import org.hotel.service.CustomerIdResolver;
+import org.hotel.service.PublicContentBundleService;
+import org.hotel.service.UserService;
+import org.hotel.service.WebContentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cachés locales (Caffeine) del contenido público del CMS y de datos por login de usuario.
+ * <p>
+ * Cada caché tiene nombre propio, tamaño máximo y expiración tras escritura, y registra estadísticas
+ * para que Micrometer exporte aciertos/fallos a Prometheus ({@code cache_gets_total{result="hit|miss"}}).
+ * Las invalidaciones se aplican tras el commit de la transacción que modifica los datos.
+ * <p>
+ * Aparte, un {@link javax.cache.CacheManager} JCache (Caffeine) aloja las regiones de la caché de segundo nivel
+ * de Hibernate ({@code hibernate.cache.use_second_level_cache}); sus estadísticas se publican por región
+ * bajo {@code cache.manager=hibernate}.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CacheConfiguration.class);
+
+    /**
+     * Regiones de la caché de segundo nivel: con {@code missing_cache_strategy: fail}, cada entidad o colección
+     * anotada con {@code @Cache} debe figurar aquí. {@code Room} queda fuera: su estado cambia en cada check-in,
+     * check-out y limpieza, y estas regiones son locales a cada instancia.
+     */
+    private static final List<String> HIBERNATE_REGIONS = List.of(
+        RoomType.class.getName(),
+        HotelService.class.getName(),
+        Authority.class.getName(),
+        User.class.getName() + ".authorities",
+        AssetCollection.class.getName()
+        // jhipster-needle-jcache-add-entry
+    );
+
+    private final ApplicationProperties.Cache cacheProperties;
+
+    public CacheConfiguration(ApplicationProperties applicationProperties) {
+        this.cacheProperties = applicationProperties.getCache();
+    }
+
+    @Bean
+    public CacheManager cacheManager() {
+        LOG.debug("Creating Caffeine cache manager");
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Solo las cachés declaradas aquí: un nombre desconocido en @Cacheable falla en vez de crear una caché sin límites
+        cacheManager.setCacheNames(List.of());
+
+        ApplicationProperties.Cache.Spec publicContent = cacheProperties.getPublicContent();
+        createCache(cacheManager, WebContentService.ACTIVE_CONTENT_BY_COLLECTION_CACHE, publicContent);
+        createCache(cacheManager, WebContentService.FIRST_CONTENT_BY_COLLECTION_CACHE, publicContent);
+        createCache(cacheManager, PublicContentBundleService.PUBLIC_CONTENT_BUNDLES_CACHE, publicContent);
+
+        createCache(cacheManager, UserService.USER_SYNC_FINGERPRINTS_CACHE, cacheProperties.getUserSync());
+        createCache(cacheManager, CustomerIdResolver.CUSTOMER_ID_BY_LOGIN_CACHE, cacheProperties.getCustomerLookup());
+        // jhipster-needle-caffeine-add-entry
+
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    /**
+     * CacheManager propio de cada contexto: Hibernate lo cierra al cerrar la SessionFactory.
+     */
+    @Bean(destroyMethod = "close")
+    public javax.cache.CacheManager hibernateCacheManager() {
+        LOG.debug("Creating JCache manager for the Hibernate second-level cache");
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        javax.cache.CacheManager cacheManager = provider.getCacheManager(
+            URI.create("hibernate-" + UUID.randomUUID()),
+            provider.getDefaultClassLoader()
+        );
+
+        ApplicationProperties.Cache.Spec spec = cacheProperties.getHibernate();
+        CaffeineConfiguration<Object, Object> regionConfiguration = new CaffeineConfiguration<>();
+        regionConfiguration.setMaximumSize(OptionalLong.of(spec.getMaxEntries()));
+        regionConfiguration.setExpireAfterWrite(OptionalLong.of(spec.getTimeToLive().toNanos()));
+        // Las entradas de Hibernate ya son copias desensambladas: no hace falta serializarlas otra vez
+        regionConfiguration.setStoreByValue(false);
+        regionConfiguration.setNativeStatisticsEnabled(true);
+        HIBERNATE_REGIONS.forEach(region -> cacheManager.createCache(region, regionConfiguration));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateSecondLevelCacheCustomizer(javax.cache.CacheManager hibernateCacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    /**
+     * Aciertos, fallos, escrituras y desalojos por región: {@code cache_gets_total{cache="org.hotel.domain.RoomType",cache_manager="hibernate"}}.
+     */
+    @Bean
+    public MeterBinder hibernateCacheMetrics(javax.cache.CacheManager hibernateCacheManager) {
+        return registry -> {
+            for (String region : hibernateCacheManager.getCacheNames()) {
+                com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache = hibernateCacheManager
+                    .getCache(region)
+                    .unwrap(com.github.benmanes.caffeine.cache.Cache.class);
+                CaffeineCacheMetrics.monitor(registry, nativeCache, region, "cache.manager", "hibernate");
+            }
+        };
+    }
+
+    private void createCache(CaffeineCacheManager cacheManager, String cacheName, ApplicationProperties.Cache.Spec spec) {
+        cacheManager.registerCustomCache(
+            cacheName,
+            Caffeine.newBuilder().maximumSize(spec.getMaxEntries()).expireAfterWrite(spec.getTimeToLive()).recordStats().build()
+        );
+    }
+}
@@ -0,0 +1,167 @@
+package org.hotel.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Servidor PayPal falso dentro del propio proceso ({@code paypal.mode=fake}), para probar y cargar el flujo de pago
+ * sin red ni credenciales del sandbox.
+ * <p>
+ * Atiende lo que usa la aplicación: token OAuth, creación de órdenes y captura. Una orden creada queda aprobada y su
+ * captura responde {@code COMPLETED} con el mismo importe; capturar dos veces la misma orden devuelve la misma captura,
+ * como hace PayPal con el {@code PayPal-Request-Id}. Con {@link #setLatency} cada respuesta se retrasa (un sandbox
+ * lento) y con {@link #setFailing} todas responden 503.
+ */
+public class FakePaypalServer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FakePaypalServer.class);
+
+    private static final Pattern CAPTURE_PATH = Pattern.compile("/v2/checkout/orders/([^/]+)/capture");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<String, Map<String, Object>> orders = new ConcurrentHashMap<>();
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private final HttpServer server;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private volatile Duration latency;
+
+    private volatile boolean failing;
+
+    public FakePaypalServer(int port, Duration latency) throws IOException {
+        this.latency = latency;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.server.setExecutor(executor);
+        this.server.createContext("/v1/oauth2/token", exchange -> handle(exchange, this::token));
+        this.server.createContext("/v2/checkout/orders", exchange -> handle(exchange, this::orders));
+    }
+
+    public void start() {
+        server.start();
+        LOG.warn("Fake PayPal server listening on {}, payments are NOT real", baseUrl());
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public String baseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    /**
+     * Cliente HTTP para el SDK: reescribe las URLs de PayPal (sandbox o producción) hacia este servidor.
+     */
+    public OkHttpClient httpClient() {
+        HttpUrl target = HttpUrl.get(baseUrl());
+        return new OkHttpClient.Builder()
+            .addInterceptor(chain -> {
+                HttpUrl url = chain.request().url().newBuilder().scheme(target.scheme()).host(target.host()).port(target.port()).build();
+                return chain.proceed(chain.request().newBuilder().url(url).build());
+            })
+            .build();
+    }
+
+    public void setLatency(Duration latency) {
+        this.latency = latency;
+    }
+
+    public void setFailing(boolean failing) {
+        this.failing = failing;
+    }
+
+    /**
+     * Peticiones recibidas, incluidas las de token.
+     */
+    public int getRequestCount() {
+        return requests.get();
+    }
+
+    private interface Handler {
+        Response handle(HttpExchange exchange) throws IOException;
+    }
+
+    private record Response(int status, Object body) {}
+
+    private void handle(HttpExchange exchange, Handler handler) throws IOException {
+        requests.incrementAndGet();
+        try (exchange) {
+            Response response;
+            if (!latency.isZero()) {
+                try {
+                    Thread.sleep(latency.toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (failing) {
+                response = error(503, "SERVICE_UNAVAILABLE", "Fake PayPal server is failing on purpose");
+            } else if (!"POST".equals(exchange.getRequestMethod())) {
+                response = error(405, "METHOD_NOT_SUPPORTED", "Only POST is supported");
+            } else {
+                response = handler.handle(exchange);
+            }
+            byte[] body = objectMapper.writeValueAsBytes(response.body());
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(response.status(), body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private Response token(HttpExchange exchange) {
+        return new Response(200, Map.of("access_token", "fake-" + UUID.randomUUID(), "token_type", "Bearer", "expires_in", 32400));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Response orders(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        if ("/v2/checkout/orders".equals(path)) {
+            Map<String, Object> request = objectMapper.readValue(exchange.getRequestBody(), Map.class);
+            List<Map<String, Object>> units = (List<Map<String, Object>>) request.getOrDefault("purchase_units", List.of());
+            String id = UUID.randomUUID().toString().replace("-", "").substring(0, 17).toUpperCase();
+            Map<String, Object> order = new ConcurrentHashMap<>(Map.of("id", id, "status", "APPROVED", "intent", "CAPTURE", "purchase_units", units));
+            orders.put(id, order);
+            return new Response(201, Map.of("id", id, "status", "CREATED", "intent", "CAPTURE", "purchase_units", units));
+        }
+        Matcher capture = CAPTURE_PATH.matcher(path);
+        if (!capture.matches()) {
+            return error(404, "NOT_FOUND", "Unknown resource " + path);
+        }
+        Map<String, Object> order = orders.get(capture.group(1));
+        if (order == null) {
+            return error(404, "RESOURCE_NOT_FOUND", "The specified resource does not exist.");
+        }
+        order.put("status", "COMPLETED");
+        return new Response(201, order);
+    }
+
+    private static Response error(int status, String name, String message) {
+        return new Response(status, Map.of("name", name, "message", message, "debug_id", UUID.randomUUID().toString()));
+    }
+}
@@ -0,0 +1,105 @@
+package org.hotel.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientRequestFilter;
+import jakarta.ws.rs.client.ClientResponseContext;
+import jakarta.ws.rs.client.ClientResponseFilter;
+import java.util.concurrent.TimeUnit;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.keycloak.admin.client.JacksonProvider;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.KeycloakBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cliente de administración de Keycloak compartido por toda la aplicación.
+ * <p>
+ * Un único {@link Keycloak} reutiliza las conexiones HTTP de su pool y el token de administración: el
+ * {@code TokenManager} lo pide una vez (password grant) y lo renueva con el refresh token cuando le queda menos de
+ * {@code application.keycloak.token-min-validity}. Cada petición HTTP se mide en
+ * {@code keycloak.admin.requests} (endpoint token/admin, método y estado).
+ */
+@Configuration
+public class KeycloakAdminConfiguration {
+
+    public static final String REQUESTS_METRIC = "keycloak.admin.requests";
+
+    private static final Logger LOG = LoggerFactory.getLogger(KeycloakAdminConfiguration.class);
+
+    private final ApplicationProperties applicationProperties;
+
+    public KeycloakAdminConfiguration(ApplicationProperties applicationProperties) {
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * No contacta con Keycloak hasta la primera operación.
+     */
+    @Bean(destroyMethod = "close")
+    public Keycloak keycloakAdminClient(MeterRegistry meterRegistry) {
+        ApplicationProperties.Keycloak config = applicationProperties.getKeycloak();
+        LOG.debug("Creating Keycloak admin client for {} (pool size {})", config.getServerUrl(), config.getConnectionPoolSize());
+
+        Client httpClient = ((ResteasyClientBuilder) ClientBuilder.newBuilder())
+            .connectionPoolSize(config.getConnectionPoolSize())
+            .maxPooledPerRoute(config.getConnectionPoolSize())
+            .connectionTTL(config.getConnectionTtl().toMillis(), TimeUnit.MILLISECONDS)
+            .connectTimeout(config.getConnectTimeout().toMillis(), TimeUnit.MILLISECONDS)
+            .readTimeout(config.getReadTimeout().toMillis(), TimeUnit.MILLISECONDS)
+            .register(JacksonProvider.class, 100)
+            .register(new RequestMetricsFilter(meterRegistry))
+            .build();
+
+        Keycloak keycloak = KeycloakBuilder.builder()
+            .serverUrl(config.getServerUrl())
+            .realm(config.getRealm())
+            .username(config.getUsername())
+            .password(config.getPassword())
+            .clientId("admin-cli")
+            .resteasyClient(httpClient)
+            .build();
+        keycloak.tokenManager().setMinTokenValidity(config.getTokenMinValidity().toSeconds());
+        return keycloak;
+    }
+
+    /**
+     * Mide cada ida y vuelta HTTP a Keycloak, incluidas las del token, para ver cuántas se ahorran.
+     */
+    static final class RequestMetricsFilter implements ClientRequestFilter, ClientResponseFilter {
+
+        private static final String START_PROPERTY = RequestMetricsFilter.class.getName() + ".start";
+
+        private final MeterRegistry meterRegistry;
+
+        RequestMetricsFilter(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public void filter(ClientRequestContext request) {
+            request.setProperty(START_PROPERTY, System.nanoTime());
+        }
+
+        @Override
+        public void filter(ClientRequestContext request, ClientResponseContext response) {
+            Object start = request.getProperty(START_PROPERTY);
+            if (!(start instanceof Long startNanos)) {
+                return;
+            }
+            Timer.builder(REQUESTS_METRIC)
+                .description("HTTP round trips to Keycloak made by the admin client")
+                .tag("endpoint", request.getUri().getPath().contains("/protocol/openid-connect/") ? "token" : "admin")
+                .tag("method", request.getMethod())
+                .tag("status", Integer.toString(response.getStatus()))
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
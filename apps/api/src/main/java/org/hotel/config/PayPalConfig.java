@@ -3,11 +3,17 @@ package org.hotel.config;
 import com.paypal.sdk.Environment;
 import com.paypal.sdk.PaypalServerSdkClient;
 import com.paypal.sdk.authentication.ClientCredentialsAuthModel;
+import java.io.IOException;
+import java.time.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Profiles;
+import tech.jhipster.config.JHipsterConstants;
 
 @Configuration
 public class PayPalConfig {
@@ -23,15 +29,45 @@ public class PayPalConfig {
     @Value("${paypal.mode}")
     private String mode;
 
+    /**
+     * Límite de cada petición HTTP del SDK. Los de cada operación ({@code resilience4j.timelimiter}) son menores y
+     * responden antes; este libera el hilo del pool de pagos si PayPal no contesta.
+     */
+    @Value("${paypal.http-timeout:30s}")
+    private Duration httpTimeout;
+
     @Bean
-    public PaypalServerSdkClient paypalClient() {
+    public PaypalServerSdkClient paypalClient(ObjectProvider<FakePaypalServer> fakePaypalServer) {
         log.info("Configuring PayPal Client in {} mode", mode);
 
         Environment environment = "live".equalsIgnoreCase(mode) ? Environment.PRODUCTION : Environment.SANDBOX;
+        FakePaypalServer fake = fakePaypalServer.getIfAvailable();
 
         return new PaypalServerSdkClient.Builder()
             .clientCredentialsAuth(new ClientCredentialsAuthModel.Builder(clientId, clientSecret).build())
             .environment(environment)
+            .httpClientConfig(config -> {
+                config.timeout(Math.max(1, httpTimeout.toSeconds()));
+                if (fake != null) {
+                    config.httpClientInstance(fake.httpClient());
+                }
+            })
             .build();
     }
+
+    /**
+     * {@code paypal.mode=fake}: PayPal falso en el propio proceso, para pruebas de carga sin red. Nunca en producción.
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnProperty(name = "paypal.mode", havingValue = "fake")
+    public FakePaypalServer fakePaypalServer(
+        org.springframework.core.env.Environment env,
+        @Value("${paypal.fake.port:0}") int port,
+        @Value("${paypal.fake.latency:0ms}") Duration latency
+    ) throws IOException {
+        if (env.acceptsProfiles(Profiles.of(JHipsterConstants.SPRING_PROFILE_PRODUCTION))) {
+            throw new IllegalStateException("paypal.mode=fake is not allowed with the prod profile");
+        }
+        return new FakePaypalServer(port, latency);
+    }
 }
@@ -1,8 +1,17 @@
 package org.hotel.config;
 
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.hotel.security.AuthoritiesConstants;
 import org.hotel.security.SecurityUtils;
 import org.hotel.security.oauth2.AudienceValidator;
+import org.hotel.security.oauth2.CachingJwtDecoder;
+import org.hotel.security.oauth2.IssuerJwkSource;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -25,6 +34,9 @@ import org.springframework.web.servlet.handler.HandlerMappingIntrospector;
 import tech.jhipster.config.JHipsterProperties;
 
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
 import static org.springframework.security.config.Customizer.withDefaults;
 import static org.springframework.security.oauth2.core.oidc.StandardClaimNames.PREFERRED_USERNAME;
@@ -33,13 +45,21 @@ import static org.springframework.security.oauth2.core.oidc.StandardClaimNames.P
 @EnableMethodSecurity(securedEnabled = true)
 public class SecurityConfiguration {
 
+    /**
+     * Algoritmos de firma aceptados; la clave concreta la elige el {@code kid} del token entre las del emisor.
+     */
+    private static final Set<JWSAlgorithm> SIGNATURE_ALGORITHMS = signatureAlgorithms();
+
     private final JHipsterProperties jHipsterProperties;
 
+    private final ApplicationProperties applicationProperties;
+
     @Value("${spring.security.oauth2.client.provider.oidc.issuer-uri}")
     private String issuerUri;
 
-    public SecurityConfiguration(JHipsterProperties jHipsterProperties) {
+    public SecurityConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
         this.jHipsterProperties = jHipsterProperties;
+        this.applicationProperties = applicationProperties;
     }
 
     @Bean
@@ -131,9 +151,28 @@ public class SecurityConfiguration {
         return jwtAuthenticationConverter;
     }
 
+    /**
+     * Claves del emisor: no contacta con Keycloak al crear el bean, sino en el primer token o en el calentamiento.
+     */
+    @Bean(destroyMethod = "close")
+    IssuerJwkSource issuerJwkSource() {
+        return new IssuerJwkSource(issuerUri, applicationProperties.getJwt());
+    }
+
+    /**
+     * Verifica firma, emisor, audiencia y vigencia una vez por token; las peticiones siguientes con el mismo token
+     * salen de {@link CachingJwtDecoder} (métricas en {@code cache_gets_total{cache="verifiedJwt"}}).
+     */
     @Bean
-    JwtDecoder jwtDecoder() {
-        NimbusJwtDecoder jwtDecoder = JwtDecoders.fromOidcIssuerLocation(issuerUri);
+    JwtDecoder jwtDecoder(
+            IssuerJwkSource issuerJwkSource,
+            MeterRegistry meterRegistry,
+            @Qualifier("taskExecutor") Executor taskExecutor) {
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(SIGNATURE_ALGORITHMS, issuerJwkSource));
+        // Los claims los comprueban los validadores de Spring
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {});
+        NimbusJwtDecoder jwtDecoder = new NimbusJwtDecoder(jwtProcessor);
 
         OAuth2TokenValidator<Jwt> audienceValidator = new AudienceValidator(
                 jHipsterProperties.getSecurity().getOauth2().getAudience());
@@ -142,6 +181,17 @@ public class SecurityConfiguration {
 
         jwtDecoder.setJwtValidator(withAudience);
 
-        return jwtDecoder;
+        CachingJwtDecoder cachingJwtDecoder = new CachingJwtDecoder(jwtDecoder,
+                applicationProperties.getJwt().getVerifiedTokenCacheSize());
+        CaffeineCacheMetrics.monitor(meterRegistry, cachingJwtDecoder.getVerifiedTokens(), "verifiedJwt");
+        // Descubrimiento en segundo plano: el arranque no espera ni depende de que Keycloak responda
+        taskExecutor.execute(issuerJwkSource::warmUp);
+        return cachingJwtDecoder;
+    }
+
+    private static Set<JWSAlgorithm> signatureAlgorithms() {
+        Set<JWSAlgorithm> algorithms = new HashSet<>(JWSAlgorithm.Family.RSA);
+        algorithms.addAll(JWSAlgorithm.Family.EC);
+        return Set.copyOf(algorithms);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,33 @@
+package org.hotel.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.embedded.undertow.UndertowServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+/**
+ * Peticiones HTTP en hilos virtuales ({@code spring.threads.virtual.enabled=true}, solo con Java 21 o superior).
+ * <p>
+ * Spring Boot solo aplica esa propiedad a Tomcat y Jetty: en Undertow, cada petición de servlet pasa a ejecutarse en
+ * un hilo virtual propio en lugar de en el pool de trabajadores ({@code server.undertow.threads.worker}); los hilos
+ * de E/S de Undertow no cambian. {@link AsyncConfiguration} hace lo mismo con {@code @Async}.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadsConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VirtualThreadsConfiguration.class);
+
+    @Bean
+    public WebServerFactoryCustomizer<UndertowServletWebServerFactory> undertowVirtualThreadsCustomizer() {
+        return factory -> {
+            LOG.info("Undertow will run servlet requests on virtual threads");
+            factory.addDeploymentInfoCustomizers(deploymentInfo -> deploymentInfo.setExecutor(new VirtualThreadTaskExecutor("undertow-vt-")));
+        };
+    }
+}
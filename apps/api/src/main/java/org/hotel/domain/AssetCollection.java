@@ -6,6 +6,8 @@ import jakarta.validation.constraints.*;
 import java.io.Serializable;
 import java.util.HashSet;
 import java.util.Set;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hotel.domain.enumeration.CollectionType;
 
 /**
@@ -14,6 +16,7 @@ import org.hotel.domain.enumeration.CollectionType;
  */
 @Entity
 @Table(name = "asset_collection")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class AssetCollection implements Serializable {
 
@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import java.io.Serializable;
 import java.math.BigDecimal;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hotel.domain.enumeration.ServiceStatus;
 
 /**
@@ -11,6 +13,7 @@ import org.hotel.domain.enumeration.ServiceStatus;
  */
 @Entity
 @Table(name = "hotel_service")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class HotelService implements Serializable {
 
@@ -0,0 +1,117 @@
+package org.hotel.domain;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Habitaciones reservadas de un tipo en una noche concreta.
+ * Tabla materializada a partir de las reservas, mantenida en la misma transacción que cada escritura.
+ */
+@Entity
+@Table(name = "room_type_inventory")
+@IdClass(RoomTypeInventory.RoomTypeNight.class)
+public class RoomTypeInventory implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "room_type_id")
+    private Long roomTypeId;
+
+    @Id
+    @Column(name = "night")
+    private LocalDate night;
+
+    @NotNull
+    @Column(name = "booked_count", nullable = false)
+    private Integer bookedCount;
+
+    public Long getRoomTypeId() {
+        return this.roomTypeId;
+    }
+
+    public void setRoomTypeId(Long roomTypeId) {
+        this.roomTypeId = roomTypeId;
+    }
+
+    public LocalDate getNight() {
+        return this.night;
+    }
+
+    public void setNight(LocalDate night) {
+        this.night = night;
+    }
+
+    public Integer getBookedCount() {
+        return this.bookedCount;
+    }
+
+    public void setBookedCount(Integer bookedCount) {
+        this.bookedCount = bookedCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RoomTypeInventory)) {
+            return false;
+        }
+        RoomTypeInventory other = (RoomTypeInventory) o;
+        return roomTypeId != null && roomTypeId.equals(other.roomTypeId) && Objects.equals(night, other.night);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "RoomTypeInventory{" +
+            "roomTypeId=" + getRoomTypeId() +
+            ", night='" + getNight() + "'" +
+            ", bookedCount=" + getBookedCount() +
+            "}";
+    }
+
+    /**
+     * Clave compuesta (tipo de habitación, noche).
+     */
+    public static class RoomTypeNight implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private Long roomTypeId;
+        private LocalDate night;
+
+        public RoomTypeNight() {}
+
+        public RoomTypeNight(Long roomTypeId, LocalDate night) {
+            this.roomTypeId = roomTypeId;
+            this.night = night;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RoomTypeNight)) {
+                return false;
+            }
+            RoomTypeNight other = (RoomTypeNight) o;
+            return Objects.equals(roomTypeId, other.roomTypeId) && Objects.equals(night, other.night);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(roomTypeId, night);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package org.hotel.domain.enumeration;
+
+/**
+ * Correos transaccionales que recibe el cliente.
+ */
+public enum CustomerEmailType {
+    BOOKING_CREATED,
+    BOOKING_APPROVED,
+    BOOKING_DECLINED,
+    PAYMENT_SUCCESS,
+}
@@ -0,0 +1,9 @@
+package org.hotel.domain.enumeration;
+
+/**
+ * Estado de un correo en la bandeja de salida: los enviados se borran, los que agotan los reintentos quedan en FAILED.
+ */
+public enum MailOutboxStatus {
+    PENDING,
+    FAILED,
+}
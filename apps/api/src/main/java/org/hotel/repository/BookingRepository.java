@@ -1,5 +1,6 @@
 package org.hotel.repository;
 
+import jakarta.persistence.QueryHint;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
@@ -39,16 +40,36 @@ public interface BookingRepository extends JpaRepository<Booking, Long>, JpaSpec
     @Query("select booking from Booking booking left join fetch booking.customer where booking.id =:id")
     Optional<Booking> findOneWithToOneRelationships(@Param("id") Long id);
 
-    @Query("select count(b) from Booking b join b.bookingItems bi where bi.roomType.id = :roomTypeId and b.status <> 'CANCELLED' and ((b.checkInDate < :checkOut and b.checkOutDate > :checkIn))")
-    long countOverlappingBookings(@Param("roomTypeId") Long roomTypeId, @Param("checkIn") LocalDate checkIn, @Param("checkOut") LocalDate checkOut);
-
-    @Query("select count(b) from Booking b join b.bookingItems bi where bi.roomType.id = :roomTypeId and b.status <> 'CANCELLED' and ((b.checkInDate < :checkOut and b.checkOutDate > :checkIn)) and b.id <> :excludeId")
-    long countOverlappingBookingsExcludingSelf(@Param("roomTypeId") Long roomTypeId, @Param("checkIn") LocalDate checkIn, @Param("checkOut") LocalDate checkOut, @Param("excludeId") Long excludeId);
-
     @Query("select count(b) from Booking b join b.bookingItems bi where bi.assignedRoom.id = :roomId and b.status <> 'CANCELLED' and ((b.checkInDate < :checkOut and b.checkOutDate > :checkIn)) and (:excludeId is null or b.id <> :excludeId)")
     long countOverlappingBookingsForSpecificRoom(@Param("roomId") Long roomId, @Param("checkIn") LocalDate checkIn, @Param("checkOut") LocalDate checkOut, @Param("excludeId") Long excludeId);
 
-    Page<Booking> findByCustomer_User_Login(String login, Pageable pageable);
+    /**
+     * Proyección plana (reserva, fechas, tipo de habitación): una fila por cada BookingItem de reservas no canceladas
+     * que solapan [from, to).
+     */
+    @Query("select b.id as bookingId, b.checkInDate as checkInDate, b.checkOutDate as checkOutDate, bi.roomType.id as roomTypeId " +
+        "from Booking b join b.bookingItems bi where b.status <> 'CANCELLED' and b.checkInDate < :to and b.checkOutDate > :from")
+    List<BookingNightsRow> findOccupancyRowsOverlapping(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Ocupación tal como está persistida (sin volcar cambios pendientes del contexto) de una reserva no cancelada.
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.flushMode", value = "COMMIT"))
+    @Query("select b.id as bookingId, b.checkInDate as checkInDate, b.checkOutDate as checkOutDate, bi.roomType.id as roomTypeId " +
+        "from Booking b join b.bookingItems bi where b.status <> 'CANCELLED' and b.id = :bookingId")
+    List<BookingNightsRow> findPersistedOccupancyRows(@Param("bookingId") Long bookingId);
+
+    Page<Booking> findByCustomer_Id(Long customerId, Pageable pageable);
+
+    Optional<Booking> findByIdAndCustomer_Id(Long id, Long customerId);
 
-    Optional<Booking> findByIdAndCustomer_User_Login(Long id, String login);
+    interface BookingNightsRow {
+        Long getBookingId();
+
+        LocalDate getCheckInDate();
+
+        LocalDate getCheckOutDate();
+
+        Long getRoomTypeId();
+    }
 }
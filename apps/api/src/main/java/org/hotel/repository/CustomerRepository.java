@@ -41,4 +41,10 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
     Optional<Customer> findOneByLicenseId(String licenseId);
 
     Optional<Customer> findOneByUser_Login(String login);
+
+    @Query("select customer.id from Customer customer where customer.user.login = :login")
+    Optional<Long> findIdByUserLogin(@Param("login") String login);
+
+    @Query("select customer.user.login from Customer customer where customer.id = :id")
+    Optional<String> findUserLoginById(@Param("id") Long id);
 }
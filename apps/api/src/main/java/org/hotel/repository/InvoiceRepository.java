@@ -1,9 +1,11 @@
 package org.hotel.repository;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 import org.hotel.domain.Invoice;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
@@ -38,11 +40,37 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long>, JpaSpec
     @Query("select invoice from Invoice invoice left join fetch invoice.booking b left join fetch b.customer left join fetch invoice.items where invoice.id =:id")
     Optional<Invoice> findOneWithToOneRelationships(@Param("id") Long id);
 
-    Page<Invoice> findByBooking_Customer_User_Login(String login, Pageable pageable);
-
     Optional<Invoice> findByCode(String code);
 
     List<Invoice> findAllByBookingId(Long bookingId);
 
-    Page<Invoice> findByBooking_IdAndBooking_Customer_User_Login(Long bookingId, String login, Pageable pageable);
+    /**
+     * Factura abierta (ni pagada ni cancelada) más antigua de la reserva, solo su id. Usa el índice de
+     * {@code invoice.booking_id}.
+     */
+    default Optional<Long> findOpenInvoiceId(Long bookingId) {
+        return this.findOpenInvoiceIds(bookingId, PageRequest.of(0, 1)).stream().findFirst();
+    }
+
+    @Query(
+        "select invoice.id from Invoice invoice where invoice.booking.id = :bookingId and invoice.status not in " +
+        "(org.hotel.domain.enumeration.InvoiceStatus.PAID, org.hotel.domain.enumeration.InvoiceStatus.CANCELLED) order by invoice.id"
+    )
+    List<Long> findOpenInvoiceIds(@Param("bookingId") Long bookingId, Pageable pageable);
+
+    /**
+     * Suma un cargo a los totales de la factura en la base de datos, sin leer sus líneas: dos cargos a la vez no se pisan.
+     * Solo si la factura sigue abierta: devuelve 0 cuando se pagó o canceló después de leer su id.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(
+        "update Invoice invoice set invoice.totalAmount = coalesce(invoice.totalAmount, 0) + :amount, " +
+        "invoice.taxAmount = coalesce(invoice.taxAmount, 0) + :taxAmount where invoice.id = :id and invoice.status not in " +
+        "(org.hotel.domain.enumeration.InvoiceStatus.PAID, org.hotel.domain.enumeration.InvoiceStatus.CANCELLED)"
+    )
+    int addCharge(@Param("id") Long id, @Param("amount") BigDecimal amount, @Param("taxAmount") BigDecimal taxAmount);
+
+    Page<Invoice> findByBooking_Customer_Id(Long customerId, Pageable pageable);
+
+    Page<Invoice> findByBooking_IdAndBooking_Customer_Id(Long bookingId, Long customerId, Pageable pageable);
 }
@@ -0,0 +1,29 @@
+package org.hotel.repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.List;
+import org.hotel.domain.MailOutbox;
+import org.hotel.domain.enumeration.MailOutboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the MailOutbox entity.
+ */
+@Repository
+public interface MailOutboxRepository extends JpaRepository<MailOutbox, Long> {
+    /**
+     * Correos pendientes cuyo próximo intento ya ha llegado, bloqueados para esta transacción. Las filas que otro
+     * despachador tiene bloqueadas se saltan ({@code SKIP LOCKED}) en vez de esperar.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select mail from MailOutbox mail where mail.status = :status and mail.nextAttemptAt <= :now order by mail.nextAttemptAt")
+    List<MailOutbox> findDueForUpdate(@Param("status") MailOutboxStatus status, @Param("now") Instant now, Pageable pageable);
+
+    long countByStatus(MailOutboxStatus status);
+}
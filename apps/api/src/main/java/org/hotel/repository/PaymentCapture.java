@@ -0,0 +1,19 @@
+package org.hotel.repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import org.hotel.domain.enumeration.PaymentMethod;
+
+/**
+ * Pago registrado para una orden de PayPal, con la factura y el cliente dueño, leído en una sola consulta por el
+ * índice único de {@code payment.reference_id}.
+ */
+public record PaymentCapture(
+    Long id,
+    Instant date,
+    BigDecimal amount,
+    PaymentMethod method,
+    String referenceId,
+    Long invoiceId,
+    Long customerId
+) {}
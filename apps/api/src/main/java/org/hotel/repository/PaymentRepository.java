@@ -37,4 +37,16 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
     @Query("select payment from Payment payment left join fetch payment.invoice where payment.id =:id")
     Optional<Payment> findOneWithToOneRelationships(@Param("id") Long id);
+
+    /**
+     * Pago registrado para una orden de PayPal (su id se guarda como referencia, única entre los pagos PayPal), sin
+     * cargar entidades.
+     */
+    @Query(
+        "select new org.hotel.repository.PaymentCapture(payment.id, payment.date, payment.amount, payment.method, payment.referenceId, " +
+        "invoice.id, customer.id) from Payment payment join payment.invoice invoice left join invoice.booking booking " +
+        "left join booking.customer customer where payment.referenceId = :referenceId " +
+        "and payment.method = org.hotel.domain.enumeration.PaymentMethod.PAYPAL"
+    )
+    Optional<PaymentCapture> findCaptureByReferenceId(@Param("referenceId") String referenceId);
 }
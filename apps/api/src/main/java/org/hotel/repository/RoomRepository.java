@@ -32,6 +32,9 @@ public interface RoomRepository extends JpaRepository<Room, Long>, JpaSpecificat
     Optional<Room> findOneWithToOneRelationships(@Param("id") Long id);
     long countByRoomTypeId(Long roomTypeId);
 
+    @Query("select room.roomType.id as roomTypeId, count(room) as total from Room room group by room.roomType.id")
+    List<RoomTypeCountRow> countGroupedByRoomType();
+
     boolean existsByRoomNumber(@NotNull String roomNumber);
 
     boolean existsByRoomNumberAndIdNot(@NotNull String roomNumber, Long id);
@@ -44,4 +47,10 @@ public interface RoomRepository extends JpaRepository<Room, Long>, JpaSpecificat
         AND b.status IN ('CONFIRMED', 'CHECKED_IN')
    \s""")
     boolean existsActiveBookingForRoom(@Param("roomId") Long roomId);
+
+    interface RoomTypeCountRow {
+        Long getRoomTypeId();
+
+        Long getTotal();
+    }
 }
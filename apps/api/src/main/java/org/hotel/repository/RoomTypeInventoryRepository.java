@@ -0,0 +1,89 @@
+package org.hotel.repository;
+
+import jakarta.persistence.QueryHint;
+import java.time.LocalDate;
+import java.util.List;
+import org.hotel.domain.RoomTypeInventory;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the RoomTypeInventory entity.
+ * <p>
+ * Las escrituras nativas declaran {@code room_type_inventory} como único espacio afectado; sin ello Hibernate
+ * invalidaría toda la caché de segundo nivel en cada reserva.
+ */
+@Repository
+public interface RoomTypeInventoryRepository extends JpaRepository<RoomTypeInventory, RoomTypeInventory.RoomTypeNight> {
+    @Query(
+        "select inventory from RoomTypeInventory inventory where inventory.roomTypeId = :roomTypeId " +
+        "and inventory.night >= :checkIn and inventory.night < :checkOut"
+    )
+    List<RoomTypeInventory> findNights(
+        @Param("roomTypeId") Long roomTypeId,
+        @Param("checkIn") LocalDate checkIn,
+        @Param("checkOut") LocalDate checkOut
+    );
+
+    /**
+     * Crea a cero las noches de [checkIn, checkOut) que aún no existen para el tipo.
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "room_type_inventory"))
+    @Query(
+        value = "insert into room_type_inventory (room_type_id, night, booked_count) " +
+        "select :roomTypeId, cast(d as date), 0 " +
+        "from generate_series(cast(:checkIn as date), cast(:checkOut as date) - 1, interval '1 day') d " +
+        "on conflict (room_type_id, night) do nothing",
+        nativeQuery = true
+    )
+    int createMissingNights(
+        @Param("roomTypeId") Long roomTypeId,
+        @Param("checkIn") LocalDate checkIn,
+        @Param("checkOut") LocalDate checkOut
+    );
+
+    /**
+     * Suma {@code rooms} a cada noche de [checkIn, checkOut) solo si no supera las habitaciones físicas del tipo.
+     * Devuelve las noches actualizadas: si son menos que las noches pedidas, alguna estaba llena.
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "room_type_inventory"))
+    @Query(
+        value = "update room_type_inventory set booked_count = booked_count + :rooms " +
+        "where room_type_id = :roomTypeId and night >= :checkIn and night < :checkOut " +
+        "and booked_count + :rooms <= (select count(*) from room r where r.room_type_id = :roomTypeId)",
+        nativeQuery = true
+    )
+    int reserveNights(
+        @Param("roomTypeId") Long roomTypeId,
+        @Param("checkIn") LocalDate checkIn,
+        @Param("checkOut") LocalDate checkOut,
+        @Param("rooms") int rooms
+    );
+
+    /**
+     * Resta {@code rooms} a cada noche de [checkIn, checkOut). Sin límite inferior a propósito: liberar dos veces la
+     * misma reserva viola {@code ck_room_type_inventory__booked_count} en lugar de esconder el desfase.
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "room_type_inventory"))
+    @Query(
+        value = "update room_type_inventory set booked_count = booked_count - :rooms " +
+        "where room_type_id = :roomTypeId and night >= :checkIn and night < :checkOut",
+        nativeQuery = true
+    )
+    int releaseNights(
+        @Param("roomTypeId") Long roomTypeId,
+        @Param("checkIn") LocalDate checkIn,
+        @Param("checkOut") LocalDate checkOut,
+        @Param("rooms") int rooms
+    );
+
+    /**
+     * Advisory lock de PostgreSQL a nivel de transacción; se libera solo en commit o rollback.
+     */
+    @Query(value = "select count(*) from pg_advisory_xact_lock(:lockKey)", nativeQuery = true)
+    long lockTransactionScoped(@Param("lockKey") long lockKey);
+}
@@ -1,7 +1,11 @@
 package org.hotel.repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
 import org.hotel.domain.RoomType;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +13,34 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface RoomTypeRepository extends JpaRepository<RoomType, Long> {}
+public interface RoomTypeRepository extends JpaRepository<RoomType, Long> {
+    /**
+     * Disponibilidad de todos los tipos de habitación en una sola consulta:
+     * habitaciones físicas y pico de habitaciones reservadas por noche en [checkIn, checkOut), agregados por tipo.
+     */
+    @Query(
+        """
+        select rt.id as id, rt.name as name, rt.basePrice as basePrice, rt.maxCapacity as maxCapacity,
+            (select count(r) from Room r where r.roomType = rt) as totalRooms,
+            coalesce((select max(inventory.bookedCount) from RoomTypeInventory inventory
+                where inventory.roomTypeId = rt.id and inventory.night >= :checkIn and inventory.night < :checkOut), 0) as bookedRooms
+        from RoomType rt
+        order by rt.id
+        """
+    )
+    List<RoomTypeAvailabilityRow> findAvailabilityBetween(@Param("checkIn") LocalDate checkIn, @Param("checkOut") LocalDate checkOut);
+
+    interface RoomTypeAvailabilityRow {
+        Long getId();
+
+        String getName();
+
+        BigDecimal getBasePrice();
+
+        Integer getMaxCapacity();
+
+        Long getTotalRooms();
+
+        Integer getBookedRooms();
+    }
+}
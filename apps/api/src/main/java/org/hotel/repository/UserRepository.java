@@ -1,10 +1,14 @@
 package org.hotel.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.hotel.domain.User;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -20,4 +24,13 @@ public interface UserRepository extends JpaRepository<User, String> {
     Optional<User> findOneWithAuthoritiesByLogin(String login);
 
     Page<User> findAllByIdNotNullAndActivatedIsTrue(Pageable pageable);
+
+    /**
+     * Página de ids posteriores a {@code afterId} (paginación por clave, estable aunque se inserten filas).
+     */
+    @Query("select user.id from User user where user.id > :afterId order by user.id")
+    List<String> findIdsAfter(@Param("afterId") String afterId, Pageable pageable);
+
+    @EntityGraph(attributePaths = "authorities")
+    List<User> findAllWithAuthoritiesByIdIn(Collection<String> ids);
 }
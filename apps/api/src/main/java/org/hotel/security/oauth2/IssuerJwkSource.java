@@ -0,0 +1,147 @@
+package org.hotel.security.oauth2;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.DefaultResourceRetriever;
+import com.nimbusds.jose.util.JSONObjectUtils;
+import com.nimbusds.jose.util.ResourceRetriever;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import org.hotel.config.ApplicationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Claves públicas del emisor OIDC, descubiertas en el primer uso en vez de al arrancar.
+ * <p>
+ * El {@code jwks_uri} se lee de {@code <issuer>/.well-known/openid-configuration} cuando hace falta la primera clave
+ * (o en {@link #warmUp()}); si el emisor no responde, la aplicación arranca igual y el descubrimiento se reintenta,
+ * como mucho una vez cada {@code discovery-retry-interval}. Después, las claves se guardan en caché y se renuevan en
+ * segundo plano antes de caducar; si el emisor cae, se siguen usando las últimas durante
+ * {@code jwk-set-outage-tolerance}.
+ */
+public class IssuerJwkSource implements JWKSource<SecurityContext>, Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IssuerJwkSource.class);
+
+    private final String issuer;
+
+    private final ApplicationProperties.Jwt properties;
+
+    private final ResourceRetriever resourceRetriever;
+
+    private final Clock clock;
+
+    private volatile JWKSource<SecurityContext> delegate;
+
+    private volatile Instant nextDiscoveryAttempt = Instant.MIN;
+
+    /**
+     * El descubrimiento hace peticiones HTTP: con un {@code synchronized} un hilo virtual bloquearía su hilo portador
+     * mientras espera al emisor.
+     */
+    private final ReentrantLock discoveryLock = new ReentrantLock();
+
+    public IssuerJwkSource(String issuer, ApplicationProperties.Jwt properties) {
+        this(
+            issuer,
+            properties,
+            new DefaultResourceRetriever(
+                (int) properties.getConnectTimeout().toMillis(),
+                (int) properties.getReadTimeout().toMillis(),
+                JWKSourceBuilder.DEFAULT_HTTP_SIZE_LIMIT
+            ),
+            Clock.systemUTC()
+        );
+    }
+
+    IssuerJwkSource(String issuer, ApplicationProperties.Jwt properties, ResourceRetriever resourceRetriever, Clock clock) {
+        this.issuer = issuer;
+        this.properties = properties;
+        this.resourceRetriever = resourceRetriever;
+        this.clock = clock;
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) throws KeySourceException {
+        return resolve().get(jwkSelector, context);
+    }
+
+    /**
+     * Descubre el emisor y descarga las claves por adelantado; un fallo solo se registra.
+     */
+    public void warmUp() {
+        try {
+            resolve().get(new JWKSelector(new JWKMatcher.Builder().build()), null);
+            LOG.info("JWK set of {} loaded", issuer);
+        } catch (KeySourceException e) {
+            LOG.warn("Issuer {} not reachable yet, keys will be loaded on first use: {}", issuer, e.getMessage());
+        }
+    }
+
+    private JWKSource<SecurityContext> resolve() throws KeySourceException {
+        JWKSource<SecurityContext> source = delegate;
+        if (source != null) {
+            return source;
+        }
+        discoveryLock.lock();
+        try {
+            if (delegate != null) {
+                return delegate;
+            }
+            if (clock.instant().isBefore(nextDiscoveryAttempt)) {
+                throw new KeySourceException("OIDC discovery of " + issuer + " failed recently, retrying after " + nextDiscoveryAttempt);
+            }
+            try {
+                delegate = JWKSourceBuilder.<SecurityContext>create(discoverJwkSetUri(), resourceRetriever)
+                    .cache(properties.getJwkSetTimeToLive().toMillis(), JWKSourceBuilder.DEFAULT_CACHE_REFRESH_TIMEOUT)
+                    .refreshAheadCache(properties.getJwkSetRefreshAhead().toMillis(), true)
+                    .outageTolerant(properties.getJwkSetOutageTolerance().toMillis())
+                    .retrying(true)
+                    .build();
+                return delegate;
+            } catch (IOException | ParseException e) {
+                nextDiscoveryAttempt = clock.instant().plus(properties.getDiscoveryRetryInterval());
+                throw new KeySourceException("OIDC discovery of " + issuer + " failed: " + e.getMessage(), e);
+            }
+        } finally {
+            discoveryLock.unlock();
+        }
+    }
+
+    private URL discoverJwkSetUri() throws IOException, ParseException {
+        String base = issuer.endsWith("/") ? issuer.substring(0, issuer.length() - 1) : issuer;
+        URL configurationUrl = URI.create(base + "/.well-known/openid-configuration").toURL();
+        Map<String, Object> configuration = JSONObjectUtils.parse(resourceRetriever.retrieveResource(configurationUrl).getContent());
+        String metadataIssuer = JSONObjectUtils.getString(configuration, "issuer");
+        if (!issuer.equals(metadataIssuer)) {
+            throw new IOException("Issuer " + metadataIssuer + " does not match the configured " + issuer);
+        }
+        String jwkSetUri = JSONObjectUtils.getString(configuration, "jwks_uri");
+        if (jwkSetUri == null) {
+            throw new IOException("No jwks_uri in the configuration of " + issuer);
+        }
+        LOG.debug("Discovered JWK set {} for {}", jwkSetUri, issuer);
+        return URI.create(jwkSetUri).toURL();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (delegate instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+}
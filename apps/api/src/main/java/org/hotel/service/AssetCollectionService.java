@@ -1,5 +1,6 @@
 package org.hotel.service;
 
+import java.util.Objects;
 import java.util.Optional;
 import org.hotel.domain.AssetCollection;
 import org.hotel.repository.AssetCollectionRepository;
@@ -7,6 +8,7 @@ import org.hotel.service.dto.AssetCollectionDTO;
 import org.hotel.service.mapper.AssetCollectionMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,9 +25,16 @@ public class AssetCollectionService {
 
     private final AssetCollectionMapper assetCollectionMapper;
 
-    public AssetCollectionService(AssetCollectionRepository assetCollectionRepository, AssetCollectionMapper assetCollectionMapper) {
+    private final CacheManager cacheManager;
+
+    public AssetCollectionService(
+        AssetCollectionRepository assetCollectionRepository,
+        AssetCollectionMapper assetCollectionMapper,
+        CacheManager cacheManager
+    ) {
         this.assetCollectionRepository = assetCollectionRepository;
         this.assetCollectionMapper = assetCollectionMapper;
+        this.cacheManager = cacheManager;
     }
 
     /**
@@ -38,6 +47,8 @@ public class AssetCollectionService {
         LOG.debug("Request to save AssetCollection : {}", assetCollectionDTO);
         AssetCollection assetCollection = assetCollectionMapper.toEntity(assetCollectionDTO);
         assetCollection = assetCollectionRepository.save(assetCollection);
+        // El código pudo quedar cacheado como inexistente
+        clearCollectionCaches(assetCollection.getCode());
         return assetCollectionMapper.toDto(assetCollection);
     }
 
@@ -49,8 +60,10 @@ public class AssetCollectionService {
      */
     public AssetCollectionDTO update(AssetCollectionDTO assetCollectionDTO) {
         LOG.debug("Request to update AssetCollection : {}", assetCollectionDTO);
+        assetCollectionRepository.findById(assetCollectionDTO.getId()).map(AssetCollection::getCode).ifPresent(this::clearCollectionCaches);
         AssetCollection assetCollection = assetCollectionMapper.toEntity(assetCollectionDTO);
         assetCollection = assetCollectionRepository.save(assetCollection);
+        clearCollectionCaches(assetCollection.getCode());
         return assetCollectionMapper.toDto(assetCollection);
     }
 
@@ -66,11 +79,16 @@ public class AssetCollectionService {
         return assetCollectionRepository
             .findById(assetCollectionDTO.getId())
             .map(existingAssetCollection -> {
+                clearCollectionCaches(existingAssetCollection.getCode());
                 assetCollectionMapper.partialUpdate(existingAssetCollection, assetCollectionDTO);
 
                 return existingAssetCollection;
             })
             .map(assetCollectionRepository::save)
+            .map(assetCollection -> {
+                clearCollectionCaches(assetCollection.getCode());
+                return assetCollection;
+            })
             .map(assetCollectionMapper::toDto);
     }
 
@@ -93,6 +111,19 @@ public class AssetCollectionService {
      */
     public void delete(Long id) {
         LOG.debug("Request to delete AssetCollection : {}", id);
+        assetCollectionRepository.findById(id).map(AssetCollection::getCode).ifPresent(this::clearCollectionCaches);
         assetCollectionRepository.deleteById(id);
     }
+
+    /**
+     * Invalida el contenido público cacheado bajo el código de la colección y los bundles que pueden incluirlo.
+     */
+    private void clearCollectionCaches(String code) {
+        if (code == null) {
+            return;
+        }
+        Objects.requireNonNull(cacheManager.getCache(WebContentService.ACTIVE_CONTENT_BY_COLLECTION_CACHE)).evict(code);
+        Objects.requireNonNull(cacheManager.getCache(WebContentService.FIRST_CONTENT_BY_COLLECTION_CACHE)).evict(code);
+        Objects.requireNonNull(cacheManager.getCache(PublicContentBundleService.PUBLIC_CONTENT_BUNDLES_CACHE)).clear();
+    }
 }
@@ -11,6 +11,10 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Servicio de Dominio para centralizar reglas de negocio de reservas.
@@ -20,16 +24,24 @@ import java.time.temporal.ChronoUnit;
 @Transactional(readOnly = true)
 public class BookingDomainService {
 
+    /**
+     * Rango máximo (en noches) que se puede consultar de una vez en el calendario de disponibilidad.
+     */
+    public static final int MAX_CALENDAR_NIGHTS = 90;
+
     private final BookingRepository bookingRepository;
     private final RoomRepository roomRepository;
     private final RoomTypeRepository roomTypeRepository;
+    private final RoomInventoryService roomInventoryService;
 
     public BookingDomainService(BookingRepository bookingRepository,
                                 RoomRepository roomRepository,
-                                RoomTypeRepository roomTypeRepository) {
+                                RoomTypeRepository roomTypeRepository,
+                                RoomInventoryService roomInventoryService) {
         this.bookingRepository = bookingRepository;
         this.roomRepository = roomRepository;
         this.roomTypeRepository = roomTypeRepository;
+        this.roomInventoryService = roomInventoryService;
     }
 
     /**
@@ -51,20 +63,86 @@ public class BookingDomainService {
     }
 
     /**
-     * Valida disponibilidad para un tipo de habitación específico.
-     * Lanza excepción si no hay cupo.
+     * Valida el rango de un calendario de disponibilidad (máximo {@link #MAX_CALENDAR_NIGHTS} noches).
+     * @return Número de noches.
      */
-    public void validateRoomAvailability(Long roomTypeId, Long quantityNeeded, LocalDate checkIn, LocalDate checkOut, Long excludeBookingId) {
-        long totalPhysicalRooms = roomRepository.countByRoomTypeId(roomTypeId);
+    public int validateCalendarRange(LocalDate from, LocalDate to) {
+        long nights = validateAndCalculateNights(from, to);
+        if (nights > MAX_CALENDAR_NIGHTS) {
+            throw new BusinessRuleException("El calendario de disponibilidad admite como máximo " + MAX_CALENDAR_NIGHTS + " noches.");
+        }
+        return (int) nights;
+    }
+
+    /**
+     * Habitaciones libres por tipo y noche en [from, to): la posición i del arreglo es la noche {@code from + i}.
+     * <p>
+     * Lee una sola vez las reservas que solapan el rango y hace un barrido (sweep line): cada reserva suma +1
+     * en su primera noche dentro del rango y -1 en la noche de salida; la suma acumulada da las habitaciones
+     * ocupadas de cada noche. Los tipos sin habitaciones físicas no aparecen en el resultado.
+     */
+    public Map<Long, int[]> calculateFreeRoomsPerNight(LocalDate from, LocalDate to) {
+        int nights = (int) ChronoUnit.DAYS.between(from, to);
+
+        Map<Long, int[]> deltasByType = new HashMap<>();
+        for (BookingRepository.BookingNightsRow row : bookingRepository.findOccupancyRowsOverlapping(from, to)) {
+            int start = (int) Math.max(0, ChronoUnit.DAYS.between(from, row.getCheckInDate()));
+            int end = (int) Math.min(nights, ChronoUnit.DAYS.between(from, row.getCheckOutDate()));
+            if (start >= end) {
+                continue;
+            }
+            int[] deltas = deltasByType.computeIfAbsent(row.getRoomTypeId(), id -> new int[nights + 1]);
+            deltas[start]++;
+            deltas[end]--;
+        }
 
-        long occupiedRooms;
-        if (excludeBookingId == null) {
-            occupiedRooms = bookingRepository.countOverlappingBookings(roomTypeId, checkIn, checkOut);
-        } else {
-            occupiedRooms = bookingRepository.countOverlappingBookingsExcludingSelf(roomTypeId, checkIn, checkOut, excludeBookingId);
+        Map<Long, int[]> freeByType = new HashMap<>();
+        for (RoomRepository.RoomTypeCountRow capacity : roomRepository.countGroupedByRoomType()) {
+            int[] deltas = deltasByType.get(capacity.getRoomTypeId());
+            int[] free = new int[nights];
+            int booked = 0;
+            for (int night = 0; night < nights; night++) {
+                booked += deltas == null ? 0 : deltas[night];
+                free[night] = (int) Math.max(0, capacity.getTotal() - booked);
+            }
+            freeByType.put(capacity.getRoomTypeId(), free);
         }
+        return freeByType;
+    }
 
-        long availableRooms = totalPhysicalRooms - occupiedRooms;
+    /**
+     * Mínimo de cada ventana de {@code window} posiciones consecutivas de {@code values} (ventana deslizante).
+     * La posición i del resultado es el mínimo de values[i .. i + window - 1]; coste O(n) con una cola monótona.
+     * Aplicado a las habitaciones libres por noche, da las habitaciones libres durante toda una estancia que entra en i.
+     */
+    public int[] slidingWindowMinimum(int[] values, int window) {
+        if (window < 1 || window > values.length) {
+            return new int[0];
+        }
+        int[] minimums = new int[values.length - window + 1];
+        Deque<Integer> candidates = new ArrayDeque<>();
+        for (int i = 0; i < values.length; i++) {
+            while (!candidates.isEmpty() && values[candidates.peekLast()] >= values[i]) {
+                candidates.pollLast();
+            }
+            candidates.addLast(i);
+            if (candidates.peekFirst() <= i - window) {
+                candidates.pollFirst();
+            }
+            if (i >= window - 1) {
+                minimums[i - window + 1] = values[candidates.peekFirst()];
+            }
+        }
+        return minimums;
+    }
+
+    /**
+     * Valida disponibilidad para un tipo de habitación específico.
+     * Lanza excepción si no hay cupo.
+     * Lee el inventario por noche de la base de datos, dentro de la transacción (y del lock del tipo) de quien escribe.
+     */
+    public void validateRoomAvailability(Long roomTypeId, Long quantityNeeded, LocalDate checkIn, LocalDate checkOut, Long excludeBookingId) {
+        long availableRooms = roomInventoryService.findFreeRooms(roomTypeId, checkIn, checkOut, excludeBookingId);
 
         if (quantityNeeded > availableRooms) {
             String typeName = roomTypeRepository.findById(roomTypeId).map(RoomType::getName).orElse("Desconocido");
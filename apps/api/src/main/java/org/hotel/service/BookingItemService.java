@@ -1,8 +1,16 @@
 package org.hotel.service;
 
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 import org.hotel.domain.BookingItem;
 import org.hotel.repository.BookingItemRepository;
+import org.hotel.service.RoomInventoryService.InventoryHold;
 import org.hotel.service.dto.BookingItemDTO;
 import org.hotel.service.mapper.BookingItemMapper;
 import org.slf4j.Logger;
@@ -14,6 +22,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service Implementation for managing {@link org.hotel.domain.BookingItem}.
+ * <p>
+ * Cada habitación de una reserva ocupa inventario: las escrituras mueven en {@link RoomInventoryService} la ocupación
+ * de las reservas afectadas, igual que {@link BookingService}.
  */
 @Service
 @Transactional
@@ -25,9 +36,16 @@ public class BookingItemService {
 
     private final BookingItemMapper bookingItemMapper;
 
-    public BookingItemService(BookingItemRepository bookingItemRepository, BookingItemMapper bookingItemMapper) {
+    private final RoomInventoryService roomInventoryService;
+
+    public BookingItemService(
+        BookingItemRepository bookingItemRepository,
+        BookingItemMapper bookingItemMapper,
+        RoomInventoryService roomInventoryService
+    ) {
         this.bookingItemRepository = bookingItemRepository;
         this.bookingItemMapper = bookingItemMapper;
+        this.roomInventoryService = roomInventoryService;
     }
 
     /**
@@ -39,8 +57,7 @@ public class BookingItemService {
     public BookingItemDTO save(BookingItemDTO bookingItemDTO) {
         LOG.debug("Request to save BookingItem : {}", bookingItemDTO);
         BookingItem bookingItem = bookingItemMapper.toEntity(bookingItemDTO);
-        bookingItem = bookingItemRepository.save(bookingItem);
-        return bookingItemMapper.toDto(bookingItem);
+        return bookingItemMapper.toDto(moveInventory(Stream.of(bookingIdOf(bookingItem)), () -> bookingItemRepository.save(bookingItem)));
     }
 
     /**
@@ -52,8 +69,11 @@ public class BookingItemService {
     public BookingItemDTO update(BookingItemDTO bookingItemDTO) {
         LOG.debug("Request to update BookingItem : {}", bookingItemDTO);
         BookingItem bookingItem = bookingItemMapper.toEntity(bookingItemDTO);
-        bookingItem = bookingItemRepository.save(bookingItem);
-        return bookingItemMapper.toDto(bookingItem);
+        // La habitación puede cambiar de reserva: se recalculan la anterior y la nueva
+        Long previousBookingId = bookingItemRepository.findById(bookingItem.getId()).map(BookingItemService::bookingIdOf).orElse(null);
+        return bookingItemMapper.toDto(
+            moveInventory(Stream.of(previousBookingId, bookingIdOf(bookingItem)), () -> bookingItemRepository.save(bookingItem))
+        );
     }
 
     /**
@@ -68,11 +88,12 @@ public class BookingItemService {
         return bookingItemRepository
             .findById(bookingItemDTO.getId())
             .map(existingBookingItem -> {
-                bookingItemMapper.partialUpdate(existingBookingItem, bookingItemDTO);
-
-                return existingBookingItem;
+                Long previousBookingId = bookingIdOf(existingBookingItem);
+                return moveInventory(Stream.of(previousBookingId, bookingIdOf(bookingItemDTO)), () -> {
+                    bookingItemMapper.partialUpdate(existingBookingItem, bookingItemDTO);
+                    return bookingItemRepository.save(existingBookingItem);
+                });
             })
-            .map(bookingItemRepository::save)
             .map(bookingItemMapper::toDto);
     }
 
@@ -116,6 +137,44 @@ public class BookingItemService {
      */
     public void delete(Long id) {
         LOG.debug("Request to delete BookingItem : {}", id);
-        bookingItemRepository.deleteById(id);
+        Long bookingId = bookingItemRepository.findById(id).map(BookingItemService::bookingIdOf).orElse(null);
+        moveInventory(Stream.of(bookingId), () -> {
+            bookingItemRepository.deleteById(id);
+            return null;
+        });
+    }
+
+    /**
+     * Ejecuta la escritura y pasa en el inventario cada reserva afectada de su ocupación anterior a la resultante, con
+     * sus tipos de habitación bloqueados. Las reservas canceladas no ocupan inventario antes ni después.
+     */
+    private <T> T moveInventory(Stream<Long> bookingIds, Supplier<T> write) {
+        Map<Long, InventoryHold> previousHolds = new LinkedHashMap<>();
+        bookingIds.filter(Objects::nonNull).distinct().forEach(bookingId -> previousHolds.put(bookingId, roomInventoryService.findHold(bookingId)));
+
+        T result = write.get();
+        // findHold lee lo persistido: primero se vuelca la escritura
+        bookingItemRepository.flush();
+
+        Map<Long, InventoryHold> nextHolds = new LinkedHashMap<>();
+        Set<Long> roomTypeIds = new HashSet<>();
+        previousHolds.forEach((bookingId, previous) -> {
+            InventoryHold next = roomInventoryService.findHold(bookingId);
+            nextHolds.put(bookingId, next);
+            roomTypeIds.addAll(previous.roomsByType().keySet());
+            roomTypeIds.addAll(next.roomsByType().keySet());
+        });
+        // Todos los tipos de una vez (en orden) para no cruzar bloqueos con otro escritor
+        roomInventoryService.lockRoomTypes(roomTypeIds);
+        previousHolds.forEach((bookingId, previous) -> roomInventoryService.apply(previous, nextHolds.get(bookingId)));
+        return result;
+    }
+
+    private static Long bookingIdOf(BookingItem bookingItem) {
+        return bookingItem.getBooking() == null ? null : bookingItem.getBooking().getId();
+    }
+
+    private static Long bookingIdOf(BookingItemDTO bookingItemDTO) {
+        return bookingItemDTO.getBooking() == null ? null : bookingItemDTO.getBooking().getId();
     }
 }
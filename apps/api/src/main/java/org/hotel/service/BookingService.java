@@ -12,6 +12,7 @@ import org.hotel.repository.InvoiceRepository;
 import org.hotel.repository.RoomRepository;
 import org.hotel.repository.RoomTypeRepository;
 import org.hotel.repository.ServiceRequestRepository;
+import org.hotel.service.RoomInventoryService.InventoryHold;
 // ClientInvoiceService import removed
 import org.hotel.service.dto.BookingDTO;
 import org.hotel.service.mapper.BookingMapper;
@@ -44,12 +45,15 @@ public class BookingService {
     private final RoomRepository roomRepository;
     private final BookingMapper bookingMapper;
     private final BookingDomainService bookingDomainService;
-    private final MailService mailService;
+    private final MailOutboxService mailOutboxService;
     private final InvoiceRepository invoiceRepository;
     // ClientInvoiceService removed
     private final InvoiceService invoiceService;
     private final CustomerService customerService;
     private final org.hotel.repository.CustomerRepository customerRepository;
+    private final RoomInventoryService roomInventoryService;
+    private final CustomerIdResolver customerIdResolver;
+    private final CodeGenerator codeGenerator;
 
     public BookingService(BookingRepository bookingRepository,
                           ServiceRequestRepository serviceRequestRepository,
@@ -57,22 +61,28 @@ public class BookingService {
                           RoomRepository roomRepository,
                           BookingMapper bookingMapper,
                           BookingDomainService bookingDomainService,
-                          MailService mailService,
+                          MailOutboxService mailOutboxService,
                           InvoiceRepository invoiceRepository,
                           InvoiceService invoiceService,
                           CustomerService customerService,
-                          org.hotel.repository.CustomerRepository customerRepository) {
+                          org.hotel.repository.CustomerRepository customerRepository,
+                          RoomInventoryService roomInventoryService,
+                          CustomerIdResolver customerIdResolver,
+                          CodeGenerator codeGenerator) {
         this.bookingRepository = bookingRepository;
         this.serviceRequestRepository = serviceRequestRepository;
         this.roomTypeRepository = roomTypeRepository;
         this.roomRepository = roomRepository;
         this.bookingMapper = bookingMapper;
         this.bookingDomainService = bookingDomainService;
-        this.mailService = mailService;
+        this.mailOutboxService = mailOutboxService;
         this.invoiceRepository = invoiceRepository;
         this.invoiceService = invoiceService;
         this.customerService = customerService;
         this.customerRepository = customerRepository;
+        this.roomInventoryService = roomInventoryService;
+        this.customerIdResolver = customerIdResolver;
+        this.codeGenerator = codeGenerator;
     }
 
     /**
@@ -83,6 +93,7 @@ public class BookingService {
 
         boolean isNew = bookingDTO.getId() == null;
         boolean isStatusChangeToConfirmed = false;
+        InventoryHold previousHold = isNew ? InventoryHold.NONE : roomInventoryService.findHold(bookingDTO.getId());
 
         // Check status transition if updating
         if (!isNew) {
@@ -104,14 +115,14 @@ public class BookingService {
 
         // Resolve Customer if needed (e.g. for Online Users)
         if (booking.getCustomer() == null) {
-             org.hotel.security.SecurityUtils.getCurrentUserLogin().flatMap(customerRepository::findOneByUser_Login)
+             org.hotel.security.SecurityUtils.getCurrentUserLogin().flatMap(customerIdResolver::findCustomerId)
+                 .map(customerRepository::getReferenceById)
                  .ifPresent(booking::setCustomer);
         }
 
         // Generar código y estado si no existen
         if (booking.getCode() == null) {
-            booking.getCode(); // Ensure code generation logic is robust or let DB handle defaults if any
-            booking.setCode("RES-" + java.util.UUID.randomUUID().toString().substring(0, 8).toUpperCase());
+            booking.setCode(codeGenerator.nextBookingCode());
         }
         if (booking.getStatus() == null) {
             booking.setStatus(BookingStatus.PENDING_APPROVAL);
@@ -125,27 +136,19 @@ public class BookingService {
 
         // Guardamos (Cascade persistirá los BookingItems automáticamente)
         Booking savedBooking = bookingRepository.save(booking);
+        roomInventoryService.apply(previousHold, InventoryHold.of(savedBooking));
 
         // Auto-generate invoice if created with PENDING_PAYMENT (e.g. Walk-In)
         if (isNew && BookingStatus.PENDING_PAYMENT.equals(savedBooking.getStatus())) {
              invoiceService.createInitialInvoice(savedBooking);
         }
 
-        // Send Email
-        try {
-            if (savedBooking.getCustomer() != null && savedBooking.getCustomer().getEmail() != null) {
-                // Creation Email (Only if new)
-                if (isNew) {
-                     mailService.sendBookingCreationEmail(savedBooking.getCustomer(), savedBooking);
-                }
-                
-                // Approved Email
-                if (isStatusChangeToConfirmed) {
-                     mailService.sendBookingApprovedEmail(savedBooking.getCustomer(), savedBooking);
-                }
-            }
-        } catch (Exception e) {
-            LOG.warn("Failed to send email for booking {}", savedBooking.getCode(), e);
+        // Send Email (se encola en esta transacción y se envía tras el commit)
+        if (isNew) {
+            mailOutboxService.enqueueBookingCreation(savedBooking);
+        }
+        if (isStatusChangeToConfirmed) {
+            mailOutboxService.enqueueBookingApproved(savedBooking);
         }
 
         return bookingMapper.toDto(savedBooking);
@@ -163,6 +166,7 @@ public class BookingService {
         }
 
         boolean isStatusChangeToConfirmed = false;
+        InventoryHold previousHold = roomInventoryService.findHold(bookingDTO.getId());
         Optional<Booking> oldBookingOpt = bookingRepository.findById(bookingDTO.getId());
         if (oldBookingOpt.isPresent()) {
              if (!BookingStatus.CONFIRMED.equals(oldBookingOpt.get().getStatus()) &&
@@ -181,32 +185,18 @@ public class BookingService {
         prepareBookingData(booking, booking.getId());
 
         Booking savedBooking = bookingRepository.save(booking);
+        roomInventoryService.apply(previousHold, InventoryHold.of(savedBooking));
 
         // Send Email if Confirmed
-        if (isStatusChangeToConfirmed && savedBooking.getCustomer() != null) {
-             try {
-                mailService.sendBookingApprovedEmail(savedBooking.getCustomer(), savedBooking);
-             } catch (Exception e) {
-                LOG.warn("Failed to send approved email for booking {}", savedBooking.getCode(), e);
-             }
+        if (isStatusChangeToConfirmed) {
+            mailOutboxService.enqueueBookingApproved(savedBooking);
         }
-        
+
         // Declined Email Logic for full Update
-        if (oldBookingOpt.isPresent() && 
-            BookingStatus.PENDING_APPROVAL.equals(oldBookingOpt.get().getStatus()) && 
-            BookingStatus.CANCELLED.equals(savedBooking.getStatus()) &&
-            savedBooking.getCustomer() != null) {
-             try {
-                 // Initialize lazy props
-                 org.hotel.domain.Customer customer = savedBooking.getCustomer();
-                 org.hibernate.Hibernate.initialize(customer);
-                 if (customer.getUser() != null) {
-                     org.hibernate.Hibernate.initialize(customer.getUser());
-                 }
-                mailService.sendBookingDeclinedEmail(customer, savedBooking);
-             } catch (Exception e) {
-                LOG.warn("Failed to send declined email for booking {}", savedBooking.getCode(), e);
-             }
+        if (oldBookingOpt.isPresent() &&
+            BookingStatus.PENDING_APPROVAL.equals(oldBookingOpt.get().getStatus()) &&
+            BookingStatus.CANCELLED.equals(savedBooking.getStatus())) {
+            mailOutboxService.enqueueBookingDeclined(savedBooking);
         }
 
         return bookingMapper.toDto(savedBooking);
@@ -222,7 +212,8 @@ public class BookingService {
             .findById(bookingDTO.getId())
             .map(existingBooking -> {
                 BookingStatus oldStatus = existingBooking.getStatus();
-                
+                InventoryHold previousHold = roomInventoryService.findHold(existingBooking.getId());
+
                 bookingMapper.partialUpdate(existingBooking, bookingDTO);
 
                 // Expansión si se enviaron items
@@ -236,35 +227,17 @@ public class BookingService {
                 }
 
                 Booking saved = bookingRepository.save(existingBooking);
+                roomInventoryService.apply(previousHold, InventoryHold.of(saved));
                 
-                if (!BookingStatus.CONFIRMED.equals(oldStatus) && 
+                if (!BookingStatus.CONFIRMED.equals(oldStatus) &&
                      BookingStatus.CONFIRMED.equals(saved.getStatus())) {
-                     if (saved.getCustomer() != null) {
-                          try {
-                            mailService.sendBookingApprovedEmail(saved.getCustomer(), saved);
-                          } catch (Exception e) {
-                             LOG.warn("Failed to send approved email for booking {}", saved.getCode(), e);
-                          }
-                     }
+                    mailOutboxService.enqueueBookingApproved(saved);
                 }
-                
+
                 // Declined/Cancelled Email logic
-                if (BookingStatus.PENDING_APPROVAL.equals(oldStatus) && 
+                if (BookingStatus.PENDING_APPROVAL.equals(oldStatus) &&
                     BookingStatus.CANCELLED.equals(saved.getStatus())) {
-                    if (saved.getCustomer() != null) {
-                         try {
-                              // Initialize Customer & User if needed (lazy loading safety)
-                             org.hotel.domain.Customer customer = saved.getCustomer();
-                             org.hibernate.Hibernate.initialize(customer);
-                             if (customer.getUser() != null) {
-                                 org.hibernate.Hibernate.initialize(customer.getUser());
-                             }
-                             
-                             mailService.sendBookingDeclinedEmail(customer, saved);
-                         } catch (Exception e) {
-                             LOG.warn("Failed to send declined email for booking {}", saved.getCode(), e);
-                         }
-                    }
+                    mailOutboxService.enqueueBookingDeclined(saved);
                 }
 
                 return saved;
@@ -295,6 +268,7 @@ public class BookingService {
         );
 
         Booking booking = bookingRepository.findById(id).orElseThrow();
+        roomInventoryService.apply(roomInventoryService.findHold(id), InventoryHold.NONE);
 
         if (hasPayments) {
             // ACCIÓN: CANCELACIÓN LÓGICA
@@ -330,13 +304,7 @@ public class BookingService {
         invoiceService.createInitialInvoice(saved);
 
         // Notificar Usuario
-        if (saved.getCustomer() != null) {
-            try {
-                mailService.sendBookingApprovedEmail(saved.getCustomer(), saved);
-            } catch (Exception e) {
-                LOG.warn("Failed to send approval email for booking {}", saved.getCode(), e);
-            }
-        }
+        mailOutboxService.enqueueBookingApproved(saved);
 
         return bookingMapper.toDto(saved);
     }
@@ -361,6 +329,9 @@ public class BookingService {
                 Collectors.counting()
             ));
 
+        // Serializar escritores concurrentes de los mismos tipos hasta el commit
+        roomInventoryService.lockRoomTypes(requestedRoomsByType.keySet());
+
         // 4. Iterar y Validar Disponibilidad + Calcular Precios + Sumar Capacidad
         int totalCapacityAccumulated = 0;
 
@@ -0,0 +1,15 @@
+package org.hotel.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * El pool de un {@link IoBulkhead} está ocupado y su cola llena: la petición se rechaza en vez de esperar.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class BulkheadFullException extends RuntimeException {
+
+    public BulkheadFullException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,119 @@
+package org.hotel.service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Códigos legibles de reservas y facturas ({@code RES-20261017-000123}, {@code INV-20261017-000123}): fecha de emisión
+ * y un número creciente sacado de una secuencia de la base de datos, así que nunca se repiten y no hace falta
+ * reintentar contra la restricción única.
+ * <p>
+ * Cada secuencia avanza de {@value #BLOCK_SIZE} en {@value #BLOCK_SIZE} (igual que su {@code incrementBy} en Liquibase):
+ * un {@code nextval} reserva un bloque entero que se reparte en memoria sin bloqueos, y solo al agotarlo un hilo pide
+ * el siguiente. Los números que quedan sin usar al reiniciar se pierden, por eso puede haber huecos.
+ */
+@Service
+public class CodeGenerator {
+
+    /**
+     * Números por bloque; debe coincidir con el {@code incrementBy} de las secuencias.
+     */
+    static final int BLOCK_SIZE = 50;
+
+    static final String BOOKING_SEQUENCE = "booking_code_sequence";
+    static final String INVOICE_SEQUENCE = "invoice_code_sequence";
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    /**
+     * Origen de los bloques: devuelve el primer número de un bloque nuevo de la secuencia.
+     */
+    @FunctionalInterface
+    interface BlockSource {
+        long nextBlockStart(String sequence);
+    }
+
+    private final CodeSequence bookingCodes;
+
+    private final CodeSequence invoiceCodes;
+
+    private final Clock clock;
+
+    public CodeGenerator(JdbcTemplate jdbcTemplate) {
+        this(sequence -> jdbcTemplate.queryForObject("select nextval('" + sequence + "')", Long.class), Clock.systemUTC());
+    }
+
+    CodeGenerator(BlockSource blockSource, Clock clock) {
+        this.bookingCodes = new CodeSequence(BOOKING_SEQUENCE, blockSource);
+        this.invoiceCodes = new CodeSequence(INVOICE_SEQUENCE, blockSource);
+        this.clock = clock;
+    }
+
+    public String nextBookingCode() {
+        return format("RES", bookingCodes.next());
+    }
+
+    public String nextInvoiceCode() {
+        return format("INV", invoiceCodes.next());
+    }
+
+    private String format(String prefix, long number) {
+        return prefix + "-" + LocalDate.now(clock).format(DATE) + "-" + String.format("%06d", number);
+    }
+
+    /**
+     * Bloque en curso de una secuencia. El reparto es un {@code getAndIncrement}; al agotarse, un solo hilo pide el
+     * bloque siguiente (con {@link ReentrantLock}, que no fija hilos virtuales durante la consulta) y el resto lo usa.
+     */
+    private static final class CodeSequence {
+
+        private final String name;
+
+        private final BlockSource blockSource;
+
+        private final ReentrantLock refill = new ReentrantLock();
+
+        private volatile Block block = new Block(0, 0);
+
+        CodeSequence(String name, BlockSource blockSource) {
+            this.name = name;
+            this.blockSource = blockSource;
+        }
+
+        long next() {
+            while (true) {
+                Block current = block;
+                long value = current.next.getAndIncrement();
+                if (value < current.end) {
+                    return value;
+                }
+                refill.lock();
+                try {
+                    if (block == current) {
+                        long start = blockSource.nextBlockStart(name);
+                        block = new Block(start, start + BLOCK_SIZE);
+                    }
+                } finally {
+                    refill.unlock();
+                }
+            }
+        }
+    }
+
+    private static final class Block {
+
+        private final AtomicLong next;
+
+        private final long end;
+
+        Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
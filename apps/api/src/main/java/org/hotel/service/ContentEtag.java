@@ -0,0 +1,29 @@
+package org.hotel.service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * ETag del contenido público del CMS ({@link org.hotel.web.rest.PublicContentResource}).
+ * <p>
+ * Es el SHA-256 del JSON servido, no un contador: cada instancia calcula el mismo ETag para el mismo contenido y,
+ * mientras sirva contenido cacheado antiguo, un ETag que solo valida ese contenido. Nunca responde 304 a un cliente
+ * que tiene otro contenido.
+ */
+public final class ContentEtag {
+
+    private ContentEtag() {}
+
+    /**
+     * ETag fuerte (entre comillas) del JSON de una respuesta.
+     */
+    public static String of(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.hotel.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.hotel.config.ApplicationProperties;
+import org.hotel.domain.enumeration.CustomerEmailType;
+import org.hotel.service.dto.CustomerEmailSnapshot;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+/**
+ * Genera los correos al cliente a partir de {@link CustomerEmailSnapshot}, sin entidades ni consultas.
+ * <p>
+ * Usa su propio motor de Thymeleaf con la caché de plantillas siempre activa (también en dev, donde
+ * {@code spring.thymeleaf.cache} está desactivada) y las expresiones SpEL compiladas, y trabaja en un pool acotado
+ * ({@code render-threads} hilos y {@code render-queue-capacity} en cola). Con la cola llena, genera el hilo que
+ * llama: el despachador se frena en vez de acumular trabajo.
+ */
+@Service
+public class CustomerEmailRenderer implements DisposableBean {
+
+    public static final String RENDER_METRIC = "mail.render";
+
+    static final String BASE_URL = "http://localhost:5173";
+
+    private final SpringTemplateEngine templateEngine = createTemplateEngine(true, true);
+
+    private final ExecutorService executor;
+
+    private final MeterRegistry meterRegistry;
+
+    public CustomerEmailRenderer(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.MailOutbox properties = applicationProperties.getMailOutbox();
+        this.meterRegistry = meterRegistry;
+        this.executor = ExecutorServiceMetrics.monitor(
+            meterRegistry,
+            new ThreadPoolExecutor(
+                properties.getRenderThreads(),
+                properties.getRenderThreads(),
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getRenderQueueCapacity()),
+                new CustomizableThreadFactory("mail-render-"),
+                new ThreadPoolExecutor.CallerRunsPolicy()
+            ),
+            "mail-render"
+        );
+    }
+
+    /**
+     * Correo listo para enviar.
+     */
+    public record RenderedEmail(String subject, String html) {}
+
+    public CompletableFuture<RenderedEmail> renderAsync(CustomerEmailSnapshot snapshot) {
+        return CompletableFuture.supplyAsync(() -> render(snapshot), executor);
+    }
+
+    public RenderedEmail render(CustomerEmailSnapshot snapshot) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Context context = new Context(locale(snapshot));
+        context.setVariable("user", snapshot.user());
+        context.setVariable("admin", snapshot.user().admin());
+        context.setVariable("booking", snapshot.booking());
+        context.setVariable("invoice", snapshot.invoice());
+        context.setVariable("baseUrl", BASE_URL);
+        String html = templateEngine.process(templateName(snapshot.type()), context);
+        sample.stop(Timer.builder(RENDER_METRIC).tag("type", snapshot.type().name()).register(meterRegistry));
+        return new RenderedEmail(subject(snapshot.type()), html);
+    }
+
+    private static Locale locale(CustomerEmailSnapshot snapshot) {
+        String langKey = snapshot.user().langKey();
+        return Locale.forLanguageTag(langKey != null ? langKey : "es");
+    }
+
+    static String templateName(CustomerEmailType type) {
+        return switch (type) {
+            case BOOKING_CREATED -> "mail/bookingConfirmation";
+            case BOOKING_APPROVED -> "mail/bookingApproved";
+            case BOOKING_DECLINED -> "mail/bookingDeclined";
+            case PAYMENT_SUCCESS -> "mail/paymentSuccess";
+        };
+    }
+
+    static String subject(CustomerEmailType type) {
+        return switch (type) {
+            case BOOKING_CREATED -> "Recibimos tu solicitud de reserva - Hotel App";
+            case BOOKING_APPROVED -> "¡Tu reserva ha sido Confirmada! - Hotel App";
+            case BOOKING_DECLINED -> "Actualización sobre tu solicitud de reserva - Hotel App";
+            case PAYMENT_SUCCESS -> "Pago Confirmado - ¡Tu viaje está listo!";
+        };
+    }
+
+    /**
+     * Motor para {@code templates/mail}; sin {@code cacheable} se lee y analiza la plantilla en cada correo.
+     */
+    static SpringTemplateEngine createTemplateEngine(boolean cacheable, boolean compileExpressions) {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        resolver.setCacheable(cacheable);
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        engine.setEnableSpringELCompiler(compileExpressions);
+        return engine;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,58 @@
+package org.hotel.service;
+
+import java.util.Optional;
+import org.hotel.repository.CustomerRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Resuelve el login del usuario autenticado al id de su {@code Customer}.
+ * <p>
+ * El portal del cliente lo necesita en cada petición; con el id, las consultas filtran por {@code customer_id}
+ * (indexado) en vez de unir {@code customer} y {@code jhi_user}. Solo se guardan los logins que tienen perfil, así
+ * un perfil recién creado se ve al momento; las altas y bajas de perfiles invalidan la entrada ({@link #evict}).
+ */
+@Service
+@Transactional(readOnly = true)
+public class CustomerIdResolver {
+
+    public static final String CUSTOMER_ID_BY_LOGIN_CACHE = "customerIdByLogin";
+
+    private final CustomerRepository customerRepository;
+
+    private final CacheManager cacheManager;
+
+    public CustomerIdResolver(CustomerRepository customerRepository, CacheManager cacheManager) {
+        this.customerRepository = customerRepository;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Id del cliente asociado al login, si tiene perfil.
+     */
+    public Optional<Long> findCustomerId(String login) {
+        Cache cache = cache();
+        Long cached = cache.get(login, Long.class);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Long> customerId = customerRepository.findIdByUserLogin(login);
+        customerId.ifPresent(id -> cache.put(login, id));
+        return customerId;
+    }
+
+    /**
+     * Olvida el id de un login (perfil creado, borrado o reasignado a otro usuario); se aplica tras el commit.
+     */
+    public void evict(String login) {
+        if (login != null) {
+            cache().evict(login);
+        }
+    }
+
+    private Cache cache() {
+        return cacheManager.getCache(CUSTOMER_ID_BY_LOGIN_CACHE);
+    }
+}
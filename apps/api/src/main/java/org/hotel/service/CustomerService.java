@@ -25,9 +25,12 @@ public class CustomerService {
 
     private final CustomerMapper customerMapper;
 
-    public CustomerService(CustomerRepository customerRepository, CustomerMapper customerMapper) {
+    private final CustomerIdResolver customerIdResolver;
+
+    public CustomerService(CustomerRepository customerRepository, CustomerMapper customerMapper, CustomerIdResolver customerIdResolver) {
         this.customerRepository = customerRepository;
         this.customerMapper = customerMapper;
+        this.customerIdResolver = customerIdResolver;
     }
 
     /**
@@ -40,6 +43,7 @@ public class CustomerService {
         LOG.debug("Request to save Customer : {}", customerDTO);
         Customer customer = customerMapper.toEntity(customerDTO);
         customer = customerRepository.save(customer);
+        evictCustomerLookup(customer.getId());
         return customerMapper.toDto(customer);
     }
 
@@ -51,8 +55,11 @@ public class CustomerService {
      */
     public CustomerDTO update(CustomerDTO customerDTO) {
         LOG.debug("Request to update Customer : {}", customerDTO);
+        // El usuario vinculado puede cambiar: se olvidan el login anterior y el nuevo
+        evictCustomerLookup(customerDTO.getId());
         Customer customer = customerMapper.toEntity(customerDTO);
         customer = customerRepository.save(customer);
+        evictCustomerLookup(customer.getId());
         return customerMapper.toDto(customer);
     }
 
@@ -68,12 +75,16 @@ public class CustomerService {
         return customerRepository
             .findById(customerDTO.getId())
             .map(existingCustomer -> {
+                evictCustomerLookup(existingCustomer.getId());
                 customerMapper.partialUpdate(existingCustomer, customerDTO);
 
                 return existingCustomer;
             })
             .map(customerRepository::save)
-            .map(customerMapper::toDto);
+            .map(customer -> {
+                evictCustomerLookup(customer.getId());
+                return customerMapper.toDto(customer);
+            });
     }
 
     /**
@@ -125,6 +136,7 @@ public class CustomerService {
         Customer customer = customerMapper.toEntity(customerDTO);
         customer.setUser(user); // Link to user
         customer = customerRepository.save(customer);
+        customerIdResolver.evict(user.getLogin());
         return customerMapper.toDto(customer);
     }
 
@@ -165,6 +177,16 @@ public class CustomerService {
      */
     public void delete(Long id) {
         LOG.debug("Request to delete Customer : {}", id);
+        evictCustomerLookup(id);
         customerRepository.deleteById(id);
     }
+
+    /**
+     * Invalida el id cacheado para el login del usuario vinculado al cliente (si lo hay).
+     */
+    private void evictCustomerLookup(Long customerId) {
+        if (customerId != null) {
+            customerRepository.findUserLoginById(customerId).ifPresent(customerIdResolver::evict);
+        }
+    }
 }
@@ -2,7 +2,6 @@ package org.hotel.service;
 
 import java.math.BigDecimal;
 import java.time.Instant;
-import java.util.Objects;
 import java.util.Optional;
 
 import org.hotel.domain.Booking;
@@ -35,10 +34,11 @@ public class InvoiceService {
 
     private final InvoiceRepository invoiceRepository;
     private final InvoiceItemRepository invoiceItemRepository;
-    private final MailService mailService;
+    private final MailOutboxService mailOutboxService;
     private final InvoiceMapper invoiceMapper;
     private final BookingRepository bookingRepository;
     private final org.hotel.service.mapper.InvoiceItemMapper invoiceItemMapper;
+    private final CodeGenerator codeGenerator;
 
     public InvoiceService(
         InvoiceRepository invoiceRepository,
@@ -46,14 +46,16 @@ public class InvoiceService {
         BookingRepository bookingRepository,
         InvoiceItemRepository invoiceItemRepository,
         org.hotel.service.mapper.InvoiceItemMapper invoiceItemMapper,
-        MailService mailService
+        MailOutboxService mailOutboxService,
+        CodeGenerator codeGenerator
     ) {
         this.invoiceRepository = invoiceRepository;
         this.invoiceMapper = invoiceMapper;
         this.invoiceItemRepository = invoiceItemRepository;
         this.invoiceItemMapper = invoiceItemMapper;
         this.bookingRepository = bookingRepository;
-        this.mailService = mailService;
+        this.mailOutboxService = mailOutboxService;
+        this.codeGenerator = codeGenerator;
     }
 
     // ... (rest of constructor/fields)
@@ -86,10 +88,8 @@ public class InvoiceService {
                 booking.setStatus(BookingStatus.CONFIRMED);
                 bookingRepository.save(booking);
 
-                // 3. Send Email (Reusing MailService logic)
-                if (booking.getCustomer() != null && booking.getCustomer().getEmail() != null) {
-                    mailService.sendBookingApprovedEmail(booking.getCustomer(), booking);
-                }
+                // 3. Send Email (se envía tras el commit)
+                mailOutboxService.enqueueBookingApproved(booking);
             }
         }
 
@@ -117,12 +117,10 @@ public class InvoiceService {
     
     /**
      * Generate a unique invoice code.
-     * Format: INV-YYYYMMDD-XXXXX
+     * Format: INV-YYYYMMDD-NNNNNN
      */
     private String generateInvoiceCode() {
-        String datePart = java.time.LocalDate.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd"));
-        String randomPart = java.util.UUID.randomUUID().toString().substring(0, 5).toUpperCase();
-        return "INV-" + datePart + "-" + randomPart;
+        return codeGenerator.nextInvoiceCode();
     }
 
     /**
@@ -246,6 +244,10 @@ public class InvoiceService {
 
     /**
      * Add a service charge to the invoice associated with a booking.
+     * <p>
+     * El cargo va a la factura abierta de la reserva (o a una nueva si no hay) y sus totales se suman en SQL
+     * ({@link InvoiceRepository#addCharge}): cada cargo inserta una línea y actualiza una fila, sin cargar ni volver a
+     * sumar las líneas anteriores. La respuesta es la factura completa, leída en una sola consulta.
      *
      * @param bookingId the booking id.
      * @param itemDTO the invoice item to add.
@@ -253,73 +255,64 @@ public class InvoiceService {
     public InvoiceDTO addServiceCharge(Long bookingId, org.hotel.service.dto.InvoiceItemDTO itemDTO) {
     LOG.debug("Request to add service charge to booking : {}", bookingId);
 
-    // 1. Buscamos si existe una factura ABIERTA (Ni pagada ni cancelada)
-    Optional<Invoice> openInvoice = invoiceRepository.findAllByBookingId(bookingId)
-        .stream()
-        .filter(inv -> inv.getStatus() != InvoiceStatus.PAID && inv.getStatus() != InvoiceStatus.CANCELLED)
-        .findFirst();
-
-    Invoice invoice;
-
-    if (openInvoice.isPresent()) {
-        // ESCENARIO A: Ya hay una cuenta abierta (ej: pidió una coca hace 10 min) -> Usamos esa
-        invoice = openInvoice.get();
-    } else {
-        // ESCENARIO B: No hay facturas o todas están pagadas -> CREAMOS UNA NUEVA (Folio Extra)
-        invoice = new Invoice();
-        invoice.setCode("INV-" + System.currentTimeMillis()); // O tu lógica de generador de códigos
-        invoice.setIssuedDate(Instant.now());
-        invoice.setStatus(InvoiceStatus.ISSUED);
-        invoice.setCurrency("USD");
-        
-        // Buscamos la entidad Booking completa para asociarla
-        Booking booking = bookingRepository.findById(bookingId)
-            .orElseThrow(() -> new BadRequestAlertException("Booking not found", "booking", "idnotfound"));
-        invoice.setBooking(booking);
-        
-        // Guardamos la cabecera primero
-        invoice = invoiceRepository.save(invoice);
-    }
-
-    // 2. Agregamos el Item
     org.hotel.domain.InvoiceItem item = invoiceItemMapper.toEntity(itemDTO);
-    item.setInvoice(invoice);
     item.setDate(java.time.Instant.now());
     // item.setQuantity(1) removed
-    invoiceItemRepository.save(item); // Importante guardar el item antes de recalcular si usas JPA estricto
+    BigDecimal amount = item.getAmount() != null ? item.getAmount() : BigDecimal.ZERO;
+    // Cálculo de Impuestos (Ejemplo 0% por ahora)
+    BigDecimal taxAmount = amount.multiply(new BigDecimal("0.00"));
+
+    // 1. Buscamos si existe una factura ABIERTA (Ni pagada ni cancelada)
+    Optional<Long> openInvoiceId = invoiceRepository.findOpenInvoiceId(bookingId);
+
+    // ESCENARIO A: Ya hay una cuenta abierta (ej: pidió una coca hace 10 min) -> Usamos esa.
+    // Si un cobro la cerró entre la lectura y la actualización, addCharge no la toca y se abre una nueva.
+    if (openInvoiceId.isPresent() && invoiceRepository.addCharge(openInvoiceId.get(), amount, taxAmount) > 0) {
+        item.setInvoice(invoiceRepository.getReferenceById(openInvoiceId.get()));
+        invoiceItemRepository.save(item);
+        return invoiceRepository.findOneWithToOneRelationships(openInvoiceId.get())
+            .map(invoiceMapper::toDto)
+            .orElseThrow(() -> new org.hotel.web.rest.errors.ResourceNotFoundException("Invoice", openInvoiceId.get()));
+    }
+
+    // ESCENARIO B: No hay facturas o todas están pagadas (o se acaba de pagar) -> CREAMOS UNA NUEVA (Folio Extra)
+    Invoice invoice = new Invoice();
+    invoice.setCode(generateInvoiceCode());
+    invoice.setIssuedDate(Instant.now());
+    invoice.setStatus(InvoiceStatus.ISSUED);
+    invoice.setCurrency("USD");
+
+    // Buscamos la entidad Booking completa para asociarla
+    Booking booking = bookingRepository.findById(bookingId)
+        .orElseThrow(() -> new BadRequestAlertException("Booking not found", "booking", "idnotfound"));
+    invoice.setBooking(booking);
+
+    // 2. Agregamos el Item; la cascada lo guarda con la cabecera
     invoice.addItems(item);
+    invoice.setTotalAmount(amount);
+    invoice.setTaxAmount(taxAmount);
 
-    // 3. Recálculo (Snapshot)
-    BigDecimal totalAmount = invoice.getItems().stream()
-        .map(InvoiceItem::getAmount)
-        .filter(Objects::nonNull)
-        .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-    invoice.setTotalAmount(totalAmount);
-    
-    // 4. Cálculo de Impuestos (Ejemplo 0% por ahora)
-    invoice.setTaxAmount(totalAmount.multiply(new BigDecimal("0.00")));
-    
     return invoiceMapper.toDto(invoiceRepository.save(invoice));
 }
     /**
      * Creates the initial invoice for a booking with detailed items.
+     * <p>
+     * La factura y sus líneas se arman en memoria y se guardan juntas por cascada: un insert de la factura y los de las
+     * líneas en un solo lote JDBC ({@code hibernate.jdbc.batch_size}), sin updates posteriores.
      * @param booking The booking entity.
      * @return The created InvoiceDTO.
      */
     public InvoiceDTO createInitialInvoice(Booking booking) {
         LOG.debug("Creating initial invoice for booking : {}", booking.getId());
 
+        Instant now = Instant.now();
         Invoice invoice = new Invoice();
-        invoice.setCode("INV-" + System.currentTimeMillis());
-        invoice.setIssuedDate(Instant.now());
+        invoice.setCode(generateInvoiceCode());
+        invoice.setIssuedDate(now);
         invoice.setStatus(InvoiceStatus.ISSUED);
         invoice.setCurrency("USD");
         invoice.setBooking(booking);
 
-        // Save Header first to get ID
-        invoice = invoiceRepository.save(invoice);
-
         BigDecimal subtotal = BigDecimal.ZERO;
 
         // 1. Iterate Booking Items (Rooms)
@@ -327,8 +320,7 @@ public class InvoiceService {
             for (org.hotel.domain.BookingItem item : booking.getBookingItems()) {
                 if (item.getPrice() != null) {
                     InvoiceItem invoiceItem = new InvoiceItem();
-                    invoiceItem.setInvoice(invoice);
-                    
+
                     // Format Description: "Alojamiento: Suite Deluxe - (2025-12-01 al 2025-12-05)"
                     String description = String.format("Alojamiento: %s - (%s al %s)",
                         item.getRoomType() != null ? item.getRoomType().getName() : "Habitación",
@@ -336,15 +328,14 @@ public class InvoiceService {
                         booking.getCheckOutDate()
                     );
                     invoiceItem.setDescription(description);
-                    
+
                     // Amount
                     invoiceItem.setAmount(item.getPrice());
                     // quantity removed
-                    invoiceItem.setDate(Instant.now());
+                    invoiceItem.setDate(now);
 
-                    invoiceItemRepository.save(invoiceItem);
                     invoice.addItems(invoiceItem);
-                    
+
                     subtotal = subtotal.add(item.getPrice());
                 }
             }
@@ -361,15 +352,13 @@ public class InvoiceService {
 
                 if (servicePrice != null) {
                      InvoiceItem serviceItem = new InvoiceItem();
-                     serviceItem.setInvoice(invoice);
                      serviceItem.setDescription(req.getService() != null ? req.getService().getName() : "Servicio Adicional");
                      serviceItem.setAmount(servicePrice);
                      // setQuantity removed as it doesn't exist
-                     serviceItem.setDate(Instant.now());
-                     
-                     invoiceItemRepository.save(serviceItem);
+                     serviceItem.setDate(now);
+
                      invoice.addItems(serviceItem);
-                     
+
                      subtotal = subtotal.add(servicePrice);
                 }
             }
@@ -386,6 +375,7 @@ public class InvoiceService {
         invoice.setTaxAmount(taxAmount);
         invoice.setTotalAmount(totalAmount);
 
+        // Un solo persist: la cascada de items guarda las líneas
         return invoiceMapper.toDto(invoiceRepository.save(invoice));
     }
 }
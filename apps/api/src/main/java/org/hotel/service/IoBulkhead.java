@@ -0,0 +1,230 @@
+package org.hotel.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hotel.config.ApplicationProperties;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Pool propio para las llamadas bloqueantes a un sistema externo (SMTP, S3, Keycloak, PayPal).
+ * <p>
+ * Cada sistema tiene su límite de hilos y de cola, así que uno lento solo llena su pool: el resto sigue atendiéndose.
+ * Con la cola llena se aplica su {@code rejection-policy}: {@code ABORT} responde enseguida con
+ * {@link BulkheadFullException} (503) y {@code CALLER_RUNS} ejecuta la llamada en el hilo que la pide.
+ * <p>
+ * Con {@code virtual-threads} cada tarea usa un hilo virtual (Java 21 o superior) y el límite pasa a ser de tareas en
+ * curso ({@code max-threads + queue-capacity}, sin cola); al alcanzarlo {@code CALLER_RUNS} espera a que haya hueco.
+ * <p>
+ * Métricas por pool (etiqueta {@code name}): tareas en curso, en cola y rechazadas.
+ */
+public class IoBulkhead implements Executor, DisposableBean {
+
+    public static final String ACTIVE_METRIC = "bulkhead.active";
+    public static final String QUEUED_METRIC = "bulkhead.queued";
+    public static final String REJECTED_METRIC = "bulkhead.rejected";
+
+    /**
+     * Llamada bloqueante que puede lanzar una excepción comprobada de su cliente.
+     */
+    @FunctionalInterface
+    public interface IoCall<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    /**
+     * Llamada bloqueante sin resultado.
+     */
+    @FunctionalInterface
+    public interface IoTask<E extends Exception> {
+        void run() throws E;
+    }
+
+    private final String name;
+
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final Counter rejected;
+
+    private final Executor executor;
+
+    private final Runnable shutdown;
+
+    public IoBulkhead(String name, ApplicationProperties.Bulkheads.Spec spec, boolean virtualThreads, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.rejected = Counter.builder(REJECTED_METRIC)
+            .description("Tareas que no cupieron en el pool")
+            .tag("name", name)
+            .register(meterRegistry);
+        Gauge.builder(ACTIVE_METRIC, active, AtomicInteger::get).description("Tareas en curso").tag("name", name).register(meterRegistry);
+        Gauge.builder(QUEUED_METRIC, queued, AtomicInteger::get).description("Tareas esperando hilo").tag("name", name).register(meterRegistry);
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor virtual = new SimpleAsyncTaskExecutor(name + "-io-");
+            virtual.setVirtualThreads(true);
+            virtual.setConcurrencyLimit(spec.getMaxThreads() + spec.getQueueCapacity());
+            virtual.setRejectTasksWhenLimitReached(spec.getRejectionPolicy() == ApplicationProperties.Bulkheads.RejectionPolicy.ABORT);
+            this.executor = task -> {
+                try {
+                    virtual.execute(task);
+                } catch (RejectedExecutionException e) {
+                    rejected.increment();
+                    throw e;
+                }
+            };
+            this.shutdown = virtual::close;
+        } else {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                spec.getMaxThreads(),
+                spec.getMaxThreads(),
+                60L,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(spec.getQueueCapacity()),
+                new CustomizableThreadFactory(name + "-io-"),
+                countRejections(
+                    spec.getRejectionPolicy() == ApplicationProperties.Bulkheads.RejectionPolicy.CALLER_RUNS
+                        ? new ThreadPoolExecutor.CallerRunsPolicy()
+                        : new ThreadPoolExecutor.AbortPolicy()
+                )
+            );
+            pool.allowCoreThreadTimeOut(true);
+            this.executor = pool;
+            this.shutdown = pool::shutdown;
+        }
+    }
+
+    private RejectedExecutionHandler countRejections(RejectedExecutionHandler policy) {
+        return (task, pool) -> {
+            rejected.increment();
+            policy.rejectedExecution(task, pool);
+        };
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Ejecuta la tarea en el pool, sin esperarla.
+     *
+     * @throws BulkheadFullException si no cabe y la política es {@code ABORT}.
+     */
+    @Override
+    public void execute(Runnable task) {
+        execute(task, () -> {});
+    }
+
+    /**
+     * Como {@link #execute(Runnable)}; {@code afterRelease} corre cuando la tarea ya no cuenta como en curso.
+     */
+    private void execute(Runnable task, Runnable afterRelease) {
+        queued.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                queued.decrementAndGet();
+                active.incrementAndGet();
+                try {
+                    task.run();
+                } finally {
+                    active.decrementAndGet();
+                    afterRelease.run();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            throw new BulkheadFullException("Too many concurrent calls to " + name, e);
+        }
+    }
+
+    /**
+     * Ejecuta la llamada en el pool y espera su resultado; sus excepciones llegan tal cual al que llama.
+     *
+     * @throws BulkheadFullException si no cabe y la política es {@code ABORT}.
+     */
+    public <T, E extends Exception> T call(IoCall<T, E> call) throws E {
+        CompletableFuture<T> result = submit(call);
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + name, e);
+        } catch (ExecutionException e) {
+            throw IoBulkhead.<E>rethrow(e.getCause());
+        }
+    }
+
+    /**
+     * Ejecuta la llamada en el pool sin esperarla; el futuro termina con su resultado o su excepción. Cancelarlo no
+     * interrumpe la llamada, que sigue ocupando su hilo hasta acabar.
+     *
+     * @throws BulkheadFullException si no cabe y la política es {@code ABORT}.
+     */
+    public <T, E extends Exception> CompletableFuture<T> submit(IoCall<T, E> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Outcome<T> outcome = new Outcome<>();
+        // El futuro se completa tras liberar el hueco: quien recibe el resultado ya no ve la tarea en curso
+        execute(
+            () -> {
+                try {
+                    outcome.value = call.call();
+                } catch (Throwable e) {
+                    outcome.error = e;
+                }
+            },
+            () -> outcome.completeInto(result)
+        );
+        return result;
+    }
+
+    private static final class Outcome<T> {
+
+        private T value;
+        private Throwable error;
+
+        void completeInto(CompletableFuture<T> future) {
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(value);
+            }
+        }
+    }
+
+    /**
+     * Como {@link #call}, para llamadas sin resultado.
+     */
+    public <E extends Exception> void run(IoTask<E> task) throws E {
+        call(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E extends Exception> E rethrow(Throwable cause) throws E {
+        if (cause instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        throw (E) cause;
+    }
+
+    @Override
+    public void destroy() {
+        shutdown.run();
+    }
+}
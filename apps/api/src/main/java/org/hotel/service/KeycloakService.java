@@ -1,45 +1,84 @@
 package org.hotel.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.ws.rs.core.Response;
 import org.hotel.config.ApplicationProperties;
+import org.hotel.config.BulkheadConfiguration;
 import org.hotel.security.AuthoritiesConstants;
 import org.hotel.service.dto.AdminUserDTO;
 import org.hotel.service.dto.CreateUserDTO;
 import org.keycloak.admin.client.Keycloak;
-import org.keycloak.admin.client.KeycloakBuilder;
+import org.keycloak.admin.client.resource.GroupResource;
 import org.keycloak.admin.client.resource.RealmResource;
 import org.keycloak.admin.client.resource.UserResource;
 import org.keycloak.admin.client.resource.UsersResource;
 import org.keycloak.representations.idm.CredentialRepresentation;
+import org.keycloak.representations.idm.GroupRepresentation;
 import org.keycloak.representations.idm.RoleRepresentation;
 import org.keycloak.representations.idm.UserRepresentation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Operaciones de administración en Keycloak. Cada una se ejecuta en el pool de identidad
+ * ({@link BulkheadConfiguration#IDENTITY}), limitado a las conexiones del cliente compartido.
+ */
 @Service
 public class KeycloakService {
 
     private static final Logger LOG = LoggerFactory.getLogger(KeycloakService.class);
 
+    public static final String OPERATIONS_METRIC = "keycloak.admin.operations";
+
+    /**
+     * Grupos de Keycloak y la autoridad que otorgan.
+     */
+    public static final Map<String, String> GROUP_AUTHORITIES = Map.of(
+            "Admins", AuthoritiesConstants.ADMIN,
+            "Employees", AuthoritiesConstants.EMPLOYEE,
+            "Clients", AuthoritiesConstants.CLIENT);
+
     private final ApplicationProperties applicationProperties;
 
-    public KeycloakService(ApplicationProperties applicationProperties) {
+    /**
+     * Cliente compartido ({@link org.hotel.config.KeycloakAdminConfiguration}): no se cierra tras cada operación.
+     */
+    private final Keycloak keycloak;
+
+    private final MeterRegistry meterRegistry;
+
+    private final IoBulkhead identityBulkhead;
+
+    public KeycloakService(
+            ApplicationProperties applicationProperties,
+            Keycloak keycloak,
+            MeterRegistry meterRegistry,
+            @Qualifier(BulkheadConfiguration.IDENTITY) IoBulkhead identityBulkhead) {
         this.applicationProperties = applicationProperties;
+        this.keycloak = keycloak;
+        this.meterRegistry = meterRegistry;
+        this.identityBulkhead = identityBulkhead;
     }
 
-    private Keycloak getKeycloakInstance() {
-        ApplicationProperties.Keycloak config = applicationProperties.getKeycloak();
-        return KeycloakBuilder.builder()
-                .serverUrl(config.getServerUrl())
-                .realm(config.getRealm())
-                .username(config.getUsername())
-                .password(config.getPassword())
-                .clientId("admin-cli")
-                .build();
+    /**
+     * Registra la latencia de una operación de administración completa (todas sus peticiones HTTP).
+     */
+    private void stopCall(Timer.Sample sample, String operation) {
+        sample.stop(Timer.builder(OPERATIONS_METRIC)
+                .description("Latency of Keycloak admin operations")
+                .tag("operation", operation)
+                .register(meterRegistry));
     }
 
     /**
@@ -48,29 +87,34 @@ public class KeycloakService {
      * @param userDTO user data to update.
      */
     public void updateUser(AdminUserDTO userDTO) {
-        LOG.debug("Request to update user in Keycloak: {}", userDTO.getLogin());
-
-        try (Keycloak keycloak = getKeycloakInstance()) {
-            UserResource userResource = keycloak.realm(applicationProperties.getKeycloak().getRealm())
-                    .users()
-                    .get(userDTO.getId());
-
-            UserRepresentation user = new UserRepresentation();
-            user.setFirstName(userDTO.getFirstName());
-            user.setLastName(userDTO.getLastName());
-            user.setEmail(userDTO.getEmail());
-            // LangKey can be stored as a custom attribute or standard locale attribute
-            user.singleAttribute("langKey", userDTO.getLangKey());
-            user.singleAttribute("locale", userDTO.getLangKey());
-            // Sincronizar URL de imagen con el atributo estándar de OIDC 'picture'
-            user.singleAttribute("picture", userDTO.getImageUrl());
-
-            userResource.update(user);
-            LOG.info("User {} successfully updated in Keycloak", userDTO.getLogin());
-        } catch (Exception e) {
-            LOG.error("Error updating user in Keycloak: {}", e.getMessage(), e);
-            throw new RuntimeException("Could not update user in Keycloak", e);
-        }
+        identityBulkhead.run(() -> {
+            LOG.debug("Request to update user in Keycloak: {}", userDTO.getLogin());
+
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                UserResource userResource = keycloak.realm(applicationProperties.getKeycloak().getRealm())
+                        .users()
+                        .get(userDTO.getId());
+
+                UserRepresentation user = new UserRepresentation();
+                user.setFirstName(userDTO.getFirstName());
+                user.setLastName(userDTO.getLastName());
+                user.setEmail(userDTO.getEmail());
+                // LangKey can be stored as a custom attribute or standard locale attribute
+                user.singleAttribute("langKey", userDTO.getLangKey());
+                user.singleAttribute("locale", userDTO.getLangKey());
+                // Sincronizar URL de imagen con el atributo estándar de OIDC 'picture'
+                user.singleAttribute("picture", userDTO.getImageUrl());
+
+                userResource.update(user);
+                LOG.info("User {} successfully updated in Keycloak", userDTO.getLogin());
+            } catch (Exception e) {
+                LOG.error("Error updating user in Keycloak: {}", e.getMessage(), e);
+                throw new RuntimeException("Could not update user in Keycloak", e);
+            } finally {
+                stopCall(sample, "update-user");
+            }
+        });
     }
 
     /**
@@ -80,126 +124,163 @@ public class KeycloakService {
      * @return the Keycloak user ID of the created user.
      */
     public String createUser(CreateUserDTO createDTO) {
-        LOG.debug("Request to create user in Keycloak: {}", createDTO.getLogin());
-
-        try (Keycloak keycloak = getKeycloakInstance()) {
-            String realmName = applicationProperties.getKeycloak().getRealm();
-            RealmResource realmResource = keycloak.realm(realmName);
-            UsersResource usersResource = realmResource.users();
-
-            // 1. Create user representation
-            UserRepresentation user = new UserRepresentation();
-            user.setUsername(createDTO.getLogin());
-            user.setEmail(createDTO.getEmail());
-            user.setFirstName(createDTO.getFirstName());
-            user.setLastName(createDTO.getLastName());
-            user.setEnabled(true);
-            user.setEmailVerified(true);
-
-            // 2. Create user in Keycloak
-            Response response = usersResource.create(user);
-
-            if (response.getStatus() != 201) {
-                String errorMessage = response.readEntity(String.class);
-                LOG.error("Failed to create user in Keycloak. Status: {}, Error: {}", response.getStatus(),
-                        errorMessage);
-                throw new RuntimeException("Could not create user in Keycloak: " + errorMessage);
-            }
+        return identityBulkhead.call(() -> {
+            LOG.debug("Request to create user in Keycloak: {}", createDTO.getLogin());
+
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                String realmName = applicationProperties.getKeycloak().getRealm();
+                RealmResource realmResource = keycloak.realm(realmName);
+                UsersResource usersResource = realmResource.users();
+
+                // 1. Create user representation
+                UserRepresentation user = new UserRepresentation();
+                user.setUsername(createDTO.getLogin());
+                user.setEmail(createDTO.getEmail());
+                user.setFirstName(createDTO.getFirstName());
+                user.setLastName(createDTO.getLastName());
+                user.setEnabled(true);
+                user.setEmailVerified(true);
+
+                // 2. Create user in Keycloak
+                Response response = usersResource.create(user);
+
+                if (response.getStatus() != 201) {
+                    String errorMessage = response.readEntity(String.class);
+                    LOG.error("Failed to create user in Keycloak. Status: {}, Error: {}", response.getStatus(),
+                            errorMessage);
+                    throw new RuntimeException("Could not create user in Keycloak: " + errorMessage);
+                }
 
-            // 3. Extract user ID from response location header
-            String locationHeader = response.getHeaderString("Location");
-            String userId = locationHeader.substring(locationHeader.lastIndexOf('/') + 1);
-            LOG.debug("Created user with ID: {}", userId);
-
-            // 4. Set password for the user
-            CredentialRepresentation credential = new CredentialRepresentation();
-            credential.setType(CredentialRepresentation.PASSWORD);
-            credential.setValue(createDTO.getPassword());
-            credential.setTemporary(false);
-
-            UserResource userResource = usersResource.get(userId);
-            userResource.resetPassword(credential);
-
-            // 5. Add user to the "Employees" group (which has ROLE_EMPLOYEE mapped)
-            String employeesGroupName = "Employees";
-            var groups = realmResource.groups().groups(employeesGroupName, 0, 1);
-            if (groups.isEmpty()) {
-                LOG.error("Group '{}' not found in Keycloak realm", employeesGroupName);
-                throw new RuntimeException("Group 'Employees' not found in Keycloak. Please create the group.");
+                // 3. Extract user ID from response location header
+                String locationHeader = response.getHeaderString("Location");
+                String userId = locationHeader.substring(locationHeader.lastIndexOf('/') + 1);
+                LOG.debug("Created user with ID: {}", userId);
+
+                // 4. Set password for the user
+                CredentialRepresentation credential = new CredentialRepresentation();
+                credential.setType(CredentialRepresentation.PASSWORD);
+                credential.setValue(createDTO.getPassword());
+                credential.setTemporary(false);
+
+                UserResource userResource = usersResource.get(userId);
+                userResource.resetPassword(credential);
+
+                // 5. Add user to the "Employees" group (which has ROLE_EMPLOYEE mapped)
+                String employeesGroupName = "Employees";
+                var groups = realmResource.groups().groups(employeesGroupName, 0, 1);
+                if (groups.isEmpty()) {
+                    LOG.error("Group '{}' not found in Keycloak realm", employeesGroupName);
+                    throw new RuntimeException("Group 'Employees' not found in Keycloak. Please create the group.");
+                }
+                String groupId = groups.get(0).getId();
+                userResource.joinGroup(groupId);
+                LOG.debug("User {} added to group '{}'", createDTO.getLogin(), employeesGroupName);
+
+                LOG.info("User {} successfully created in Keycloak with ROLE_EMPLOYEE", createDTO.getLogin());
+                return userId;
+
+            } catch (Exception e) {
+                LOG.error("Error creating user in Keycloak: {}", e.getMessage(), e);
+                throw new RuntimeException("Could not create user in Keycloak", e);
+            } finally {
+                stopCall(sample, "create-user");
             }
-            String groupId = groups.get(0).getId();
-            userResource.joinGroup(groupId);
-            LOG.debug("User {} added to group '{}'", createDTO.getLogin(), employeesGroupName);
-
-            LOG.info("User {} successfully created in Keycloak with ROLE_EMPLOYEE", createDTO.getLogin());
-            return userId;
-
-        } catch (Exception e) {
-            LOG.error("Error creating user in Keycloak: {}", e.getMessage(), e);
-            throw new RuntimeException("Could not create user in Keycloak", e);
-        }
+        });
     }
 
     /**
-     * Get all users from Keycloak.
+     * Lee el directorio completo de usuarios de Keycloak para la réplica local.
+     * <p>
+     * Las autoridades salen de los miembros de cada grupo mapeado ({@link #GROUP_AUTHORITIES}): una petición por página
+     * de usuarios y por página de miembros de grupo, en lugar de una por usuario.
      *
-     * @param firstResult first result index (for pagination).
-     * @param maxResults  maximum number of results.
-     * @return list of AdminUserDTO from Keycloak.
+     * @param pageSize tamaño de página de las peticiones a Keycloak.
+     * @return todos los usuarios, con las autoridades de sus grupos.
      */
-    public List<AdminUserDTO> getAllUsers(int firstResult, int maxResults) {
-        LOG.debug("Request to get all users from Keycloak (first: {}, max: {})", firstResult, maxResults);
-
-        try (Keycloak keycloak = getKeycloakInstance()) {
-            String realmName = applicationProperties.getKeycloak().getRealm();
-            RealmResource realmResource = keycloak.realm(realmName);
-            UsersResource usersResource = realmResource.users();
-
-            List<UserRepresentation> keycloakUsers = usersResource.list(firstResult, maxResults);
-
-            return keycloakUsers.stream().map(kcUser -> {
-                AdminUserDTO dto = new AdminUserDTO();
-                dto.setId(kcUser.getId());
-                dto.setLogin(kcUser.getUsername());
-                dto.setEmail(kcUser.getEmail());
-                dto.setFirstName(kcUser.getFirstName());
-                dto.setLastName(kcUser.getLastName());
-                dto.setActivated(kcUser.isEnabled());
-                dto.setImageUrl(kcUser.getAttributes() != null && kcUser.getAttributes().containsKey("picture")
-                        ? kcUser.getAttributes().get("picture").get(0)
-                        : null);
-                dto.setLangKey(kcUser.getAttributes() != null && kcUser.getAttributes().containsKey("locale")
-                        ? kcUser.getAttributes().get("locale").get(0)
-                        : "es");
-
-                // Get user's groups and map to roles
-                try {
-                    var groups = usersResource.get(kcUser.getId()).groups();
-                    java.util.Set<String> authorities = new java.util.HashSet<>();
-                    for (var group : groups) {
-                        switch (group.getName()) {
-                            case "Admins" -> authorities.add(AuthoritiesConstants.ADMIN);
-                            case "Employees" -> authorities.add(AuthoritiesConstants.EMPLOYEE);
-                            case "Clients" -> authorities.add(AuthoritiesConstants.CLIENT);
-                        }
+    public List<AdminUserDTO> fetchDirectory(int pageSize) {
+        return identityBulkhead.call(() -> {
+            LOG.debug("Request to read the user directory from Keycloak (page size: {})", pageSize);
+
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                String realmName = applicationProperties.getKeycloak().getRealm();
+                RealmResource realmResource = keycloak.realm(realmName);
+                UsersResource usersResource = realmResource.users();
+
+                Map<String, AdminUserDTO> usersById = new LinkedHashMap<>();
+                List<UserRepresentation> page;
+                int first = 0;
+                do {
+                    page = usersResource.list(first, pageSize);
+                    page.forEach(kcUser -> usersById.put(kcUser.getId(), toAdminUserDTO(kcUser)));
+                    first += pageSize;
+                } while (page.size() == pageSize);
+
+                for (Map.Entry<String, String> groupAuthority : GROUP_AUTHORITIES.entrySet()) {
+                    Optional<GroupRepresentation> group = findGroupByName(realmResource, groupAuthority.getKey(), pageSize);
+                    if (group.isEmpty()) {
+                        LOG.warn("Group '{}' not found in Keycloak realm", groupAuthority.getKey());
+                        continue;
                     }
-                    dto.setAuthorities(authorities);
-                } catch (Exception e) {
-                    LOG.warn("Could not get groups for user {}: {}", kcUser.getUsername(), e.getMessage());
+                    GroupResource groupResource = realmResource.groups().group(group.get().getId());
+                    first = 0;
+                    do {
+                        page = groupResource.members(first, pageSize);
+                        page.stream()
+                                .map(member -> usersById.get(member.getId()))
+                                .filter(Objects::nonNull)
+                                .forEach(dto -> dto.getAuthorities().add(groupAuthority.getValue()));
+                        first += pageSize;
+                    } while (page.size() == pageSize);
                 }
+                return List.copyOf(usersById.values());
 
-                // Set created date if available
-                if (kcUser.getCreatedTimestamp() != null) {
-                    dto.setCreatedDate(java.time.Instant.ofEpochMilli(kcUser.getCreatedTimestamp()));
-                }
+            } catch (Exception e) {
+                LOG.error("Error reading user directory from Keycloak: {}", e.getMessage(), e);
+                throw new RuntimeException("Could not read user directory from Keycloak", e);
+            } finally {
+                stopCall(sample, "fetch-directory");
+            }
+        });
+    }
 
-                return dto;
-            }).toList();
+    /**
+     * La búsqueda de grupos de Keycloak es por subcadena: se recorren todas sus páginas hasta dar con el nombre exacto.
+     */
+    private static Optional<GroupRepresentation> findGroupByName(RealmResource realmResource, String name, int pageSize) {
+        List<GroupRepresentation> page;
+        int first = 0;
+        do {
+            page = realmResource.groups().groups(name, first, pageSize);
+            Optional<GroupRepresentation> match = page.stream().filter(candidate -> name.equals(candidate.getName())).findFirst();
+            if (match.isPresent()) {
+                return match;
+            }
+            first += pageSize;
+        } while (page.size() == pageSize);
+        return Optional.empty();
+    }
 
-        } catch (Exception e) {
-            LOG.error("Error getting users from Keycloak: {}", e.getMessage(), e);
-            throw new RuntimeException("Could not get users from Keycloak", e);
+    private static AdminUserDTO toAdminUserDTO(UserRepresentation kcUser) {
+        AdminUserDTO dto = new AdminUserDTO();
+        dto.setId(kcUser.getId());
+        dto.setLogin(kcUser.getUsername());
+        dto.setEmail(kcUser.getEmail());
+        dto.setFirstName(kcUser.getFirstName());
+        dto.setLastName(kcUser.getLastName());
+        dto.setActivated(Boolean.TRUE.equals(kcUser.isEnabled()));
+        dto.setImageUrl(kcUser.getAttributes() != null && kcUser.getAttributes().containsKey("picture")
+                ? kcUser.getAttributes().get("picture").get(0)
+                : null);
+        dto.setLangKey(kcUser.getAttributes() != null && kcUser.getAttributes().containsKey("locale")
+                ? kcUser.getAttributes().get("locale").get(0)
+                : "es");
+        dto.setAuthorities(new HashSet<>());
+        if (kcUser.getCreatedTimestamp() != null) {
+            dto.setCreatedDate(java.time.Instant.ofEpochMilli(kcUser.getCreatedTimestamp()));
         }
+        return dto;
     }
 
     /**
@@ -208,13 +289,18 @@ public class KeycloakService {
      * @return total number of users.
      */
     public int countUsers() {
-        try (Keycloak keycloak = getKeycloakInstance()) {
-            String realmName = applicationProperties.getKeycloak().getRealm();
-            return keycloak.realm(realmName).users().count();
-        } catch (Exception e) {
-            LOG.error("Error counting users in Keycloak: {}", e.getMessage(), e);
-            return 0;
-        }
+        return identityBulkhead.call(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                String realmName = applicationProperties.getKeycloak().getRealm();
+                return keycloak.realm(realmName).users().count();
+            } catch (Exception e) {
+                LOG.error("Error counting users in Keycloak: {}", e.getMessage(), e);
+                return 0;
+            } finally {
+                stopCall(sample, "count-users");
+            }
+        });
     }
 
     /**
@@ -224,28 +310,33 @@ public class KeycloakService {
      * @return true if deleted, false if not found.
      */
     public boolean deleteUserByUsername(String username) {
-        LOG.debug("Request to delete user from Keycloak: {}", username);
+        return identityBulkhead.call(() -> {
+            LOG.debug("Request to delete user from Keycloak: {}", username);
+
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                String realmName = applicationProperties.getKeycloak().getRealm();
+                UsersResource usersResource = keycloak.realm(realmName).users();
+
+                // Find user by username
+                List<UserRepresentation> users = usersResource.search(username, true);
+                if (users.isEmpty()) {
+                    LOG.warn("User '{}' not found in Keycloak", username);
+                    return false;
+                }
 
-        try (Keycloak keycloak = getKeycloakInstance()) {
-            String realmName = applicationProperties.getKeycloak().getRealm();
-            UsersResource usersResource = keycloak.realm(realmName).users();
+                String userId = users.get(0).getId();
+                usersResource.delete(userId);
+                LOG.info("User '{}' successfully deleted from Keycloak", username);
+                return true;
 
-            // Find user by username
-            List<UserRepresentation> users = usersResource.search(username, true);
-            if (users.isEmpty()) {
-                LOG.warn("User '{}' not found in Keycloak", username);
-                return false;
+            } catch (Exception e) {
+                LOG.error("Error deleting user from Keycloak: {}", e.getMessage(), e);
+                throw new RuntimeException("Could not delete user from Keycloak", e);
+            } finally {
+                stopCall(sample, "delete-user");
             }
-
-            String userId = users.get(0).getId();
-            usersResource.delete(userId);
-            LOG.info("User '{}' successfully deleted from Keycloak", username);
-            return true;
-
-        } catch (Exception e) {
-            LOG.error("Error deleting user from Keycloak: {}", e.getMessage(), e);
-            throw new RuntimeException("Could not delete user from Keycloak", e);
-        }
+        });
     }
 
     /**
@@ -256,27 +347,32 @@ public class KeycloakService {
      * @return true if updated successfully.
      */
     public boolean updateUserAdmin(AdminUserDTO userDTO) {
-        LOG.debug("Request to update user in Keycloak (admin): {}", userDTO.getLogin());
-
-        try (Keycloak keycloak = getKeycloakInstance()) {
-            String realmName = applicationProperties.getKeycloak().getRealm();
-            UserResource userResource = keycloak.realm(realmName).users().get(userDTO.getId());
-
-            // Get existing user
-            UserRepresentation existing = userResource.toRepresentation();
-
-            // Update fields
-            existing.setFirstName(userDTO.getFirstName());
-            existing.setLastName(userDTO.getLastName());
-            existing.setEmail(userDTO.getEmail());
-
-            userResource.update(existing);
-            LOG.info("User '{}' successfully updated in Keycloak", userDTO.getLogin());
-            return true;
-
-        } catch (Exception e) {
-            LOG.error("Error updating user in Keycloak: {}", e.getMessage(), e);
-            throw new RuntimeException("Could not update user in Keycloak", e);
-        }
+        return identityBulkhead.call(() -> {
+            LOG.debug("Request to update user in Keycloak (admin): {}", userDTO.getLogin());
+
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                String realmName = applicationProperties.getKeycloak().getRealm();
+                UserResource userResource = keycloak.realm(realmName).users().get(userDTO.getId());
+
+                // Get existing user
+                UserRepresentation existing = userResource.toRepresentation();
+
+                // Update fields
+                existing.setFirstName(userDTO.getFirstName());
+                existing.setLastName(userDTO.getLastName());
+                existing.setEmail(userDTO.getEmail());
+
+                userResource.update(existing);
+                LOG.info("User '{}' successfully updated in Keycloak", userDTO.getLogin());
+                return true;
+
+            } catch (Exception e) {
+                LOG.error("Error updating user in Keycloak: {}", e.getMessage(), e);
+                throw new RuntimeException("Could not update user in Keycloak", e);
+            } finally {
+                stopCall(sample, "update-user-admin");
+            }
+        });
     }
 }
@@ -0,0 +1,310 @@
+package org.hotel.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.hotel.config.ApplicationProperties;
+import org.hotel.config.BulkheadConfiguration;
+import org.hotel.domain.MailOutbox;
+import org.hotel.domain.enumeration.CustomerEmailType;
+import org.hotel.domain.enumeration.MailOutboxStatus;
+import org.hotel.repository.MailOutboxRepository;
+import org.hotel.service.CustomerEmailRenderer.RenderedEmail;
+import org.hotel.service.dto.CustomerEmailSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Vacía la bandeja de salida de correos ({@code mail_outbox}) en el pool de correo ({@link BulkheadConfiguration#MAIL}).
+ * <p>
+ * Cada lote pasa por cuatro fases y solo la primera y la última usan la base de datos: se reclaman los correos vencidos
+ * (con {@code SKIP LOCKED}), se generan sus mensajes a partir de la copia guardada al encolarlos
+ * ({@link CustomerEmailRenderer}), se envían todos por una única conexión SMTP, y se borran los enviados o se
+ * reprograma cada fallo con espera exponencial. Un correo que agota {@code max-attempts} queda en FAILED.
+ * El despacho se pide tras el commit de cada correo encolado y, para los reintentos, cada {@code poll-interval}.
+ */
+@Service
+public class MailOutboxDispatcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MailOutboxDispatcher.class);
+
+    public static final String SENT_METRIC = "mail.outbox.sent";
+    public static final String RETRIED_METRIC = "mail.outbox.retried";
+    public static final String FAILED_METRIC = "mail.outbox.failed";
+    public static final String BATCH_METRIC = "mail.outbox.batch";
+    public static final String DELIVERY_METRIC = "mail.outbox.delivery";
+    public static final String PENDING_METRIC = "mail.outbox.pending";
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final MailOutboxRepository mailOutboxRepository;
+
+    private final CustomerEmailRenderer renderer;
+
+    private final MailService mailService;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties.MailOutbox properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Clock clock;
+
+    private final IoBulkhead mailBulkhead;
+
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+
+    private final AtomicLong pending = new AtomicLong();
+
+    public MailOutboxDispatcher(
+        MailOutboxRepository mailOutboxRepository,
+        CustomerEmailRenderer renderer,
+        MailService mailService,
+        ObjectMapper objectMapper,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry,
+        @Qualifier(BulkheadConfiguration.MAIL) IoBulkhead mailBulkhead
+    ) {
+        this(
+            mailOutboxRepository,
+            renderer,
+            mailService,
+            objectMapper,
+            transactionManager,
+            applicationProperties,
+            meterRegistry,
+            mailBulkhead,
+            Clock.systemUTC()
+        );
+    }
+
+    MailOutboxDispatcher(
+        MailOutboxRepository mailOutboxRepository,
+        CustomerEmailRenderer renderer,
+        MailService mailService,
+        ObjectMapper objectMapper,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry,
+        IoBulkhead mailBulkhead,
+        Clock clock
+    ) {
+        this.mailOutboxRepository = mailOutboxRepository;
+        this.renderer = renderer;
+        this.mailService = mailService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = applicationProperties.getMailOutbox();
+        this.meterRegistry = meterRegistry;
+        this.mailBulkhead = mailBulkhead;
+        this.clock = clock;
+        Gauge.builder(PENDING_METRIC, pending, AtomicLong::get).description("Correos pendientes tras el último despacho").register(meterRegistry);
+    }
+
+    /**
+     * Pide un despacho en segundo plano. Las peticiones que llegan mientras hay uno en cola se agrupan en él. Si el
+     * pool de correo está lleno, el despacho queda para la siguiente revisión periódica.
+     */
+    public void requestDrain() {
+        if (properties.isEnabled() && drainRequested.compareAndSet(false, true)) {
+            try {
+                mailBulkhead.execute(() -> {
+                    drainRequested.set(false);
+                    try {
+                        drain();
+                    } catch (Exception e) {
+                        LOG.warn("Mail outbox dispatch failed, pending emails will be retried: {}", e.getMessage());
+                    }
+                });
+            } catch (BulkheadFullException e) {
+                drainRequested.set(false);
+                LOG.debug("Mail bulkhead is full, the next poll will dispatch the outbox");
+            }
+        }
+    }
+
+    @Scheduled(
+        initialDelayString = "${application.mail-outbox.poll-interval:PT30S}",
+        fixedDelayString = "${application.mail-outbox.poll-interval:PT30S}"
+    )
+    public void scheduledDrain() {
+        requestDrain();
+    }
+
+    /**
+     * Despacha lotes hasta que no quedan correos vencidos. Devuelve los correos procesados (enviados o no).
+     */
+    public int drain() {
+        int processed = 0;
+        int claimed;
+        do {
+            claimed = dispatchBatch();
+            processed += claimed;
+        } while (claimed >= properties.getBatchSize());
+        pending.set(mailOutboxRepository.countByStatus(MailOutboxStatus.PENDING));
+        return processed;
+    }
+
+    private int dispatchBatch() {
+        List<ClaimedMail> batch = transactionTemplate.execute(status -> claimDue());
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+        Map<Long, Exception> failures = new HashMap<>();
+        Map<MimeMessage, ClaimedMail> messages = prepareMessages(batch, failures);
+        if (!messages.isEmpty()) {
+            List<MimeMessage> outgoing = List.copyOf(messages.keySet());
+            Map<MimeMessage, Exception> sendFailures = Timer.builder(BATCH_METRIC)
+                .description("Envío de un lote de correos por una conexión SMTP")
+                .register(meterRegistry)
+                .record(() -> mailService.sendBatch(outgoing));
+            sendFailures.forEach((message, failure) -> failures.put(messages.get(message).id(), failure));
+        }
+        transactionTemplate.executeWithoutResult(status -> recordResults(batch, failures));
+        return batch.size();
+    }
+
+    /**
+     * Reclama los correos vencidos. Cada correo reclamado cuenta un intento y queda reservado durante
+     * {@code claim-timeout}: si el proceso cae antes de registrar el resultado, se reintenta pasado ese plazo.
+     */
+    private List<ClaimedMail> claimDue() {
+        Instant now = clock.instant();
+        List<ClaimedMail> batch = new ArrayList<>();
+        for (MailOutbox mail : mailOutboxRepository.findDueForUpdate(
+            MailOutboxStatus.PENDING,
+            now,
+            PageRequest.of(0, properties.getBatchSize())
+        )) {
+            mail.setAttempts(mail.getAttempts() + 1);
+            mail.setNextAttemptAt(now.plus(properties.getClaimTimeout()));
+            CustomerEmailSnapshot snapshot = readSnapshot(mail);
+            if (snapshot == null) {
+                giveUp(mail, "No readable payload");
+            } else {
+                batch.add(new ClaimedMail(mail.getId(), mail.getType(), mail.getRecipient(), mail.getCreatedAt(), snapshot));
+            }
+        }
+        return batch;
+    }
+
+    private CustomerEmailSnapshot readSnapshot(MailOutbox mail) {
+        if (mail.getPayload() == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(mail.getPayload(), CustomerEmailSnapshot.class);
+        } catch (JsonProcessingException e) {
+            LOG.warn("Payload of email {} is not readable: {}", mail.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Genera en paralelo los mensajes del lote, en el pool de {@link CustomerEmailRenderer}, fuera de cualquier
+     * transacción. Los que no se pueden generar quedan en {@code failures}.
+     */
+    private Map<MimeMessage, ClaimedMail> prepareMessages(List<ClaimedMail> batch, Map<Long, Exception> failures) {
+        List<CompletableFuture<RenderedEmail>> rendered = batch.stream().map(mail -> renderer.renderAsync(mail.snapshot())).toList();
+        Map<MimeMessage, ClaimedMail> messages = new LinkedHashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            ClaimedMail mail = batch.get(i);
+            try {
+                RenderedEmail email = rendered.get(i).join();
+                messages.put(mailService.createHtmlMessage(mail.recipient(), email.subject(), email.html()), mail);
+            } catch (CompletionException e) {
+                failures.put(mail.id(), e.getCause() instanceof Exception cause ? cause : e);
+            } catch (MessagingException e) {
+                failures.put(mail.id(), e);
+            }
+        }
+        return messages;
+    }
+
+    private void recordResults(List<ClaimedMail> batch, Map<Long, Exception> failures) {
+        Instant now = clock.instant();
+        List<Long> sentIds = new ArrayList<>();
+        for (ClaimedMail mail : batch) {
+            Exception failure = failures.get(mail.id());
+            if (failure == null) {
+                sentIds.add(mail.id());
+                Counter.builder(SENT_METRIC).tag("type", mail.type().name()).register(meterRegistry).increment();
+                Timer.builder(DELIVERY_METRIC)
+                    .description("Tiempo desde que se encola un correo hasta que se envía")
+                    .tag("type", mail.type().name())
+                    .register(meterRegistry)
+                    .record(Duration.between(mail.createdAt(), now));
+            } else {
+                mailOutboxRepository.findById(mail.id()).ifPresent(row -> recordFailure(row, failure, now));
+            }
+        }
+        mailOutboxRepository.deleteAllByIdInBatch(sentIds);
+        LOG.debug("Mail outbox batch: {} sent, {} failed", sentIds.size(), batch.size() - sentIds.size());
+    }
+
+    private void recordFailure(MailOutbox mail, Exception failure, Instant now) {
+        if (mail.getAttempts() >= properties.getMaxAttempts()) {
+            giveUp(mail, failure.getMessage());
+            return;
+        }
+        Duration backoff = backoff(mail.getAttempts());
+        mail.setNextAttemptAt(now.plus(backoff));
+        mail.setLastError(truncate(failure.getMessage()));
+        Counter.builder(RETRIED_METRIC).tag("type", mail.getType().name()).register(meterRegistry).increment();
+        LOG.warn("Email {} ({}) failed on attempt {}, retrying in {}: {}", mail.getId(), mail.getType(), mail.getAttempts(), backoff, failure.getMessage());
+    }
+
+    private void giveUp(MailOutbox mail, String error) {
+        mail.setStatus(MailOutboxStatus.FAILED);
+        mail.setLastError(truncate(error));
+        Counter.builder(FAILED_METRIC).tag("type", mail.getType().name()).register(meterRegistry).increment();
+        LOG.error("Email {} ({}) to {} abandoned after {} attempts: {}", mail.getId(), mail.getType(), mail.getRecipient(), mail.getAttempts(), error);
+    }
+
+    /**
+     * {@code initial-backoff} tras el primer intento, el doble en cada uno de los siguientes, como mucho {@code max-backoff}.
+     */
+    Duration backoff(int attempts) {
+        Duration backoff = properties.getInitialBackoff().multipliedBy(1L << Math.min(attempts - 1, 20));
+        return backoff.compareTo(properties.getMaxBackoff()) > 0 ? properties.getMaxBackoff() : backoff;
+    }
+
+    private static String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    /**
+     * Fila reclamada, ya sin entidad: solo lo necesario para generar, enviar y registrar el resultado.
+     */
+    private record ClaimedMail(Long id, CustomerEmailType type, String recipient, Instant createdAt, CustomerEmailSnapshot snapshot) {}
+}
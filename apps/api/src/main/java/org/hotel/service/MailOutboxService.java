@@ -0,0 +1,133 @@
+package org.hotel.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import org.hotel.domain.Booking;
+import org.hotel.domain.Customer;
+import org.hotel.domain.Invoice;
+import org.hotel.domain.MailOutbox;
+import org.hotel.domain.enumeration.CustomerEmailType;
+import org.hotel.domain.enumeration.MailOutboxStatus;
+import org.hotel.repository.MailOutboxRepository;
+import org.hotel.service.dto.CustomerEmailSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Encola los correos al cliente en {@code mail_outbox}, dentro de la transacción de la operación que los provoca.
+ * <p>
+ * Si la transacción se deshace, el correo no existe; si se confirma, {@link MailOutboxDispatcher} lo envía después del
+ * commit. La petición no espera al servidor SMTP ni pasa entidades a otros hilos: lo que la plantilla necesita se
+ * copia al encolar en un {@link CustomerEmailSnapshot}.
+ */
+@Service
+@Transactional
+public class MailOutboxService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MailOutboxService.class);
+
+    public static final String ENQUEUED_METRIC = "mail.outbox.enqueued";
+
+    private final MailOutboxRepository mailOutboxRepository;
+
+    private final MailOutboxDispatcher dispatcher;
+
+    private final ObjectMapper objectMapper;
+
+    private final MeterRegistry meterRegistry;
+
+    public MailOutboxService(
+        MailOutboxRepository mailOutboxRepository,
+        MailOutboxDispatcher dispatcher,
+        ObjectMapper objectMapper,
+        MeterRegistry meterRegistry
+    ) {
+        this.mailOutboxRepository = mailOutboxRepository;
+        this.dispatcher = dispatcher;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void enqueueBookingCreation(Booking booking) {
+        enqueue(CustomerEmailType.BOOKING_CREATED, booking, null);
+    }
+
+    public void enqueueBookingApproved(Booking booking) {
+        enqueue(CustomerEmailType.BOOKING_APPROVED, booking, null);
+    }
+
+    public void enqueueBookingDeclined(Booking booking) {
+        enqueue(CustomerEmailType.BOOKING_DECLINED, booking, null);
+    }
+
+    public void enqueuePaymentSuccess(Invoice invoice) {
+        if (invoice.getBooking() == null) {
+            LOG.warn("Invoice {} has no linked booking, skipping payment email", invoice.getId());
+            return;
+        }
+        enqueue(CustomerEmailType.PAYMENT_SUCCESS, invoice.getBooking(), invoice);
+    }
+
+    /**
+     * Copia en el correo los datos que usa su plantilla: después de esto no se vuelve a leer ninguna entidad.
+     */
+    private void enqueue(CustomerEmailType type, Booking booking, Invoice invoice) {
+        Customer customer = booking.getCustomer();
+        if (customer == null || customer.getEmail() == null) {
+            LOG.warn("Booking {} has no customer email, skipping {} email", booking.getId(), type);
+            return;
+        }
+        CustomerEmailSnapshot snapshot = new CustomerEmailSnapshot(
+            type,
+            CustomerEmailSnapshot.Recipient.of(customer),
+            type == CustomerEmailType.PAYMENT_SUCCESS ? null : CustomerEmailSnapshot.BookingDetails.of(booking),
+            invoice != null ? CustomerEmailSnapshot.InvoiceDetails.of(invoice) : null
+        );
+        Instant now = Instant.now();
+        MailOutbox mail = new MailOutbox();
+        mail.setType(type);
+        mail.setRecipient(customer.getEmail());
+        mail.setBookingId(booking.getId());
+        mail.setInvoiceId(invoice != null ? invoice.getId() : null);
+        mail.setPayload(toJson(snapshot));
+        mail.setStatus(MailOutboxStatus.PENDING);
+        mail.setAttempts(0);
+        mail.setNextAttemptAt(now);
+        mail.setCreatedAt(now);
+        mailOutboxRepository.save(mail);
+        LOG.debug("Enqueued {} email for booking {}", type, booking.getId());
+
+        afterCommit(() -> {
+            Counter.builder(ENQUEUED_METRIC).tag("type", type.name()).register(meterRegistry).increment();
+            dispatcher.requestDrain();
+        });
+    }
+
+    private String toJson(CustomerEmailSnapshot snapshot) {
+        try {
+            return objectMapper.writeValueAsString(snapshot);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the " + snapshot.type() + " email", e);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.hotel.service;
+
+import com.paypal.sdk.exceptions.ApiException;
+import com.paypal.sdk.models.CaptureOrderInput;
+import com.paypal.sdk.models.CreateOrderInput;
+import com.paypal.sdk.models.Order;
+
+/**
+ * Pasarela de pago (órdenes de PayPal) protegida frente a un proveedor lento o caído.
+ * <p>
+ * Un rechazo del proveedor (datos inválidos, orden no aprobada...) llega como {@link ApiException}; si no se le puede
+ * llamar (sin respuesta a tiempo, error 5xx, de conexión o circuito abierto) se lanza
+ * {@link PaymentGatewayUnavailableException} y, con el pool de pagos lleno, {@link BulkheadFullException}.
+ */
+public interface PaymentGateway {
+
+    /**
+     * CREATE: Crea una orden de pago y devuelve la orden para que el cliente la apruebe.
+     */
+    Order createOrder(CreateOrderInput input) throws ApiException;
+
+    /**
+     * CAPTURE: Cobra una orden ya aprobada por el cliente.
+     */
+    Order captureOrder(CaptureOrderInput input) throws ApiException;
+}
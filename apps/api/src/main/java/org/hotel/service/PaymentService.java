@@ -30,14 +30,14 @@ public class PaymentService {
     private final PaymentRepository paymentRepository;
     private final InvoiceRepository invoiceRepository;
     private final PaymentMapper paymentMapper;
-    private final MailService mailService;
+    private final MailOutboxService mailOutboxService;
     private final BookingRepository bookingRepository;
 
-    public PaymentService(PaymentRepository paymentRepository, org.hotel.repository.InvoiceRepository invoiceRepository, PaymentMapper paymentMapper, MailService mailService, org.hotel.repository.BookingRepository bookingRepository) {
+    public PaymentService(PaymentRepository paymentRepository, org.hotel.repository.InvoiceRepository invoiceRepository, PaymentMapper paymentMapper, MailOutboxService mailOutboxService, org.hotel.repository.BookingRepository bookingRepository) {
         this.paymentRepository = paymentRepository;
         this.invoiceRepository = invoiceRepository;
         this.paymentMapper = paymentMapper;
-        this.mailService = mailService;
+        this.mailOutboxService = mailOutboxService;
         this.bookingRepository = bookingRepository;
     }
 
@@ -52,6 +52,10 @@ public class PaymentService {
     public PaymentDTO save(PaymentDTO paymentDTO) {
         LOG.debug("Request to save Payment : {}", paymentDTO);
         Payment payment = paymentMapper.toEntity(paymentDTO);
+        // El formulario envía "" cuando no se indica referencia externa
+        if (payment.getReferenceId() != null && payment.getReferenceId().isBlank()) {
+            payment.setReferenceId(null);
+        }
         
         // Logic to Confirm Booking & Invoice
         if (payment.getInvoice() != null && payment.getInvoice().getId() != null) {
@@ -82,32 +86,11 @@ public class PaymentService {
 
         Payment savedPayment = paymentRepository.save(payment);
         
-        // Send Email if linked to an invoice with a user
-        try {
-            if (savedPayment.getInvoice() != null) {
-            if (savedPayment.getInvoice() != null && savedPayment.getInvoice().getId() != null) {
-                 invoiceRepository.findOneWithToOneRelationships(savedPayment.getInvoice().getId()).ifPresent(invoice -> {
-                     if (invoice.getBooking() != null && invoice.getBooking().getCustomer() != null) {
-                         // Force initialization of Customer and User for email context
-                         org.hotel.domain.Customer customer = invoice.getBooking().getCustomer();
-                         org.hibernate.Hibernate.initialize(customer);
-                         if (customer.getUser() != null) {
-                             org.hibernate.Hibernate.initialize(customer.getUser());
-                         }
-                         
-                         LOG.debug("Sending Payment Success Email. Customer: {}, Email: {}", customer.getId(), customer.getEmail());
-                         mailService.sendPaymentSuccessEmail(customer, invoice);
-                     } else {
-                         LOG.warn("Invoice {} has no linked booking or customer, skipping email. Booking present: {}", 
-                             invoice.getId(), invoice.getBooking() != null);
-                     }
-                 });
-            }
-            }
-        } catch (Exception e) {
-            LOG.warn("Failed to send payment success email for payment {}", savedPayment.getId(), e);
+        // Send Email if linked to an invoice (se envía tras el commit)
+        if (savedPayment.getInvoice() != null && savedPayment.getInvoice().getId() != null) {
+            invoiceRepository.findById(savedPayment.getInvoice().getId()).ifPresent(mailOutboxService::enqueuePaymentSuccess);
         }
-        
+
         return paymentMapper.toDto(savedPayment);
     }
 
@@ -0,0 +1,132 @@
+package org.hotel.service;
+
+import com.paypal.sdk.PaypalServerSdkClient;
+import com.paypal.sdk.exceptions.ApiException;
+import com.paypal.sdk.http.response.ApiResponse;
+import com.paypal.sdk.models.CaptureOrderInput;
+import com.paypal.sdk.models.CreateOrderInput;
+import com.paypal.sdk.models.Order;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+import org.hotel.config.BulkheadConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+/**
+ * PayPal con tres protecciones, de fuera a dentro:
+ * <ol>
+ *     <li>Circuito {@value #CIRCUIT_BREAKER} ({@code resilience4j.circuitbreaker.instances}): si fallan demasiadas
+ *     llamadas seguidas deja de llamar a PayPal durante un tiempo y responde 503 al momento. Su estado se publica en
+ *     {@code resilience4j.circuitbreaker.state}. Los rechazos de PayPal (4xx) y el pool lleno no cuentan como fallo.</li>
+ *     <li>Tiempo máximo por operación ({@code resilience4j.timelimiter.instances}, {@value #CREATE_ORDER} y
+ *     {@value #CAPTURE_ORDER}): el hilo de la petición deja de esperar aunque la llamada siga en curso.</li>
+ *     <li>Pool de pagos ({@link BulkheadConfiguration#PAYMENT}): limita cuántas llamadas a PayPal hay a la vez.</li>
+ * </ol>
+ * Una captura que agota su tiempo puede completarse en PayPal después; el reintento del cliente con la misma orden es
+ * seguro porque la captura lleva el id de orden como {@code PayPal-Request-Id}.
+ * <p>
+ * Cada llamada se mide en {@code payment.paypal} (etiquetas {@code operation} y {@code outcome}).
+ */
+@Service
+public class PaypalPaymentGateway implements PaymentGateway {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PaypalPaymentGateway.class);
+
+    public static final String METRIC = "payment.paypal";
+
+    public static final String CIRCUIT_BREAKER = "paypal";
+    public static final String CREATE_ORDER = "paypal-create-order";
+    public static final String CAPTURE_ORDER = "paypal-capture-order";
+
+    private final PaypalServerSdkClient paypalClient;
+    private final IoBulkhead paymentBulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final TimeLimiter createOrderTimeLimiter;
+    private final TimeLimiter captureOrderTimeLimiter;
+    private final MeterRegistry meterRegistry;
+
+    public PaypalPaymentGateway(
+        PaypalServerSdkClient paypalClient,
+        @Qualifier(BulkheadConfiguration.PAYMENT) IoBulkhead paymentBulkhead,
+        CircuitBreakerRegistry circuitBreakerRegistry,
+        TimeLimiterRegistry timeLimiterRegistry,
+        MeterRegistry meterRegistry
+    ) {
+        this.paypalClient = paypalClient;
+        this.paymentBulkhead = paymentBulkhead;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(CIRCUIT_BREAKER);
+        this.createOrderTimeLimiter = timeLimiterRegistry.timeLimiter(CREATE_ORDER);
+        this.captureOrderTimeLimiter = timeLimiterRegistry.timeLimiter(CAPTURE_ORDER);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Order createOrder(CreateOrderInput input) throws ApiException {
+        return call("create-order", createOrderTimeLimiter, () -> paypalClient.getOrdersController().createOrder(input));
+    }
+
+    @Override
+    public Order captureOrder(CaptureOrderInput input) throws ApiException {
+        return call("capture-order", captureOrderTimeLimiter, () -> paypalClient.getOrdersController().captureOrder(input));
+    }
+
+    private Order call(String operation, TimeLimiter timeLimiter, IoBulkhead.IoCall<ApiResponse<Order>, Exception> request)
+        throws ApiException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "unavailable";
+        try {
+            Order order = circuitBreaker.executeCallable(
+                timeLimiter.decorateFutureSupplier(() -> paymentBulkhead.submit(() -> send(operation, request)))
+            );
+            outcome = "success";
+            return order;
+        } catch (ApiException e) {
+            outcome = "rejected";
+            throw e;
+        } catch (BulkheadFullException e) {
+            outcome = "bulkhead-full";
+            throw e;
+        } catch (PaymentGatewayUnavailableException e) {
+            throw e;
+        } catch (CallNotPermittedException e) {
+            outcome = "circuit-open";
+            throw new PaymentGatewayUnavailableException("PayPal circuit breaker is open", e);
+        } catch (TimeoutException e) {
+            outcome = "timeout";
+            LOG.warn("PayPal {} did not answer within {}", operation, timeLimiter.getTimeLimiterConfig().getTimeoutDuration());
+            throw new PaymentGatewayUnavailableException("PayPal did not answer in time", e);
+        } catch (Exception e) {
+            throw new PaymentGatewayUnavailableException("PayPal call failed", e);
+        } finally {
+            sample.stop(Timer.builder(METRIC).tag("operation", operation).tag("outcome", outcome).register(meterRegistry));
+        }
+    }
+
+    /**
+     * Llamada al SDK en el pool de pagos: los errores de PayPal (5xx) y de conexión pasan a
+     * {@link PaymentGatewayUnavailableException} para que el circuito los cuente.
+     */
+    private static Order send(String operation, IoBulkhead.IoCall<ApiResponse<Order>, Exception> request) throws Exception {
+        try {
+            return request.call().getResult();
+        } catch (ApiException e) {
+            if (e.getResponseCode() >= 500) {
+                LOG.warn("PayPal {} failed with status {}", operation, e.getResponseCode());
+                throw new PaymentGatewayUnavailableException("PayPal answered " + e.getResponseCode(), e);
+            }
+            throw e;
+        } catch (IOException e) {
+            LOG.warn("PayPal {} failed: {}", operation, e.getMessage());
+            throw new PaymentGatewayUnavailableException("Connection to PayPal failed", e);
+        }
+    }
+}
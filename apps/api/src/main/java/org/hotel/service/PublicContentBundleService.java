@@ -0,0 +1,119 @@
+package org.hotel.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import org.hotel.config.ApplicationProperties;
+import org.hotel.repository.AssetCollectionRepository;
+import org.hotel.service.dto.PublicContentSectionDTO;
+import org.hotel.web.rest.errors.BusinessRuleException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+/**
+ * Bundle del contenido público de varias colecciones en una sola respuesta JSON (portada del hotel).
+ * <p>
+ * El JSON se guarda ya serializado junto con su ETag ({@link ContentEtag}): se sirven los mismos bytes sin consultar
+ * caché de contenido, base de datos ni mapper. Una escritura en {@code WebContent} o {@code AssetCollection} vacía
+ * estos bundles en la instancia que la atiende; en las demás caducan como el resto del contenido público.
+ */
+@Service
+public class PublicContentBundleService {
+
+    public static final String PUBLIC_CONTENT_BUNDLES_CACHE = "publicContentBundles";
+
+    private static final Logger LOG = LoggerFactory.getLogger(PublicContentBundleService.class);
+
+    private final WebContentService webContentService;
+
+    private final AssetCollectionRepository assetCollectionRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final CacheManager cacheManager;
+
+    private final ApplicationProperties.PublicContent properties;
+
+    public PublicContentBundleService(
+        WebContentService webContentService,
+        AssetCollectionRepository assetCollectionRepository,
+        ObjectMapper objectMapper,
+        CacheManager cacheManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.webContentService = webContentService;
+        this.assetCollectionRepository = assetCollectionRepository;
+        this.objectMapper = objectMapper;
+        this.cacheManager = cacheManager;
+        this.properties = applicationProperties.getPublicContent();
+    }
+
+    /**
+     * JSON serializado de un bundle.
+     *
+     * @param json {@code {"CODIGO": {"active": true, "items": [...]}, ...}}.
+     * @param etag ETag de ese JSON.
+     */
+    public record Bundle(byte[] json, String etag) {
+        public static Bundle of(byte[] json) {
+            return new Bundle(json, ContentEtag.of(json));
+        }
+    }
+
+    /**
+     * Códigos del bundle sin blancos ni duplicados y en orden estable; sin códigos, los de la portada.
+     *
+     * @throws BusinessRuleException si se piden más colecciones de las permitidas.
+     */
+    public List<String> normalizeCodes(List<String> codes) {
+        TreeSet<String> normalized = new TreeSet<>();
+        if (codes != null) {
+            codes.stream().filter(StringUtils::hasText).map(String::trim).forEach(normalized::add);
+        }
+        if (normalized.isEmpty()) {
+            normalized.addAll(properties.getHomeBundle());
+        }
+        if (normalized.size() > properties.getMaxBundleCodes()) {
+            throw new BusinessRuleException("Un bundle admite como máximo " + properties.getMaxBundleCodes() + " colecciones.");
+        }
+        return List.copyOf(normalized);
+    }
+
+    /**
+     * Bundle de unas colecciones ya normalizadas: el guardado o, si no lo hay, uno reconstruido.
+     */
+    public Bundle getBundle(List<String> codes) {
+        String cacheKey = String.join(",", codes);
+        Cache bundles = Objects.requireNonNull(cacheManager.getCache(PUBLIC_CONTENT_BUNDLES_CACHE));
+
+        Bundle cached = bundles.get(cacheKey, Bundle.class);
+        if (cached != null) {
+            return cached;
+        }
+
+        LOG.debug("Building public content bundle for {}", cacheKey);
+        Map<String, PublicContentSectionDTO> sections = new LinkedHashMap<>();
+        for (String code : codes) {
+            // Si la colección no existe, asumimos visible por defecto (igual que /status/{code})
+            boolean active = assetCollectionRepository.findByCode(code).map(c -> c.getIsActive() != Boolean.FALSE).orElse(true);
+            sections.put(code, new PublicContentSectionDTO(active, webContentService.findActiveByCollectionCode(code)));
+        }
+
+        Bundle bundle;
+        try {
+            bundle = Bundle.of(objectMapper.writeValueAsBytes(sections));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize public content bundle " + cacheKey, e);
+        }
+        bundles.put(cacheKey, bundle);
+        return bundle;
+    }
+}
@@ -0,0 +1,172 @@
+package org.hotel.service;
+
+import org.hotel.config.ApplicationProperties;
+import org.hotel.domain.Booking;
+import org.hotel.domain.BookingItem;
+import org.hotel.domain.RoomType;
+import org.hotel.domain.RoomTypeInventory;
+import org.hotel.domain.enumeration.BookingStatus;
+import org.hotel.repository.BookingRepository;
+import org.hotel.repository.RoomRepository;
+import org.hotel.repository.RoomTypeInventoryRepository;
+import org.hotel.repository.RoomTypeRepository;
+import org.hotel.web.rest.errors.BusinessRuleException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Mantiene la tabla {@code room_type_inventory} (habitaciones reservadas por tipo y noche).
+ * <p>
+ * Cada escritura de reservas pasa por {@link #apply(InventoryHold, InventoryHold)} dentro de su transacción:
+ * se liberan las noches anteriores y se reservan las nuevas con un UPDATE condicionado a la capacidad,
+ * de modo que la base de datos impide la sobreventa sin bloquear la tabla.
+ * <p>
+ * Además, {@link #lockRoomTypes(Collection)} serializa a los escritores de un mismo tipo de habitación
+ * con un advisory lock de transacción, para que la validación previa vea siempre el estado confirmado
+ * del escritor anterior; los tipos no relacionados siguen reservando en paralelo.
+ */
+@Service
+@Transactional
+public class RoomInventoryService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RoomInventoryService.class);
+
+    /**
+     * Espacio de claves de los advisory locks de tipos de habitación (32 bits altos de la clave).
+     */
+    private static final long ROOM_TYPE_LOCK_NAMESPACE = 0x524F4F4DL;
+
+    private final RoomTypeInventoryRepository roomTypeInventoryRepository;
+    private final BookingRepository bookingRepository;
+    private final RoomRepository roomRepository;
+    private final RoomTypeRepository roomTypeRepository;
+    private final boolean lockingEnabled;
+
+    public RoomInventoryService(RoomTypeInventoryRepository roomTypeInventoryRepository,
+                                BookingRepository bookingRepository,
+                                RoomRepository roomRepository,
+                                RoomTypeRepository roomTypeRepository,
+                                ApplicationProperties applicationProperties) {
+        this.roomTypeInventoryRepository = roomTypeInventoryRepository;
+        this.bookingRepository = bookingRepository;
+        this.roomRepository = roomRepository;
+        this.roomTypeRepository = roomTypeRepository;
+        this.lockingEnabled = applicationProperties.getRoomTypeLocks().isEnabled();
+    }
+
+    /**
+     * Bloquea, hasta el final de la transacción actual, a otros escritores de los mismos tipos de habitación.
+     * Los tipos se bloquean en orden ascendente para evitar interbloqueos entre reservas multi-tipo.
+     */
+    public void lockRoomTypes(Collection<Long> roomTypeIds) {
+        if (!lockingEnabled) {
+            return;
+        }
+        for (Long roomTypeId : new TreeSet<>(roomTypeIds)) {
+            roomTypeInventoryRepository.lockTransactionScoped((ROOM_TYPE_LOCK_NAMESPACE << 32) | roomTypeId);
+        }
+    }
+
+    /**
+     * Noches y habitaciones que la reserva tiene registradas en el inventario (según su estado persistido).
+     */
+    @Transactional(readOnly = true)
+    public InventoryHold findHold(Long bookingId) {
+        if (bookingId == null) {
+            return InventoryHold.NONE;
+        }
+        InventoryHold hold = InventoryHold.NONE;
+        for (BookingRepository.BookingNightsRow row : bookingRepository.findPersistedOccupancyRows(bookingId)) {
+            hold = hold.plus(row.getCheckInDate(), row.getCheckOutDate(), row.getRoomTypeId());
+        }
+        return hold;
+    }
+
+    /**
+     * Sustituye en el inventario la ocupación anterior de una reserva por la nueva.
+     * Lanza {@link BusinessRuleException} si alguna noche nueva supera las habitaciones físicas del tipo.
+     */
+    public void apply(InventoryHold previous, InventoryHold next) {
+        if (previous.equals(next)) {
+            return;
+        }
+        LOG.debug("Moving room inventory from {} to {}", previous, next);
+        previous.roomsByType().forEach((roomTypeId, rooms) ->
+            roomTypeInventoryRepository.releaseNights(roomTypeId, previous.checkIn(), previous.checkOut(), rooms)
+        );
+        // Orden estable por tipo para que escritores concurrentes bloqueen las filas en el mismo orden
+        new TreeMap<>(next.roomsByType()).forEach((roomTypeId, rooms) -> reserve(roomTypeId, next.checkIn(), next.checkOut(), rooms));
+    }
+
+    /**
+     * Habitaciones libres de un tipo durante todas las noches de [checkIn, checkOut),
+     * descontando la ocupación de {@code excludeBookingId} si se indica.
+     */
+    @Transactional(readOnly = true)
+    public long findFreeRooms(Long roomTypeId, LocalDate checkIn, LocalDate checkOut, Long excludeBookingId) {
+        InventoryHold excluded = findHold(excludeBookingId);
+        int excludedRooms = excluded.roomsByType().getOrDefault(roomTypeId, 0);
+
+        long maxBooked = 0;
+        for (RoomTypeInventory night : roomTypeInventoryRepository.findNights(roomTypeId, checkIn, checkOut)) {
+            long booked = night.getBookedCount();
+            if (excludedRooms > 0 && excluded.covers(night.getNight())) {
+                booked -= excludedRooms;
+            }
+            maxBooked = Math.max(maxBooked, booked);
+        }
+        return roomRepository.countByRoomTypeId(roomTypeId) - maxBooked;
+    }
+
+    private void reserve(Long roomTypeId, LocalDate checkIn, LocalDate checkOut, int rooms) {
+        roomTypeInventoryRepository.createMissingNights(roomTypeId, checkIn, checkOut);
+        int updatedNights = roomTypeInventoryRepository.reserveNights(roomTypeId, checkIn, checkOut, rooms);
+        if (updatedNights < ChronoUnit.DAYS.between(checkIn, checkOut)) {
+            String typeName = roomTypeRepository.findById(roomTypeId).map(RoomType::getName).orElse("Desconocido");
+            throw new BusinessRuleException("No hay disponibilidad suficiente para: " + typeName +
+                " en todas las noches solicitadas. Solicitadas: " + rooms);
+        }
+    }
+
+    /**
+     * Noches [checkIn, checkOut) y habitaciones por tipo que una reserva ocupa en el inventario.
+     */
+    public record InventoryHold(LocalDate checkIn, LocalDate checkOut, Map<Long, Integer> roomsByType) {
+
+        public static final InventoryHold NONE = new InventoryHold(null, null, Map.of());
+
+        /**
+         * Ocupación que corresponde al estado actual (en memoria) de la reserva; las canceladas no ocupan noches.
+         */
+        public static InventoryHold of(Booking booking) {
+            if (BookingStatus.CANCELLED.equals(booking.getStatus()) || booking.getBookingItems().isEmpty()) {
+                return NONE;
+            }
+            InventoryHold hold = NONE;
+            for (BookingItem item : booking.getBookingItems()) {
+                hold = hold.plus(booking.getCheckInDate(), booking.getCheckOutDate(), item.getRoomType().getId());
+            }
+            return hold;
+        }
+
+        InventoryHold plus(LocalDate checkIn, LocalDate checkOut, Long roomTypeId) {
+            Map<Long, Integer> rooms = new HashMap<>(roomsByType);
+            rooms.merge(roomTypeId, 1, Integer::sum);
+            return new InventoryHold(checkIn, checkOut, rooms);
+        }
+
+        boolean covers(LocalDate night) {
+            return checkIn != null && !night.isBefore(checkIn) && night.isBefore(checkOut);
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package org.hotel.service;
 
 import org.hotel.config.ApplicationProperties;
+import org.hotel.config.BulkheadConfiguration;
 import org.hotel.service.dto.StoredFileDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.core.sync.RequestBody;
@@ -15,18 +17,28 @@ import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+/**
+ * Almacenamiento en S3. Las llamadas al SDK (bloqueantes) van por el pool de almacenamiento
+ * ({@link BulkheadConfiguration#STORAGE}): un S3 lento no ocupa todos los hilos de peticiones.
+ */
 @Service
 public class S3FileStorageService implements FileStorageService {
 
     private final Logger log = LoggerFactory.getLogger(S3FileStorageService.class);
 
     private final S3Client s3Client;
+    private final IoBulkhead storageBulkhead;
     private final String bucketName;
     private final String region;
     private final String endpoint;
 
-    public S3FileStorageService(S3Client s3Client, ApplicationProperties applicationProperties) {
+    public S3FileStorageService(
+        S3Client s3Client,
+        ApplicationProperties applicationProperties,
+        @Qualifier(BulkheadConfiguration.STORAGE) IoBulkhead storageBulkhead
+    ) {
         this.s3Client = s3Client;
+        this.storageBulkhead = storageBulkhead;
         ApplicationProperties.S3 s3Properties = applicationProperties.getS3();
         this.bucketName = s3Properties.getBucket();
         this.region = s3Properties.getRegion();
@@ -65,7 +77,7 @@ public class S3FileStorageService implements FileStorageService {
                 .contentType(file.getContentType())
                 .build();
 
-            s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
+            storageBulkhead.call(() -> s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(file.getInputStream(), file.getSize())));
             
             return generateUrl(key);
         } catch (IOException | S3Exception e) {
@@ -88,7 +100,7 @@ public class S3FileStorageService implements FileStorageService {
                 .key(key)
                 .build();
                 
-            s3Client.deleteObject(deleteObjectRequest);
+            storageBulkhead.call(() -> s3Client.deleteObject(deleteObjectRequest));
         } catch (S3Exception e) {
             log.error("Error deleting file from S3: {}", e.getMessage());
             throw new FileStorageException("Error al eliminar el archivo de S3: " + e.getMessage(), e);
@@ -118,7 +130,7 @@ public class S3FileStorageService implements FileStorageService {
                 .prefix(prefix)
                 .build();
 
-            ListObjectsV2Response result = s3Client.listObjectsV2(request);
+            ListObjectsV2Response result = storageBulkhead.call(() -> s3Client.listObjectsV2(request));
             
             return result.contents().stream()
                 .map(this::mapToDTO)
@@ -0,0 +1,264 @@
+package org.hotel.service;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.hotel.config.ApplicationProperties;
+import org.hotel.domain.Authority;
+import org.hotel.domain.User;
+import org.hotel.repository.AuthorityRepository;
+import org.hotel.repository.UserRepository;
+import org.hotel.service.dto.AdminUserDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Mantiene {@code jhi_user}/{@code jhi_authority} como réplica de los usuarios de Keycloak y de sus grupos, para que el
+ * listado de administración se sirva desde la base de datos.
+ * <p>
+ * Las altas, ediciones y bajas hechas desde la aplicación se escriben en ambos lados en el momento
+ * ({@link #applyCreated}, {@link #applyAdminUpdate}, {@link #applyDeleted}); los cambios hechos directamente en
+ * Keycloak llegan con la sincronización periódica, que solo escribe las filas que difieren. Los usuarios que
+ * desaparecen de Keycloak se desactivan (pueden estar referenciados por clientes). Solo se gestionan las autoridades
+ * de los grupos mapeados ({@link KeycloakService#GROUP_AUTHORITIES}).
+ */
+@Service
+@Transactional
+public class UserDirectorySyncService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UserDirectorySyncService.class);
+
+    private final KeycloakService keycloakService;
+
+    private final UserRepository userRepository;
+
+    private final AuthorityRepository authorityRepository;
+
+    private final UserService userService;
+
+    private final ApplicationProperties.Keycloak.DirectorySync properties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public UserDirectorySyncService(
+        KeycloakService keycloakService,
+        UserRepository userRepository,
+        AuthorityRepository authorityRepository,
+        UserService userService,
+        ApplicationProperties applicationProperties,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.keycloakService = keycloakService;
+        this.userRepository = userRepository;
+        this.authorityRepository = authorityRepository;
+        this.userService = userService;
+        this.properties = applicationProperties.getKeycloak().getDirectorySync();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Resultado de una sincronización: filas nuevas, modificadas y desactivadas (el resto ya estaba al día).
+     */
+    public record SyncResult(int created, int updated, int deactivated, int unchanged) {}
+
+    @Scheduled(
+        initialDelayString = "${application.keycloak.directory-sync.interval:PT5M}",
+        fixedDelayString = "${application.keycloak.directory-sync.interval:PT5M}"
+    )
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void scheduledSync() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            sync();
+        } catch (Exception e) {
+            LOG.warn("Keycloak user directory sync failed, keeping the local copy: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Compara el directorio de Keycloak con la réplica local y escribe solo las diferencias.
+     * <p>
+     * La réplica se recorre por páginas de {@code page-size} usuarios (con sus autoridades en la misma consulta), cada
+     * una en su propia transacción; los usuarios que solo existen en Keycloak se crean después, también por páginas.
+     * Keycloak no expone la fecha de modificación de los usuarios, así que el directorio remoto se lee entero.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SyncResult sync() {
+        // Keycloak se lee antes de la primera consulta: la conexión a la base de datos no se toma hasta entonces
+        Map<String, AdminUserDTO> remoteById = new LinkedHashMap<>();
+        keycloakService.fetchDirectory(properties.getPageSize()).forEach(remote -> remoteById.put(remote.getId(), remote));
+
+        Tally tally = new Tally();
+        String afterId = "";
+        List<String> ids;
+        do {
+            String from = afterId;
+            ids = transactionTemplate.execute(status -> syncLocalPage(from, remoteById, tally));
+            if (!ids.isEmpty()) {
+                afterId = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == properties.getPageSize());
+
+        List<AdminUserDTO> missing = List.copyOf(remoteById.values());
+        for (int first = 0; first < missing.size(); first += properties.getPageSize()) {
+            List<AdminUserDTO> page = missing.subList(first, Math.min(missing.size(), first + properties.getPageSize()));
+            transactionTemplate.executeWithoutResult(status -> createUsers(page, tally));
+        }
+
+        SyncResult result = new SyncResult(tally.created, tally.updated, tally.deactivated, tally.unchanged);
+        LOG.info("Keycloak user directory synced: {}", result);
+        return result;
+    }
+
+    /**
+     * Sincroniza la página de usuarios locales siguiente a {@code afterId} y devuelve sus ids. Los usuarios remotos
+     * encontrados se quitan de {@code remoteById}.
+     */
+    private List<String> syncLocalPage(String afterId, Map<String, AdminUserDTO> remoteById, Tally tally) {
+        List<String> ids = userRepository.findIdsAfter(afterId, PageRequest.of(0, properties.getPageSize()));
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        Map<String, Authority> managedAuthorities = managedAuthorities();
+        for (User local : userRepository.findAllWithAuthoritiesByIdIn(ids)) {
+            AdminUserDTO remote = remoteById.remove(local.getId());
+            if (remote == null) {
+                if (local.isActivated()) {
+                    local.setActivated(false);
+                    tally.deactivated++;
+                }
+            } else if (copyProfile(remote, local, managedAuthorities)) {
+                tally.updated++;
+            } else {
+                tally.unchanged++;
+            }
+        }
+        return ids;
+    }
+
+    private void createUsers(List<AdminUserDTO> remotes, Tally tally) {
+        Map<String, Authority> managedAuthorities = managedAuthorities();
+        for (AdminUserDTO remote : remotes) {
+            User user = new User();
+            user.setId(remote.getId());
+            copyProfile(remote, user, managedAuthorities);
+            userRepository.save(user);
+            tally.created++;
+        }
+    }
+
+    private static final class Tally {
+
+        private int created;
+        private int updated;
+        private int deactivated;
+        private int unchanged;
+    }
+
+    /**
+     * Réplica de un usuario recién creado en Keycloak.
+     */
+    public User applyCreated(String keycloakUserId, AdminUserDTO profile) {
+        User user = userRepository.findById(keycloakUserId).orElseGet(() -> {
+            User newUser = new User();
+            newUser.setId(keycloakUserId);
+            return newUser;
+        });
+        copyProfile(profile, user, managedAuthorities());
+        return userRepository.save(user);
+    }
+
+    /**
+     * Réplica de la edición de nombre y correo hecha desde el panel de administración.
+     */
+    public void applyAdminUpdate(AdminUserDTO userDTO) {
+        userRepository
+            .findById(userDTO.getId())
+            .ifPresent(user -> {
+                user.setFirstName(userDTO.getFirstName());
+                user.setLastName(userDTO.getLastName());
+                user.setEmail(userDTO.getEmail() == null ? null : userDTO.getEmail().toLowerCase());
+            });
+    }
+
+    /**
+     * Réplica de la baja de un usuario en Keycloak. Si vuelve a entrar con el mismo token, la fila se recrea.
+     */
+    public void applyDeleted(String login) {
+        userRepository.findOneByLogin(login).ifPresent(userRepository::delete);
+        userService.evictSyncFingerprint(login);
+    }
+
+    private Map<String, Authority> managedAuthorities() {
+        return authorityRepository
+            .findAllById(KeycloakService.GROUP_AUTHORITIES.values())
+            .stream()
+            .collect(Collectors.toMap(Authority::getName, Function.identity()));
+    }
+
+    /**
+     * Copia el perfil remoto sobre la entidad y devuelve si algo cambió (sin cambios no hay UPDATE al hacer flush).
+     */
+    private static boolean copyProfile(AdminUserDTO remote, User user, Map<String, Authority> managedAuthorities) {
+        boolean changed = false;
+        String login = remote.getLogin() == null ? null : remote.getLogin().toLowerCase();
+        String email = remote.getEmail() == null ? null : remote.getEmail().toLowerCase();
+        if (!Objects.equals(user.getLogin(), login)) {
+            user.setLogin(login);
+            changed = true;
+        }
+        if (!Objects.equals(user.getEmail(), email)) {
+            user.setEmail(email);
+            changed = true;
+        }
+        if (!Objects.equals(user.getFirstName(), remote.getFirstName())) {
+            user.setFirstName(remote.getFirstName());
+            changed = true;
+        }
+        if (!Objects.equals(user.getLastName(), remote.getLastName())) {
+            user.setLastName(remote.getLastName());
+            changed = true;
+        }
+        if (user.isActivated() != remote.isActivated()) {
+            user.setActivated(remote.isActivated());
+            changed = true;
+        }
+        if (remote.getImageUrl() != null && !Objects.equals(user.getImageUrl(), remote.getImageUrl())) {
+            user.setImageUrl(remote.getImageUrl());
+            changed = true;
+        }
+        if (user.getLangKey() == null && remote.getLangKey() != null) {
+            user.setLangKey(remote.getLangKey());
+            changed = true;
+        }
+
+        // Solo las autoridades de grupos mapeados: las demás vienen del token y no se tocan
+        Set<Authority> wanted = new HashSet<>();
+        for (Authority authority : user.getAuthorities()) {
+            if (!managedAuthorities.containsKey(authority.getName())) {
+                wanted.add(authority);
+            }
+        }
+        remote.getAuthorities().stream().map(managedAuthorities::get).filter(Objects::nonNull).forEach(wanted::add);
+        if (!wanted.equals(user.getAuthorities())) {
+            user.getAuthorities().clear();
+            user.getAuthorities().addAll(wanted);
+            changed = true;
+        }
+        return changed;
+    }
+}
@@ -1,5 +1,8 @@
 package org.hotel.service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -13,6 +16,8 @@ import org.hotel.service.dto.AdminUserDTO;
 import org.hotel.service.dto.UserDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
@@ -29,15 +34,41 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public class UserService {
 
+    /**
+     * Huella de los claims con los que se sincronizó por última vez cada login.
+     */
+    public static final String USER_SYNC_FINGERPRINTS_CACHE = "userSyncFingerprints";
+
+    /**
+     * Claims que determinan la fila local del usuario (ver {@link #getUser(Map)}).
+     */
+    private static final List<String> SYNCED_CLAIMS = List.of(
+        "sub",
+        "uid",
+        "preferred_username",
+        "given_name",
+        "name",
+        "family_name",
+        "email",
+        "email_verified",
+        "langKey",
+        "locale",
+        "picture",
+        "updated_at"
+    );
+
     private static final Logger LOG = LoggerFactory.getLogger(UserService.class);
 
     private final UserRepository userRepository;
 
     private final AuthorityRepository authorityRepository;
 
-    public UserService(UserRepository userRepository, AuthorityRepository authorityRepository) {
+    private final CacheManager cacheManager;
+
+    public UserService(UserRepository userRepository, AuthorityRepository authorityRepository, CacheManager cacheManager) {
         this.userRepository = userRepository;
         this.authorityRepository = authorityRepository;
+        this.cacheManager = cacheManager;
     }
 
     /**
@@ -93,9 +124,9 @@ public class UserService {
 
     private User syncUserWithIdP(Map<String, Object> details, User user) {
         // save authorities in to sync user roles/groups between IdP and JHipster's
-        // local database
-        Collection<String> dbAuthorities = getAuthorities();
+        // local database (solo se consultan las del token, no la tabla entera)
         Collection<String> userAuthorities = user.getAuthorities().stream().map(Authority::getName).toList();
+        Collection<String> dbAuthorities = authorityRepository.findAllById(userAuthorities).stream().map(Authority::getName).toList();
         for (String authority : userAuthorities) {
             if (!dbAuthorities.contains(authority)) {
                 LOG.debug("Saving authority '{}' in local database", authority);
@@ -176,7 +207,48 @@ public class UserService {
                         })
                         .collect(Collectors.toSet()));
 
-        return new AdminUserDTO(syncUserWithIdP(attributes, user));
+        // Mismos claims que en la última sincronización de este login: la fila local ya está al día
+        String fingerprint = fingerprint(attributes, user.getAuthorities());
+        Cache fingerprints = cacheManager.getCache(USER_SYNC_FINGERPRINTS_CACHE);
+        if (fingerprint.equals(fingerprints.get(user.getLogin(), String.class))) {
+            return new AdminUserDTO(user);
+        }
+        AdminUserDTO userDTO = new AdminUserDTO(syncUserWithIdP(attributes, user));
+        // La caché aplica el put tras el commit: si la sincronización falla, el siguiente acceso la repite
+        fingerprints.put(user.getLogin(), fingerprint);
+        return userDTO;
+    }
+
+    /**
+     * Olvida la última sincronización de un login, para que su próximo acceso vuelva a escribir la fila local.
+     *
+     * @param login the login of the user.
+     */
+    public void evictSyncFingerprint(String login) {
+        cacheManager.getCache(USER_SYNC_FINGERPRINTS_CACHE).evict(login);
+    }
+
+    /**
+     * SHA-256 de los claims sincronizados y de las autoridades del token (ordenadas).
+     */
+    private static String fingerprint(Map<String, Object> details, Set<Authority> authorities) {
+        StringBuilder canonical = new StringBuilder();
+        for (String claim : SYNCED_CLAIMS) {
+            appendField(canonical, claim, details.get(claim));
+        }
+        appendField(canonical, "authorities", authorities.stream().map(Authority::getName).sorted().toList());
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void appendField(StringBuilder canonical, String name, Object value) {
+        String text = value == null ? "" : String.valueOf(value);
+        // Longitud delante del valor: ningún valor puede imitar el separador de otro
+        canonical.append(name).append(':').append(value == null ? -1 : text.length()).append(':').append(text).append(';');
     }
 
     private static User getUser(Map<String, Object> details) {
@@ -278,6 +350,7 @@ public class UserService {
             userRepository.delete(user);
             LOG.debug("Deleted User: {}", user);
         });
+        evictSyncFingerprint(login);
     }
 
     /**
@@ -1,12 +1,18 @@
 package org.hotel.service;
 
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import org.hotel.domain.AssetCollection;
 import org.hotel.domain.WebContent;
+import org.hotel.repository.AssetCollectionRepository;
 import org.hotel.repository.WebContentRepository;
 import org.hotel.service.dto.WebContentDTO;
 import org.hotel.service.mapper.WebContentMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -19,15 +25,30 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public class WebContentService {
 
+    public static final String ACTIVE_CONTENT_BY_COLLECTION_CACHE = "activeWebContentByCollection";
+
+    public static final String FIRST_CONTENT_BY_COLLECTION_CACHE = "firstWebContentByCollection";
+
     private static final Logger LOG = LoggerFactory.getLogger(WebContentService.class);
 
     private final WebContentRepository webContentRepository;
 
     private final WebContentMapper webContentMapper;
 
-    public WebContentService(WebContentRepository webContentRepository, WebContentMapper webContentMapper) {
+    private final AssetCollectionRepository assetCollectionRepository;
+
+    private final CacheManager cacheManager;
+
+    public WebContentService(
+        WebContentRepository webContentRepository,
+        WebContentMapper webContentMapper,
+        AssetCollectionRepository assetCollectionRepository,
+        CacheManager cacheManager
+    ) {
         this.webContentRepository = webContentRepository;
         this.webContentMapper = webContentMapper;
+        this.assetCollectionRepository = assetCollectionRepository;
+        this.cacheManager = cacheManager;
     }
 
     /**
@@ -40,6 +61,7 @@ public class WebContentService {
         LOG.debug("Request to save WebContent : {}", webContentDTO);
         WebContent webContent = webContentMapper.toEntity(webContentDTO);
         webContent = webContentRepository.save(webContent);
+        clearContentCaches(collectionCodeOf(webContent));
         return webContentMapper.toDto(webContent);
     }
 
@@ -51,8 +73,10 @@ public class WebContentService {
      */
     public WebContentDTO update(WebContentDTO webContentDTO) {
         LOG.debug("Request to update WebContent : {}", webContentDTO);
+        clearContentCaches(collectionCodeOf(webContentDTO.getId()));
         WebContent webContent = webContentMapper.toEntity(webContentDTO);
         webContent = webContentRepository.save(webContent);
+        clearContentCaches(collectionCodeOf(webContent));
         return webContentMapper.toDto(webContent);
     }
 
@@ -68,11 +92,16 @@ public class WebContentService {
         return webContentRepository
             .findById(webContentDTO.getId())
             .map(existingWebContent -> {
+                clearContentCaches(collectionCodeOf(existingWebContent));
                 webContentMapper.partialUpdate(existingWebContent, webContentDTO);
 
                 return existingWebContent;
             })
             .map(webContentRepository::save)
+            .map(webContent -> {
+                clearContentCaches(collectionCodeOf(webContent));
+                return webContent;
+            })
             .map(webContentMapper::toDto);
     }
 
@@ -85,6 +114,34 @@ public class WebContentService {
         return webContentRepository.findAllWithEagerRelationships(pageable).map(webContentMapper::toDto);
     }
 
+    /**
+     * Contenido activo de una colección activa, ordenado (carruseles y galerías públicas). Cacheado por código.
+     *
+     * @param code el código de la colección.
+     * @return la lista de contenidos (no modificable).
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = ACTIVE_CONTENT_BY_COLLECTION_CACHE)
+    public List<WebContentDTO> findActiveByCollectionCode(String code) {
+        LOG.debug("Request to get active WebContent of collection : {}", code);
+        return List.copyOf(
+            webContentMapper.toDto(webContentRepository.findAllByCollectionCodeAndIsActiveTrueAndCollectionIsActiveTrueOrderBySortOrderAsc(code))
+        );
+    }
+
+    /**
+     * Primer contenido activo de una colección (hero, mapas, logos). Cacheado por código.
+     *
+     * @param code el código de la colección.
+     * @return el contenido, si existe.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = FIRST_CONTENT_BY_COLLECTION_CACHE)
+    public Optional<WebContentDTO> findFirstActiveByCollectionCode(String code) {
+        LOG.debug("Request to get first active WebContent of collection : {}", code);
+        return webContentRepository.findFirstByCollectionCodeAndIsActiveTrueAndCollectionIsActiveTrueOrderBySortOrderAsc(code).map(webContentMapper::toDto);
+    }
+
     /**
      * Get one webContent by id.
      *
@@ -104,6 +161,28 @@ public class WebContentService {
      */
     public void delete(Long id) {
         LOG.debug("Request to delete WebContent : {}", id);
+        clearContentCaches(collectionCodeOf(id));
         webContentRepository.deleteById(id);
     }
+
+    private String collectionCodeOf(Long webContentId) {
+        return webContentRepository.findById(webContentId).map(this::collectionCodeOf).orElse(null);
+    }
+
+    private String collectionCodeOf(WebContent webContent) {
+        if (webContent.getCollection() == null || webContent.getCollection().getId() == null) {
+            return null;
+        }
+        // La colección puede venir del mapper solo con el id
+        return assetCollectionRepository.findById(webContent.getCollection().getId()).map(AssetCollection::getCode).orElse(null);
+    }
+
+    private void clearContentCaches(String collectionCode) {
+        if (collectionCode == null) {
+            return;
+        }
+        Objects.requireNonNull(cacheManager.getCache(ACTIVE_CONTENT_BY_COLLECTION_CACHE)).evict(collectionCode);
+        Objects.requireNonNull(cacheManager.getCache(FIRST_CONTENT_BY_COLLECTION_CACHE)).evict(collectionCode);
+        Objects.requireNonNull(cacheManager.getCache(PublicContentBundleService.PUBLIC_CONTENT_BUNDLES_CACHE)).clear();
+    }
 }
@@ -9,16 +9,22 @@ import org.hotel.domain.enumeration.BookingStatus;
 import org.hotel.repository.BookingRepository;
 import org.hotel.repository.CustomerRepository;
 import org.hotel.repository.InvoiceRepository;
-import org.hotel.repository.RoomRepository;
 import org.hotel.repository.RoomTypeRepository;
 
 import org.hotel.security.SecurityUtils;
 import org.hotel.service.BookingDomainService;
-import org.hotel.service.MailService;
+import org.hotel.service.CodeGenerator;
+import org.hotel.service.CustomerIdResolver;
+import org.hotel.service.MailOutboxService;
+import org.hotel.service.RoomInventoryService;
+import org.hotel.service.RoomInventoryService.InventoryHold;
 import org.hotel.service.dto.client.request.booking.BookingCreateRequest;
 import org.hotel.service.dto.client.request.booking.BookingItemRequest;
 import org.hotel.service.dto.client.response.booking.BookingResponse;
+import org.hotel.service.dto.client.response.booking.FlexibleAvailabilityDTO;
 import org.hotel.service.dto.client.response.booking.RoomTypeAvailabilityDTO;
+import org.hotel.service.dto.client.response.booking.RoomTypeCalendarDTO;
+import org.hotel.service.dto.client.response.booking.StayWindowDTO;
 import org.hotel.service.mapper.client.ClientBookingMapper;
 import org.hotel.web.rest.errors.BadRequestAlertException;
 import org.hotel.web.rest.errors.BusinessRuleException;
@@ -34,42 +40,52 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class ClientBookingService {
 
+    /**
+     * Margen máximo (en días, hacia cada lado) de la búsqueda con fechas flexibles.
+     */
+    public static final int MAX_FLEX_DAYS = 14;
+
     private final Logger log = LoggerFactory.getLogger(ClientBookingService.class);
 
     private final BookingRepository bookingRepository;
     private final ClientBookingMapper clientBookingMapper;
     private final CustomerRepository customerRepository;
     private final RoomTypeRepository roomTypeRepository;
-    private final RoomRepository roomRepository;
     private final BookingDomainService bookingDomainService;
-    private final MailService mailService;
+    private final MailOutboxService mailOutboxService;
     private final InvoiceRepository invoiceRepository;
+    private final RoomInventoryService roomInventoryService;
+    private final CustomerIdResolver customerIdResolver;
+    private final CodeGenerator codeGenerator;
 
     public ClientBookingService(
         BookingRepository bookingRepository,
         ClientBookingMapper clientBookingMapper,
         CustomerRepository customerRepository,
         RoomTypeRepository roomTypeRepository,
-        RoomRepository roomRepository,
         BookingDomainService bookingDomainService,
-        MailService mailService,
-        InvoiceRepository invoiceRepository
+        MailOutboxService mailOutboxService,
+        InvoiceRepository invoiceRepository,
+        RoomInventoryService roomInventoryService,
+        CustomerIdResolver customerIdResolver,
+        CodeGenerator codeGenerator
     ) {
         this.bookingRepository = bookingRepository;
         this.clientBookingMapper = clientBookingMapper;
         this.customerRepository = customerRepository;
         this.roomTypeRepository = roomTypeRepository;
-        this.roomRepository = roomRepository;
         this.bookingDomainService = bookingDomainService;
-        this.mailService = mailService;
+        this.mailOutboxService = mailOutboxService;
         this.invoiceRepository = invoiceRepository;
+        this.roomInventoryService = roomInventoryService;
+        this.customerIdResolver = customerIdResolver;
+        this.codeGenerator = codeGenerator;
     }
 
     /**
@@ -85,7 +101,8 @@ public class ClientBookingService {
 
 
         // 2. Obtener Customer asociado
-        Customer customer = customerRepository.findOneByUser_Login(userLogin)
+        Customer customer = customerIdResolver.findCustomerId(userLogin)
+            .flatMap(customerRepository::findById)
             .orElseThrow(() -> new BusinessRuleException(
                 "No tienes un perfil de cliente creado. Por favor completa tu información personal primero."
             ));
@@ -97,7 +114,7 @@ public class ClientBookingService {
         Booking booking = clientBookingMapper.toEntity(request);
         booking.setCustomer(customer);
         booking.setStatus(BookingStatus.PENDING_APPROVAL);
-        booking.setCode("RES-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase());
+        booking.setCode(codeGenerator.nextBookingCode());
 
         // 5. Lógica Multi-Habitación
         booking.getBookingItems().clear();
@@ -128,19 +145,17 @@ public class ClientBookingService {
                 Collectors.counting()
             ));
 
+        roomInventoryService.lockRoomTypes(requestedRoomsByType.keySet());
         requestedRoomsByType.forEach((typeId, qty) -> {
             bookingDomainService.validateRoomAvailability(typeId, qty, request.getCheckInDate(), request.getCheckOutDate(), null);
         });
 
         // 7. Guardar
         booking = bookingRepository.save(booking);
+        roomInventoryService.apply(InventoryHold.NONE, InventoryHold.of(booking));
 
-        // 8. Enviar Correo
-        try {
-            mailService.sendBookingCreationEmail(customer, booking);
-        } catch (Exception e) {
-            log.warn("Fallo el envio de correo de confirmacion de reserva para usuario: {}", userLogin, e);
-        }
+        // 8. Enviar Correo (se encola en esta transacción y se envía tras el commit)
+        mailOutboxService.enqueueBookingCreation(booking);
 
         return clientBookingMapper.toClientResponse(booking);
     }
@@ -155,12 +170,15 @@ public class ClientBookingService {
 
         log.debug("Request to get all bookings for user : {}", userLogin);
 
-        return bookingRepository.findByCustomer_User_Login(userLogin, pageable)
+        return customerIdResolver.findCustomerId(userLogin)
+            .map(customerId -> bookingRepository.findByCustomer_Id(customerId, pageable))
+            .orElseGet(() -> Page.empty(pageable))
             .map(clientBookingMapper::toClientResponse);
     }
 
     /**
      * Obtiene la disponibilidad de habitaciones.
+     * Una sola consulta agregada para todos los tipos (antes eran 2N+1).
      */
     @Transactional(readOnly = true)
     public List<RoomTypeAvailabilityDTO> getAvailability(LocalDate checkIn, LocalDate checkOut) {
@@ -168,19 +186,102 @@ public class ClientBookingService {
         
         bookingDomainService.validateAndCalculateNights(checkIn, checkOut);
 
-        List<RoomType> roomTypes = roomTypeRepository.findAll();
-
-        return roomTypes.stream().map(type -> {
-            long totalPhysicalRooms = roomRepository.countByRoomTypeId(type.getId());
-            long occupiedRooms = bookingRepository.countOverlappingBookings(type.getId(), checkIn, checkOut);
-            
+        return roomTypeRepository.findAvailabilityBetween(checkIn, checkOut).stream().map(row -> {
             RoomTypeAvailabilityDTO dto = new RoomTypeAvailabilityDTO();
+            dto.setId(row.getId());
+            dto.setName(row.getName());
+            dto.setBasePrice(row.getBasePrice());
+            dto.setMaxCapacity(row.getMaxCapacity());
+            dto.setAvailableQuantity((int) Math.max(0, row.getTotalRooms() - row.getBookedRooms()));
+
+            return dto;
+        }).collect(Collectors.toList());
+    }
+
+    /**
+     * Calendario de disponibilidad: habitaciones libres por tipo y noche en [from, to).
+     * Una lectura de las reservas que solapan el rango más un barrido en memoria (ver {@link BookingDomainService}).
+     */
+    @Transactional(readOnly = true)
+    public List<RoomTypeCalendarDTO> getAvailabilityCalendar(LocalDate from, LocalDate to) {
+        log.debug("Request to get availability calendar between {} and {}", from, to);
+
+        int nights = bookingDomainService.validateCalendarRange(from, to);
+        Map<Long, int[]> freeByType = bookingDomainService.calculateFreeRoomsPerNight(from, to);
+
+        return roomTypeRepository.findAll().stream().map(type -> {
+            RoomTypeCalendarDTO dto = new RoomTypeCalendarDTO();
             dto.setId(type.getId());
             dto.setName(type.getName());
             dto.setBasePrice(type.getBasePrice());
             dto.setMaxCapacity(type.getMaxCapacity());
-            dto.setAvailableQuantity((int) Math.max(0, totalPhysicalRooms - occupiedRooms));
-            
+
+            int[] free = freeByType.getOrDefault(type.getId(), new int[nights]);
+            for (int night = 0; night < nights; night++) {
+                dto.getAvailableByNight().put(from.plusDays(night), free[night]);
+            }
+            return dto;
+        }).collect(Collectors.toList());
+    }
+
+    /**
+     * Búsqueda con fechas flexibles: todas las estancias de {@code nights} noches que entran entre
+     * {@code checkIn - flexDays} y {@code checkIn + flexDays} (nunca antes de hoy) con al menos una habitación
+     * libre, por tipo de habitación y con su precio total.
+     * Se calcula el calendario del rango completo una sola vez y cada ventana se evalúa con un mínimo deslizante.
+     */
+    @Transactional(readOnly = true)
+    public List<FlexibleAvailabilityDTO> searchFlexibleAvailability(LocalDate checkIn, int nights, int flexDays) {
+        log.debug("Request to search flexible availability around {} for {} nights (+/- {} days)", checkIn, nights, flexDays);
+
+        if (checkIn == null) {
+            throw new BusinessRuleException("La fecha de entrada es obligatoria.");
+        }
+        if (nights < 1) {
+            throw new BusinessRuleException("La estancia mínima es de 1 noche.");
+        }
+        if (flexDays < 0 || flexDays > MAX_FLEX_DAYS) {
+            throw new BusinessRuleException("El margen de fechas debe estar entre 0 y " + MAX_FLEX_DAYS + " días.");
+        }
+
+        LocalDate today = LocalDate.now();
+        LocalDate firstCheckIn = checkIn.minusDays(flexDays).isBefore(today) ? today : checkIn.minusDays(flexDays);
+        LocalDate lastCheckIn = checkIn.plusDays(flexDays);
+        if (lastCheckIn.isBefore(firstCheckIn)) {
+            throw new BusinessRuleException("No se pueden buscar estancias en fechas pasadas.");
+        }
+        LocalDate rangeEnd = lastCheckIn.plusDays(nights);
+        bookingDomainService.validateCalendarRange(firstCheckIn, rangeEnd);
+
+        Map<Long, int[]> freeByType = bookingDomainService.calculateFreeRoomsPerNight(firstCheckIn, rangeEnd);
+
+        return roomTypeRepository.findAll().stream().map(type -> {
+            FlexibleAvailabilityDTO dto = new FlexibleAvailabilityDTO();
+            dto.setId(type.getId());
+            dto.setName(type.getName());
+            dto.setBasePrice(type.getBasePrice());
+            dto.setMaxCapacity(type.getMaxCapacity());
+
+            int[] free = freeByType.get(type.getId());
+            if (free == null) {
+                return dto;
+            }
+            int[] freeDuringStay = bookingDomainService.slidingWindowMinimum(free, nights);
+            BigDecimal totalPrice = null;
+            for (int start = 0; start < freeDuringStay.length; start++) {
+                if (freeDuringStay[start] < 1) {
+                    continue;
+                }
+                if (totalPrice == null) {
+                    totalPrice = bookingDomainService.calculateItemPrice(type, nights);
+                }
+                StayWindowDTO window = new StayWindowDTO();
+                window.setCheckInDate(firstCheckIn.plusDays(start));
+                window.setCheckOutDate(firstCheckIn.plusDays(start + nights));
+                window.setAvailableQuantity(freeDuringStay[start]);
+                window.setTotalPrice(totalPrice);
+                dto.getWindows().add(window);
+            }
             return dto;
         }).collect(Collectors.toList());
     }
@@ -196,10 +297,9 @@ public class ClientBookingService {
             .orElseThrow(() -> new ResourceNotFoundException("Reserva", bookingId));
 
         // SEGURIDAD: Verificar pertenencia (Customer check)
-        // El customer de la reserva debe tener un user con el login actual
-        if (booking.getCustomer() == null || 
-            booking.getCustomer().getUser() == null ||
-            !booking.getCustomer().getUser().getLogin().equals(userLogin)) {
+        // El customer de la reserva debe ser el del usuario actual
+        Long customerId = customerIdResolver.findCustomerId(userLogin).orElse(null);
+        if (booking.getCustomer() == null || customerId == null || !customerId.equals(booking.getCustomer().getId())) {
             
             throw new BadRequestAlertException("No tiene permisos para eliminar esta reserva", "booking", "accessDenied");
         }
@@ -219,6 +319,8 @@ public class ClientBookingService {
             org.hotel.domain.enumeration.InvoiceStatus.PAID.equals(inv.getStatus())
         );
 
+        roomInventoryService.apply(roomInventoryService.findHold(bookingId), InventoryHold.NONE);
+
         if (hasPayments) {
             booking.setStatus(BookingStatus.CANCELLED);
             bookingRepository.save(booking);
@@ -5,6 +5,7 @@ import org.hotel.domain.User;
 import org.hotel.repository.CustomerRepository;
 import org.hotel.repository.UserRepository;
 import org.hotel.security.SecurityUtils;
+import org.hotel.service.CustomerIdResolver;
 import org.hotel.service.dto.client.request.customer.CustomerCreateRequest;
 import org.hotel.service.dto.client.request.customer.CustomerUpdateRequest;
 import org.hotel.service.dto.client.response.customer.CustomerResponse;
@@ -26,13 +27,16 @@ public class ClientCustomerService {
 
     private final CustomerRepository customerRepository;
     private final UserRepository userRepository;
+    private final CustomerIdResolver customerIdResolver;
 
     public ClientCustomerService(
         CustomerRepository customerRepository,
-        UserRepository userRepository
+        UserRepository userRepository,
+        CustomerIdResolver customerIdResolver
     ) {
         this.customerRepository = customerRepository;
         this.userRepository = userRepository;
+        this.customerIdResolver = customerIdResolver;
     }
 
     /**
@@ -43,7 +47,8 @@ public class ClientCustomerService {
         String userLogin = SecurityUtils.getCurrentUserLogin()
             .orElseThrow(() -> new RuntimeException("Usuario no autenticado"));
 
-        return customerRepository.findOneByUser_Login(userLogin)
+        return customerIdResolver.findCustomerId(userLogin)
+            .flatMap(customerRepository::findById)
             .map(this::toClientResponse);
     }
 
@@ -54,7 +59,7 @@ public class ClientCustomerService {
         String userLogin = SecurityUtils.getCurrentUserLogin()
             .orElseThrow(() -> new RuntimeException("Usuario no autenticado"));
 
-        if (customerRepository.findOneByUser_Login(userLogin).isPresent()) {
+        if (customerIdResolver.findCustomerId(userLogin).isPresent()) {
             throw new BadRequestAlertException(
                 "El perfil de cliente ya existe. Usa la opción de actualizar.",
                 "customer",
@@ -97,6 +102,7 @@ public class ClientCustomerService {
         entity.setIdentificationType("DNI"); 
 
         entity = customerRepository.save(entity);
+        customerIdResolver.evict(userLogin);
 
         return toClientResponse(entity);
     }
@@ -108,7 +114,8 @@ public class ClientCustomerService {
         String userLogin = SecurityUtils.getCurrentUserLogin()
             .orElseThrow(() -> new RuntimeException("Usuario no autenticado"));
 
-        Customer entity = customerRepository.findOneByUser_Login(userLogin)
+        Customer entity = customerIdResolver.findCustomerId(userLogin)
+            .flatMap(customerRepository::findById)
             .orElseThrow(() -> new RuntimeException("Perfil no encontrado. Debes crearlo primero."));
 
         if (request.getFirstName() != null) entity.setFirstName(request.getFirstName());
@@ -4,9 +4,9 @@ import org.hotel.domain.Booking;
 import org.hotel.domain.BookingItem;
 import org.hotel.domain.Invoice;
 import org.hotel.domain.InvoiceItem;
-import org.hotel.repository.InvoiceItemRepository;
 import org.hotel.repository.InvoiceRepository;
 import org.hotel.security.SecurityUtils;
+import org.hotel.service.CustomerIdResolver;
 import org.hotel.service.dto.InvoiceDTO;
 import org.hotel.service.mapper.InvoiceMapper;
 import org.slf4j.Logger;
@@ -25,15 +25,15 @@ public class ClientInvoiceService {
     private final Logger log = LoggerFactory.getLogger(ClientInvoiceService.class);
 
     private final InvoiceRepository invoiceRepository;
-    private final InvoiceItemRepository invoiceItemRepository;
     private final InvoiceMapper invoiceMapper;
+    private final CustomerIdResolver customerIdResolver;
 
-    public ClientInvoiceService(InvoiceRepository invoiceRepository, 
-                                InvoiceItemRepository invoiceItemRepository,
-                                InvoiceMapper invoiceMapper) {
+    public ClientInvoiceService(InvoiceRepository invoiceRepository,
+                                InvoiceMapper invoiceMapper,
+                                CustomerIdResolver customerIdResolver) {
         this.invoiceRepository = invoiceRepository;
-        this.invoiceItemRepository = invoiceItemRepository;
         this.invoiceMapper = invoiceMapper;
+        this.customerIdResolver = customerIdResolver;
     }
 
     @Transactional(readOnly = true)
@@ -43,7 +43,9 @@ public class ClientInvoiceService {
         
         log.debug("Request to get invoices for user : {}", userLogin);
 
-        return invoiceRepository.findByBooking_Customer_User_Login(userLogin, pageable)
+        return customerIdResolver.findCustomerId(userLogin)
+            .map(customerId -> invoiceRepository.findByBooking_Customer_Id(customerId, pageable))
+            .orElseGet(() -> Page.empty(pageable))
             .map(invoiceMapper::toDto);
     }
 
@@ -54,7 +56,9 @@ public class ClientInvoiceService {
         
         log.debug("Request to get invoices for booking {} and user : {}", bookingId, userLogin);
 
-        return invoiceRepository.findByBooking_IdAndBooking_Customer_User_Login(bookingId, userLogin, pageable)
+        return customerIdResolver.findCustomerId(userLogin)
+            .map(customerId -> invoiceRepository.findByBooking_IdAndBooking_Customer_Id(bookingId, customerId, pageable))
+            .orElseGet(() -> Page.empty(pageable))
             .map(invoiceMapper::toDto);
     }
 
@@ -65,58 +69,55 @@ public class ClientInvoiceService {
 
         log.debug("Request to get invoice {} for user : {}", id, userLogin);
 
+        Long customerId = customerIdResolver.findCustomerId(userLogin).orElse(null);
         return invoiceRepository.findOneWithToOneRelationships(id)
             .filter(invoice -> invoice.getBooking() != null && 
                              invoice.getBooking().getCustomer() != null && 
-                             invoice.getBooking().getCustomer().getUser() != null &&
-                             invoice.getBooking().getCustomer().getUser().getLogin().equals(userLogin))
+                             invoice.getBooking().getCustomer().getId().equals(customerId))
             .map(invoiceMapper::toDto);
     }
 
+    /**
+     * Factura de una reserva con una línea por habitación, guardada de una vez por cascada (un insert de la factura y
+     * un lote con las líneas).
+     */
     @Transactional
     public void createInvoiceSnapshot(Booking booking) {
         if (booking.getInvoices() != null && !booking.getInvoices().isEmpty()) {
             return;
         }
 
+        java.time.Instant now = java.time.Instant.now();
         Invoice invoice = new Invoice();
         invoice.setCode("INV-" + booking.getCode());
-        invoice.setIssuedDate(java.time.Instant.now());
+        invoice.setIssuedDate(now);
         invoice.setStatus(org.hotel.domain.enumeration.InvoiceStatus.ISSUED);
         invoice.setCurrency("USD");
         invoice.setBooking(booking);
-        
-        // Guardar Invoice primero para tener ID (si fuera necesario, pero con Cascade ALL en items se guarda todo junto)
-        // Pero items necesitan referencia a invoice.
-        invoice = invoiceRepository.save(invoice);
 
         java.math.BigDecimal totalAmount = java.math.BigDecimal.ZERO;
-        java.util.Set<InvoiceItem> invoiceItems = new java.util.HashSet<>();
 
         if (booking.getBookingItems() != null) {
             for (BookingItem item : booking.getBookingItems()) {
                 if (item.getPrice() != null) {
                     // Crear Snapshot Item
                     InvoiceItem invoiceItem = new InvoiceItem();
-                    invoiceItem.setInvoice(invoice);
-                    
+
                     String description = "Room Charge: " + item.getRoomType().getName();
                     invoiceItem.setDescription(description);
                     invoiceItem.setAmount(item.getPrice());
-                    invoiceItem.setDate(java.time.Instant.now());
-                    
-                    invoiceItemRepository.save(invoiceItem);
-                    
-                    invoiceItems.add(invoiceItem);
+                    invoiceItem.setDate(now);
+
+                    invoice.addItems(invoiceItem);
                     totalAmount = totalAmount.add(invoiceItem.getAmount());
                 }
             }
         }
-        
+
         invoice.setTotalAmount(totalAmount);
-        invoice.setTaxAmount(totalAmount.multiply(new java.math.BigDecimal("0.15"))); 
-        
-        // Guardar cambios finales
+        invoice.setTaxAmount(totalAmount.multiply(new java.math.BigDecimal("0.15")));
+
+        // La cascada de items guarda las líneas con la factura
         invoiceRepository.save(invoice);
     }
 }
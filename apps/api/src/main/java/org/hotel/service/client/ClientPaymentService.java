@@ -1,8 +1,9 @@
 package org.hotel.service.client;
 
-import com.paypal.sdk.PaypalServerSdkClient;
 import com.paypal.sdk.exceptions.ApiException;
 import com.paypal.sdk.models.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.hotel.domain.Booking;
 import org.hotel.domain.Invoice;
 import org.hotel.domain.Payment;
@@ -10,8 +11,12 @@ import org.hotel.domain.enumeration.BookingStatus;
 import org.hotel.domain.enumeration.InvoiceStatus;
 import org.hotel.domain.enumeration.PaymentMethod;
 import org.hotel.repository.InvoiceRepository;
+import org.hotel.repository.PaymentCapture;
 import org.hotel.repository.PaymentRepository;
 import org.hotel.security.SecurityUtils;
+import org.hotel.service.CustomerIdResolver;
+import org.hotel.service.MailOutboxService;
+import org.hotel.service.PaymentGateway;
 import org.hotel.service.dto.client.request.payment.PaymentCaptureRequest;
 import org.hotel.service.dto.client.request.payment.PaymentInitRequest;
 import org.hotel.service.dto.client.response.payment.PaymentResponse;
@@ -20,34 +25,66 @@ import org.hotel.web.rest.errors.BusinessRuleException;
 import org.hotel.web.rest.errors.ResourceNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.io.IOException;
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.Collections;
+import java.util.Optional;
+import java.util.function.Supplier;
 
+/**
+ * Pagos del cliente con PayPal.
+ * <p>
+ * Ninguna llamada a PayPal se hace con una transacción abierta: cada operación lee y valida la factura en una
+ * transacción corta, llama a PayPal ({@link PaymentGateway}) sin conexión a la base de datos y, en la captura, registra
+ * el pago en otra transacción corta. El tiempo de cada transacción se mide en {@code payment.transaction} (fase
+ * {@code read}/{@code write}). Si PayPal no está disponible la petición termina en 503 sin tocar la factura.
+ * <p>
+ * La captura es idempotente por id de orden de PayPal. La tabla de pagos hace de registro de idempotencia: la referencia
+ * del {@link Payment} es el id de orden, con índice único. Un reintento de una orden ya capturada se responde con una
+ * sola consulta por ese índice ({@link PaymentRepository#findCaptureByReferenceId}), sin leer la factura ni llamar a
+ * PayPal. Dos capturas simultáneas de la misma orden llegan ambas a PayPal, que solo cobra una vez porque la petición
+ * lleva el id de orden como {@code PayPal-Request-Id}; el índice único impide el segundo {@link Payment} y esa petición
+ * devuelve el pago de la otra.
+ */
 @Service
-@Transactional
 public class ClientPaymentService {
 
     private final Logger log = LoggerFactory.getLogger(ClientPaymentService.class);
 
+    public static final String TRANSACTION_METRIC = "payment.transaction";
+
     private final PaymentRepository paymentRepository;
     private final InvoiceRepository invoiceRepository;
-    private final PaypalServerSdkClient paypalClient;
-    private final org.hotel.service.MailService mailService;
+    private final PaymentGateway paymentGateway;
+    private final MailOutboxService mailOutboxService;
+    private final CustomerIdResolver customerIdResolver;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final MeterRegistry meterRegistry;
 
     public ClientPaymentService(
         PaymentRepository paymentRepository,
         InvoiceRepository invoiceRepository,
-        PaypalServerSdkClient paypalClient,
-        org.hotel.service.MailService mailService
+        PaymentGateway paymentGateway,
+        MailOutboxService mailOutboxService,
+        CustomerIdResolver customerIdResolver,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry
     ) {
         this.paymentRepository = paymentRepository;
         this.invoiceRepository = invoiceRepository;
-        this.paypalClient = paypalClient;
-        this.mailService = mailService;
+        this.paymentGateway = paymentGateway;
+        this.mailOutboxService = mailOutboxService;
+        this.customerIdResolver = customerIdResolver;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
     }
 
     /**
@@ -56,17 +93,15 @@ public class ClientPaymentService {
     public PaymentResponse initPayment(PaymentInitRequest request) {
         log.debug("Iniciando pago para la factura ID: {}", request.getInvoiceId());
 
-        String userLogin = SecurityUtils.getCurrentUserLogin()
-            .orElseThrow(() -> new BusinessRuleException("Usuario no autenticado"));
-
-        Invoice invoice = invoiceRepository.findById(request.getInvoiceId())
-            .orElseThrow(() -> new ResourceNotFoundException("Invoice", request.getInvoiceId()));
-
-        validateInvoiceOwnership(invoice, userLogin);
+        String userLogin = currentUserLogin();
 
-        if (InvoiceStatus.PAID.equals(invoice.getStatus())) {
-            throw new BusinessRuleException("La factura ya ha sido pagada.");
-        }
+        PayableInvoice invoice = inTransaction("init", "read", readOnlyTransactionTemplate, () -> {
+            Invoice entity = findOwnedInvoice(request.getInvoiceId(), userLogin);
+            if (InvoiceStatus.PAID.equals(entity.getStatus())) {
+                throw new BusinessRuleException("La factura ya ha sido pagada.");
+            }
+            return PayableInvoice.of(entity);
+        });
 
         try {
             OrderRequest orderRequest = new OrderRequest.Builder(
@@ -74,35 +109,32 @@ public class ClientPaymentService {
                 Collections.singletonList(
                     new PurchaseUnitRequest.Builder(
                         new AmountWithBreakdown.Builder(
-                            invoice.getCurrency(),
-                            invoice.getTotalAmount().toString()
+                            invoice.currency(),
+                            invoice.totalAmount().toString()
                         ).build()
                     )
-                    .referenceId(invoice.getCode())
-                    .description("Pago de factura " + invoice.getCode())
+                    .referenceId(invoice.code())
+                    .description("Pago de factura " + invoice.code())
                     .build()
                 )
             ).build();
 
             CreateOrderInput createOrderInput = new CreateOrderInput.Builder("application/json", orderRequest).build();
-            Order order = paypalClient.getOrdersController().createOrder(createOrderInput).getResult();
+            Order order = paymentGateway.createOrder(createOrderInput);
 
             return new PaymentResponse(
                 (Long) null,            // id
                 (Instant) null,         // date
-                invoice.getTotalAmount(), // amount
+                invoice.totalAmount(),  // amount
                 "PAYPAL",               // method
                 (String) null,          // referenceId
-                invoice.getId(),        // invoiceId
+                invoice.id(),           // invoiceId
                 order.getId()           // paypalOrderId
             );
 
         } catch (ApiException e) {
             log.error("Error al crear orden en PayPal. Status: {}, Response: {}", e.getResponseCode(), e.getHttpContext().getResponse().getRawBody());
             throw new BadRequestAlertException("No se pudo iniciar el pago con PayPal: " + e.getMessage(), "payment", "paypalinitfailed");
-        } catch (IOException e) {
-            log.error("Error de IO al crear orden en PayPal", e);
-            throw new BadRequestAlertException("Error de conexión con PayPal", "payment", "paypalinitfailed");
         }
     }
 
@@ -112,99 +144,190 @@ public class ClientPaymentService {
     public PaymentResponse capturePayment(PaymentCaptureRequest request) {
         log.debug("Capturando pago PayPal: {} para factura ID: {}", request.getPaypalOrderId(), request.getInvoiceId());
 
-        String userLogin = SecurityUtils.getCurrentUserLogin()
-            .orElseThrow(() -> new BusinessRuleException("Usuario no autenticado"));
+        String userLogin = currentUserLogin();
+        String paypalOrderId = request.getPaypalOrderId();
 
-        Invoice invoice = invoiceRepository.findById(request.getInvoiceId())
-            .orElseThrow(() -> new ResourceNotFoundException("Invoice", request.getInvoiceId()));
+        // 1. Lectura: captura ya registrada (una consulta por el índice único) o, si no la hay, propiedad de la factura
+        Optional<PaymentResponse> alreadyCaptured = inTransaction("capture", "read", readOnlyTransactionTemplate, () -> {
+            Optional<PaymentResponse> capture = findCapture(paypalOrderId, request.getInvoiceId(), userLogin);
+            if (capture.isEmpty()) {
+                findOwnedInvoice(request.getInvoiceId(), userLogin);
+            }
+            return capture;
+        });
+        if (alreadyCaptured.isPresent()) {
+            log.info("La orden {} ya estaba capturada, se devuelve el pago registrado", paypalOrderId);
+            return alreadyCaptured.get();
+        }
 
-        validateInvoiceOwnership(invoice, userLogin);
+        // 2. PayPal, sin conexión a la base de datos
+        Order order;
+        try {
+            CaptureOrderInput captureOrderInput = new CaptureOrderInput.Builder(paypalOrderId, "application/json")
+                .paypalRequestId(paypalOrderId)
+                .build();
+            order = paymentGateway.captureOrder(captureOrderInput);
+        } catch (ApiException e) {
+            log.error("Error al capturar pago en PayPal. Status: {}, Response: {}", e.getResponseCode(), e.getHttpContext().getResponse().getRawBody());
+            throw new BadRequestAlertException("Error al procesar el pago con PayPal: " + e.getMessage(), "payment", "paypalcapturefailed");
+        }
+
+        if (!"COMPLETED".equals(String.valueOf(order.getStatus()))) {
+            log.warn("El pago no se completó. Estado: {}", order.getStatus());
+            throw new BusinessRuleException("El pago no fue completado por PayPal.");
+        }
 
+        // 3. Escritura: pago, factura y reserva
         try {
-            CaptureOrderInput captureOrderInput = new CaptureOrderInput.Builder(request.getPaypalOrderId(), "application/json").build();
-            Order order = paypalClient.getOrdersController()
-                .captureOrder(captureOrderInput)
-                .getResult();
-
-            if ("COMPLETED".equals(String.valueOf(order.getStatus()))) {
-                // Security Validation: Verify captured amount matches Invoice Total
-                // Fallback check: Compare Order PurchaseUnit Amount if available
-                if (order.getPurchaseUnits() != null && !order.getPurchaseUnits().isEmpty()) {
-                     var purchaseUnit = order.getPurchaseUnits().get(0);
-                     if (purchaseUnit.getAmount() != null && purchaseUnit.getAmount().getValue() != null) {
-                         String orderAmountStr = purchaseUnit.getAmount().getValue();
-                         java.math.BigDecimal orderAmount = new java.math.BigDecimal(orderAmountStr);
-                         
-                         if (orderAmount.compareTo(invoice.getTotalAmount()) != 0) {
-                             log.error("Payment Amount Mismatch Audit: Order {} Amount {} != Invoice {} Amount {}", 
-                                 order.getId(), orderAmount, invoice.getId(), invoice.getTotalAmount());
-                             throw new BusinessRuleException("Error de Seguridad: El monto cobrado por PayPal no coincide con el total de la factura.");
-                         }
-                     } else {
-                         log.warn("PayPal response did not include amount in PurchaseUnit for order: {}", order.getId());
-                     }
+            return inTransaction("capture", "write", transactionTemplate, () -> {
+                // Una petición concurrente con la misma orden pudo registrar el pago mientras se llamaba a PayPal
+                Optional<PaymentResponse> concurrentCapture = findCapture(paypalOrderId, request.getInvoiceId(), userLogin);
+                if (concurrentCapture.isPresent()) {
+                    return concurrentCapture.get();
                 }
+                Invoice invoice = invoiceRepository.findById(request.getInvoiceId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Invoice", request.getInvoiceId()));
+                return recordCapture(invoice, order);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // La otra petición insertó el pago entre la comprobación y el insert: el índice único deshace este
+            log.info("La orden {} se registró en otra petición a la vez, se devuelve ese pago", paypalOrderId);
+            return inTransaction("capture", "read", readOnlyTransactionTemplate, () ->
+                findCapture(paypalOrderId, request.getInvoiceId(), userLogin)
+            ).orElseThrow(() -> e);
+        }
+    }
 
-                Payment payment = new Payment();
-                payment.setDate(Instant.now());
-                payment.setAmount(invoice.getTotalAmount());
-                payment.setMethod(PaymentMethod.PAYPAL);
-                payment.setReferenceId(order.getId());
-                payment.setInvoice(invoice);
-
-                payment = paymentRepository.save(payment);
-
-                invoice.setStatus(InvoiceStatus.PAID);
-                
-                // Confirm the booking upon payment
-                if (invoice.getBooking() != null) {
-                    Booking booking = invoice.getBooking();
-                    if (!BookingStatus.CANCELLED.equals(booking.getStatus())) {
-                        booking.setStatus(BookingStatus.CONFIRMED);
-                    }
-                }
-                
-                invoiceRepository.save(invoice);
-
-                // Enviar Correo de Pago Exitoso (Async) 
-                if (invoice.getBooking() != null && invoice.getBooking().getCustomer() != null) {
-                    try {
-                        mailService.sendPaymentSuccessEmail(invoice.getBooking().getCustomer(), invoice);
-                    } catch (Exception e) {
-                        log.warn("Fallo el envio de correo de pago exitoso para factura: {}", invoice.getCode(), e);
-                    }
-                }
+    private PaymentResponse recordCapture(Invoice invoice, Order order) {
+        // Security Validation: Verify captured amount matches Invoice Total
+        // Fallback check: Compare Order PurchaseUnit Amount if available
+        if (order.getPurchaseUnits() != null && !order.getPurchaseUnits().isEmpty()) {
+             var purchaseUnit = order.getPurchaseUnits().get(0);
+             if (purchaseUnit.getAmount() != null && purchaseUnit.getAmount().getValue() != null) {
+                 BigDecimal orderAmount = new BigDecimal(purchaseUnit.getAmount().getValue());
 
-                return new PaymentResponse(
-                    payment.getId(),
-                    payment.getDate(),
-                    payment.getAmount(),
-                    payment.getMethod() != null ? payment.getMethod().name() : "PAYPAL",
-                    payment.getReferenceId(),
-                    invoice.getId(),
-                    order.getId()
-                );
-            } else {
-                log.warn("El pago no se completó. Estado: {}", order.getStatus());
-                throw new BusinessRuleException("El pago no fue completado por PayPal.");
+                 if (orderAmount.compareTo(invoice.getTotalAmount()) != 0) {
+                     log.error("Payment Amount Mismatch Audit: Order {} Amount {} != Invoice {} Amount {}",
+                         order.getId(), orderAmount, invoice.getId(), invoice.getTotalAmount());
+                     throw new BusinessRuleException("Error de Seguridad: El monto cobrado por PayPal no coincide con el total de la factura.");
+                 }
+             } else {
+                 log.warn("PayPal response did not include amount in PurchaseUnit for order: {}", order.getId());
+             }
+        }
+
+        Payment payment = new Payment();
+        payment.setDate(Instant.now());
+        payment.setAmount(invoice.getTotalAmount());
+        payment.setMethod(PaymentMethod.PAYPAL);
+        payment.setReferenceId(order.getId());
+        payment.setInvoice(invoice);
+
+        payment = paymentRepository.saveAndFlush(payment);
+
+        invoice.setStatus(InvoiceStatus.PAID);
+
+        // Confirm the booking upon payment
+        if (invoice.getBooking() != null) {
+            Booking booking = invoice.getBooking();
+            if (!BookingStatus.CANCELLED.equals(booking.getStatus())) {
+                booking.setStatus(BookingStatus.CONFIRMED);
             }
+        }
 
-        } catch (ApiException e) {
-            log.error("Error al capturar pago en PayPal. Status: {}, Response: {}", e.getResponseCode(), e.getHttpContext().getResponse().getRawBody());
-            throw new BadRequestAlertException("Error al procesar el pago con PayPal: " + e.getMessage(), "payment", "paypalcapturefailed");
-        } catch (IOException e) {
-            log.error("Error de IO al capturar pago en PayPal", e);
-            throw new BadRequestAlertException("Error de conexión con PayPal", "payment", "paypalcapturefailed");
+        invoiceRepository.save(invoice);
+
+        // Correo de pago exitoso: se encola en esta transacción y se envía tras el commit
+        mailOutboxService.enqueuePaymentSuccess(invoice);
+
+        return toResponse(payment);
+    }
+
+    /**
+     * Captura ya registrada de la orden, si es de esta factura y del cliente que la pide.
+     */
+    private Optional<PaymentResponse> findCapture(String paypalOrderId, Long invoiceId, String userLogin) {
+        return paymentRepository.findCaptureByReferenceId(paypalOrderId).map(capture -> {
+            Long customerId = customerIdResolver.findCustomerId(userLogin).orElse(null);
+            if (customerId == null || !customerId.equals(capture.customerId())) {
+                throw new BusinessRuleException("No tiene permisos para acceder a esta factura.");
+            }
+            if (!capture.invoiceId().equals(invoiceId)) {
+                throw new BusinessRuleException("La orden de PayPal ya se usó para pagar otra factura.");
+            }
+            return toResponse(capture);
+        });
+    }
+
+    private static PaymentResponse toResponse(PaymentCapture capture) {
+        return new PaymentResponse(
+            capture.id(),
+            capture.date(),
+            capture.amount(),
+            capture.method() != null ? capture.method().name() : "PAYPAL",
+            capture.referenceId(),
+            capture.invoiceId(),
+            capture.referenceId()
+        );
+    }
+
+    private static PaymentResponse toResponse(Payment payment) {
+        return new PaymentResponse(
+            payment.getId(),
+            payment.getDate(),
+            payment.getAmount(),
+            payment.getMethod() != null ? payment.getMethod().name() : "PAYPAL",
+            payment.getReferenceId(),
+            payment.getInvoice().getId(),
+            payment.getReferenceId()
+        );
+    }
+
+    private Invoice findOwnedInvoice(Long invoiceId, String userLogin) {
+        Invoice invoice = invoiceRepository.findById(invoiceId)
+            .orElseThrow(() -> new ResourceNotFoundException("Invoice", invoiceId));
+        validateInvoiceOwnership(invoice, userLogin);
+        return invoice;
+    }
+
+    private static String currentUserLogin() {
+        return SecurityUtils.getCurrentUserLogin()
+            .orElseThrow(() -> new BusinessRuleException("Usuario no autenticado"));
+    }
+
+    /**
+     * Ejecuta una fase en su propia transacción y mide cuánto tiempo tiene la conexión.
+     */
+    private <T> T inTransaction(String operation, String phase, TransactionTemplate template, Supplier<T> work) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return template.execute(status -> work.get());
+        } finally {
+            sample.stop(Timer.builder(TRANSACTION_METRIC)
+                .description("Tiempo con una conexión a la base de datos durante un pago")
+                .tag("operation", operation)
+                .tag("phase", phase)
+                .register(meterRegistry));
         }
     }
 
     private void validateInvoiceOwnership(Invoice invoice, String userLogin) {
-        if (invoice.getBooking() == null || 
-            invoice.getBooking().getCustomer() == null || 
-            invoice.getBooking().getCustomer().getUser() == null || 
-            !invoice.getBooking().getCustomer().getUser().getLogin().equals(userLogin)) {
-            
+        Long customerId = customerIdResolver.findCustomerId(userLogin).orElse(null);
+        if (invoice.getBooking() == null ||
+            invoice.getBooking().getCustomer() == null ||
+            customerId == null ||
+            !customerId.equals(invoice.getBooking().getCustomer().getId())) {
+
             throw new BusinessRuleException("No tiene permisos para acceder a esta factura.");
         }
     }
+
+    /**
+     * Datos de la factura que necesita la orden de PayPal, leídos antes de cerrar la transacción.
+     */
+    private record PayableInvoice(Long id, String code, String currency, BigDecimal totalAmount) {
+        static PayableInvoice of(Invoice invoice) {
+            return new PayableInvoice(invoice.getId(), invoice.getCode(), invoice.getCurrency(), invoice.getTotalAmount());
+        }
+    }
 }
@@ -8,6 +8,7 @@ import org.hotel.repository.BookingRepository;
 import org.hotel.repository.HotelServiceRepository;
 import org.hotel.repository.ServiceRequestRepository;
 import org.hotel.security.SecurityUtils;
+import org.hotel.service.CustomerIdResolver;
 import org.hotel.service.dto.client.request.servicerequest.ServiceRequestCreateRequest;
 import org.hotel.service.dto.client.response.servicerequest.ServiceRequestResponse;
 import org.hotel.service.mapper.client.ClientServiceRequestMapper; // <--- OJO: El mapper de cliente
@@ -36,17 +37,20 @@ public class ClientServiceRequestService {
     // Repositorios para validar y relacionar
     private final BookingRepository bookingRepository;
     private final HotelServiceRepository hotelServiceRepository;
+    private final CustomerIdResolver customerIdResolver;
 
     public ClientServiceRequestService(
         ServiceRequestRepository serviceRequestRepository,
         ClientServiceRequestMapper clientServiceRequestMapper,
         BookingRepository bookingRepository,
-        HotelServiceRepository hotelServiceRepository
+        HotelServiceRepository hotelServiceRepository,
+        CustomerIdResolver customerIdResolver
     ) {
         this.serviceRequestRepository = serviceRequestRepository;
         this.clientServiceRequestMapper = clientServiceRequestMapper;
         this.bookingRepository = bookingRepository;
         this.hotelServiceRepository = hotelServiceRepository;
+        this.customerIdResolver = customerIdResolver;
     }
 
     /**
@@ -59,7 +63,8 @@ public class ClientServiceRequestService {
 
         // VALIDACIÓN DE SEGURIDAD
         // Buscamos la reserva PERO solo si pertenece a este usuario.
-        Booking booking = bookingRepository.findByIdAndCustomer_User_Login(request.getBookingId(), userLogin)
+        Booking booking = customerIdResolver.findCustomerId(userLogin)
+            .flatMap(customerId -> bookingRepository.findByIdAndCustomer_Id(request.getBookingId(), customerId))
             .orElseThrow(() -> new AccessDeniedException("No tienes permiso para solicitar servicios en esta reserva o no existe."));
 
         // Buscar el servicio solicitado
@@ -120,7 +125,9 @@ public class ClientServiceRequestService {
             .orElseThrow(() -> new RuntimeException("Usuario no autenticado"));
 
         // Metodo para filtar por login
-        return serviceRequestRepository.findByBooking_Customer_User_Login(userLogin, pageable)
+        return customerIdResolver.findCustomerId(userLogin)
+            .map(customerId -> serviceRequestRepository.findByBooking_Customer_Id(customerId, pageable))
+            .orElseGet(() -> Page.empty(pageable))
             .map(clientServiceRequestMapper::toClientResponse);
     }
 }
@@ -0,0 +1,63 @@
+package org.hotel.service.dto;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import org.hotel.domain.Authority;
+import org.hotel.domain.Booking;
+import org.hotel.domain.Customer;
+import org.hotel.domain.Invoice;
+import org.hotel.domain.User;
+import org.hotel.domain.enumeration.BookingStatus;
+import org.hotel.domain.enumeration.CustomerEmailType;
+import org.hotel.security.AuthoritiesConstants;
+
+/**
+ * Datos de un correo al cliente copiados al encolarlo: la plantilla se genera solo con esto, sin entidades ni consultas.
+ * Se guarda como JSON en {@code mail_outbox.payload}.
+ */
+public record CustomerEmailSnapshot(CustomerEmailType type, Recipient user, BookingDetails booking, InvoiceDetails invoice)
+    implements Serializable {
+    /**
+     * Destinatario; {@code admin} decide a qué panel enlaza el correo.
+     */
+    public record Recipient(String firstName, String lastName, String email, String langKey, boolean admin) implements Serializable {
+        public static Recipient of(Customer customer) {
+            User user = customer.getUser();
+            return new Recipient(
+                customer.getFirstName(),
+                customer.getLastName(),
+                customer.getEmail(),
+                user != null ? user.getLangKey() : null,
+                user != null && user.getAuthorities().stream().map(Authority::getName).anyMatch(AuthoritiesConstants.ADMIN::equals)
+            );
+        }
+    }
+
+    public record BookingDetails(
+        String code,
+        LocalDate checkInDate,
+        LocalDate checkOutDate,
+        Integer guestCount,
+        BookingStatus status,
+        BigDecimal totalPrice
+    )
+        implements Serializable {
+        public static BookingDetails of(Booking booking) {
+            return new BookingDetails(
+                booking.getCode(),
+                booking.getCheckInDate(),
+                booking.getCheckOutDate(),
+                booking.getGuestCount(),
+                booking.getStatus(),
+                booking.getTotalPrice()
+            );
+        }
+    }
+
+    public record InvoiceDetails(String code, BigDecimal totalAmount) implements Serializable {
+        public static InvoiceDetails of(Invoice invoice) {
+            return new InvoiceDetails(invoice.getCode(), invoice.getTotalAmount());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.hotel.service.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Una sección del bundle de contenido público: visibilidad de la colección y su contenido activo ordenado.
+ */
+public class PublicContentSectionDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private boolean active;
+
+    private List<WebContentDTO> items;
+
+    public PublicContentSectionDTO() {}
+
+    public PublicContentSectionDTO(boolean active, List<WebContentDTO> items) {
+        this.active = active;
+        this.items = items;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+    public List<WebContentDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<WebContentDTO> items) {
+        this.items = items;
+    }
+
+    @Override
+    public String toString() {
+        return "PublicContentSectionDTO{" + "active=" + active + ", items=" + items + "}";
+    }
+}
@@ -0,0 +1,57 @@
+package org.hotel.service.dto.client.response.booking;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Estancias disponibles de un tipo de habitación en una búsqueda con fechas flexibles.
+ */
+public class FlexibleAvailabilityDTO implements Serializable {
+    private Long id;
+    private String name;
+    private BigDecimal basePrice;
+    private Integer maxCapacity;
+    private List<StayWindowDTO> windows = new ArrayList<>();
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public BigDecimal getBasePrice() {
+        return basePrice;
+    }
+
+    public void setBasePrice(BigDecimal basePrice) {
+        this.basePrice = basePrice;
+    }
+
+    public Integer getMaxCapacity() {
+        return maxCapacity;
+    }
+
+    public void setMaxCapacity(Integer maxCapacity) {
+        this.maxCapacity = maxCapacity;
+    }
+
+    public List<StayWindowDTO> getWindows() {
+        return windows;
+    }
+
+    public void setWindows(List<StayWindowDTO> windows) {
+        this.windows = windows;
+    }
+}
@@ -0,0 +1,58 @@
+package org.hotel.service.dto.client.response.booking;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Disponibilidad de un tipo de habitación noche a noche (clave: fecha de la noche, valor: habitaciones libres).
+ */
+public class RoomTypeCalendarDTO implements Serializable {
+    private Long id;
+    private String name;
+    private BigDecimal basePrice;
+    private Integer maxCapacity;
+    private Map<LocalDate, Integer> availableByNight = new LinkedHashMap<>();
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public BigDecimal getBasePrice() {
+        return basePrice;
+    }
+
+    public void setBasePrice(BigDecimal basePrice) {
+        this.basePrice = basePrice;
+    }
+
+    public Integer getMaxCapacity() {
+        return maxCapacity;
+    }
+
+    public void setMaxCapacity(Integer maxCapacity) {
+        this.maxCapacity = maxCapacity;
+    }
+
+    public Map<LocalDate, Integer> getAvailableByNight() {
+        return availableByNight;
+    }
+
+    public void setAvailableByNight(Map<LocalDate, Integer> availableByNight) {
+        this.availableByNight = availableByNight;
+    }
+}
@@ -1,33 +1,73 @@
 package org.hotel.web.rest;
 
-import org.hotel.domain.WebContent;
-import org.hotel.repository.WebContentRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hotel.service.ContentEtag;
+import org.hotel.service.PublicContentBundleService;
+import org.hotel.service.WebContentService;
 import org.hotel.service.dto.WebContentDTO;
-import org.hotel.service.mapper.WebContentMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Duration;
 import java.util.List;
-import java.util.Optional;
 
+/**
+ * Contenido público del CMS para la landing.
+ * <p>
+ * Las respuestas llevan un ETag fuerte calculado sobre el JSON servido ({@link ContentEtag}): una petición con
+ * {@code If-None-Match} vigente recibe 304 sin cuerpo. El contenido se lee igualmente (de las cachés), así que el
+ * ETag nunca sobrevive al contenido, aunque otra instancia lo haya modificado.
+ */
 @RestController
 @RequestMapping("/api/public/content")
 public class PublicContentResource {
 
+    /**
+     * Los navegadores y CDN pueden reutilizar la respuesta un minuto; después revalidan con el ETag.
+     */
+    static final CacheControl PUBLIC_CONTENT_CACHE_CONTROL = CacheControl.maxAge(Duration.ofSeconds(60)).cachePublic();
+
     private final Logger log = LoggerFactory.getLogger(PublicContentResource.class);
-    private final WebContentRepository webContentRepository;
-    private final WebContentMapper webContentMapper;
+    private final WebContentService webContentService;
     private final org.hotel.repository.AssetCollectionRepository assetCollectionRepository;
+    private final PublicContentBundleService publicContentBundleService;
+    private final ObjectMapper objectMapper;
 
     public PublicContentResource(
-            WebContentRepository webContentRepository,
-            WebContentMapper webContentMapper,
-            org.hotel.repository.AssetCollectionRepository assetCollectionRepository) {
-        this.webContentRepository = webContentRepository;
-        this.webContentMapper = webContentMapper;
+            WebContentService webContentService,
+            org.hotel.repository.AssetCollectionRepository assetCollectionRepository,
+            PublicContentBundleService publicContentBundleService,
+            ObjectMapper objectMapper) {
+        this.webContentService = webContentService;
         this.assetCollectionRepository = assetCollectionRepository;
+        this.publicContentBundleService = publicContentBundleService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * GET /bundle : Todas las secciones de una página en una sola petición.
+     * Ej: GET /api/public/content/bundle?codes=HOME_HERO,HOME_GALLERY (sin codes: la portada configurada)
+     * Retorna: { "HOME_GALLERY": { active: true, items: [ ... ] }, "HOME_HERO": { ... } }
+     */
+    @GetMapping(value = "/bundle", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getBundle(@RequestParam(required = false) List<String> codes, WebRequest request) {
+        log.debug("REST request publico para bundle de contenido: {}", codes);
+        PublicContentBundleService.Bundle bundle = publicContentBundleService.getBundle(publicContentBundleService.normalizeCodes(codes));
+        if (request.checkNotModified(bundle.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(bundle.etag()).cacheControl(PUBLIC_CONTENT_CACHE_CONTROL).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(bundle.etag())
+                .cacheControl(PUBLIC_CONTENT_CACHE_CONTROL)
+                .body(bundle.json());
     }
 
     /**
@@ -36,11 +76,9 @@ public class PublicContentResource {
      * Retorna: [ {img1}, {img2}, {img3} ]
      */
     @GetMapping("/{code}")
-    public ResponseEntity<List<WebContentDTO>> getContentList(@PathVariable String code) {
+    public ResponseEntity<List<WebContentDTO>> getContentList(@PathVariable String code, WebRequest request) {
         log.debug("REST request publico para lista de contenido: {}", code);
-        List<WebContent> content = webContentRepository
-                .findAllByCollectionCodeAndIsActiveTrueAndCollectionIsActiveTrueOrderBySortOrderAsc(code);
-        return ResponseEntity.ok(webContentMapper.toDto(content));
+        return conditional(request, ResponseEntity.ok(webContentService.findActiveByCollectionCode(code)));
     }
 
     /**
@@ -49,25 +87,46 @@ public class PublicContentResource {
      * Retorna: { titulo: "Bienvenido", url: "..." } (Objeto directo, sin array)
      */
     @GetMapping("/{code}/single")
-    public ResponseEntity<WebContentDTO> getSingleContent(@PathVariable String code) {
+    public ResponseEntity<WebContentDTO> getSingleContent(@PathVariable String code, WebRequest request) {
         log.debug("REST request publico para contenido unico: {}", code);
-        Optional<WebContent> content = webContentRepository
-                .findFirstByCollectionCodeAndIsActiveTrueAndCollectionIsActiveTrueOrderBySortOrderAsc(code);
-        return content.map(webContentMapper::toDto)
+        return conditional(request, webContentService.findFirstActiveByCollectionCode(code)
                 .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+                .orElse(ResponseEntity.notFound().build()));
     }
 
     /**
      * GET /status/{code} : Verifica si una sección está ACTIVA en el CMS.
      */
     @GetMapping("/status/{code}")
-    public ResponseEntity<Boolean> getCollectionStatus(@PathVariable String code) {
+    public ResponseEntity<Boolean> getCollectionStatus(@PathVariable String code, WebRequest request) {
         log.debug("REST request para verificar estado de coleccion: {}", code);
-        return assetCollectionRepository
+        return conditional(request, assetCollectionRepository
                 .findByCode(code)
                 .map(c -> c.getIsActive() != Boolean.FALSE)
                 .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.ok(true)); // Si no existe, asumimos visible por defecto
+                .orElse(ResponseEntity.ok(true))); // Si no existe, asumimos visible por defecto
+    }
+
+    /**
+     * Añade a una respuesta correcta el ETag de su JSON y Cache-Control, o responde 304 si el ETag coincide con
+     * {@code If-None-Match}.
+     */
+    private <T> ResponseEntity<T> conditional(WebRequest request, ResponseEntity<T> response) {
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            return response;
+        }
+        String etag;
+        try {
+            etag = ContentEtag.of(objectMapper.writeValueAsBytes(response.getBody()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize public content", e);
+        }
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(PUBLIC_CONTENT_CACHE_CONTROL).build();
+        }
+        return ResponseEntity.status(response.getStatusCode())
+                .eTag(etag)
+                .cacheControl(PUBLIC_CONTENT_CACHE_CONTROL)
+                .body(response.getBody());
     }
 }
@@ -5,12 +5,11 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.*;
 import java.util.Set;
-import org.hotel.domain.Authority;
 import org.hotel.domain.User;
-import org.hotel.repository.AuthorityRepository;
 import org.hotel.repository.UserRepository;
 import org.hotel.security.AuthoritiesConstants;
 import org.hotel.service.KeycloakService;
+import org.hotel.service.UserDirectorySyncService;
 import org.hotel.service.UserService;
 import org.hotel.service.dto.AdminUserDTO;
 import org.hotel.service.dto.CreateUserDTO;
@@ -53,14 +52,14 @@ public class UserResource {
     private final UserService userService;
     private final UserRepository userRepository;
     private final KeycloakService keycloakService;
-    private final AuthorityRepository authorityRepository;
+    private final UserDirectorySyncService userDirectorySyncService;
 
     public UserResource(UserService userService, UserRepository userRepository, KeycloakService keycloakService,
-            AuthorityRepository authorityRepository) {
+            UserDirectorySyncService userDirectorySyncService) {
         this.userService = userService;
         this.userRepository = userRepository;
         this.keycloakService = keycloakService;
-        this.authorityRepository = authorityRepository;
+        this.userDirectorySyncService = userDirectorySyncService;
     }
 
     /**
@@ -86,22 +85,16 @@ public class UserResource {
         // Create user in Keycloak
         String keycloakUserId = keycloakService.createUser(createDTO);
 
-        // Sync user to local database
-        User newUser = new User();
-        newUser.setId(keycloakUserId);
-        newUser.setLogin(createDTO.getLogin().toLowerCase());
-        newUser.setEmail(createDTO.getEmail().toLowerCase());
-        newUser.setFirstName(createDTO.getFirstName());
-        newUser.setLastName(createDTO.getLastName());
-        newUser.setActivated(true);
-        newUser.setLangKey("es"); // Default language
-
-        // Assign ROLE_EMPLOYEE authority
-        Set<Authority> authorities = new HashSet<>();
-        authorityRepository.findById(AuthoritiesConstants.EMPLOYEE).ifPresent(authorities::add);
-        newUser.setAuthorities(authorities);
-
-        userRepository.save(newUser);
+        // Réplica local inmediata (write-through); la sincronización periódica cubre los cambios hechos en Keycloak
+        AdminUserDTO profile = new AdminUserDTO();
+        profile.setLogin(createDTO.getLogin());
+        profile.setEmail(createDTO.getEmail());
+        profile.setFirstName(createDTO.getFirstName());
+        profile.setLastName(createDTO.getLastName());
+        profile.setActivated(true);
+        profile.setLangKey("es"); // Default language
+        profile.setAuthorities(Set.of(AuthoritiesConstants.EMPLOYEE));
+        User newUser = userDirectorySyncService.applyCreated(keycloakUserId, profile);
         LOG.info("User {} saved to local database", createDTO.getLogin());
 
         // Build response DTO
@@ -114,27 +107,18 @@ public class UserResource {
     }
 
     /**
-     * {@code GET /admin/users} : get all users with all the details FROM KEYCLOAK.
+     * {@code GET /admin/users} : get all users with all the details from the local mirror of Keycloak.
      * Permitido para ADMIN y EMPLOYEE para poder mapear nombres y correos.
      */
     @GetMapping
     @PreAuthorize("hasAnyAuthority(\"" + AuthoritiesConstants.ADMIN + "\", \"" + AuthoritiesConstants.EMPLOYEE + "\")")
     public ResponseEntity<List<AdminUserDTO>> getAllUsers(
             @org.springdoc.core.annotations.ParameterObject Pageable pageable) {
-        LOG.debug("REST request to get all Users from Keycloak for an admin/employee");
+        LOG.debug("REST request to get all Users for an admin/employee");
 
-        int page = pageable.getPageNumber();
-        int size = pageable.getPageSize();
-
-        // Fetch users from Keycloak
-        List<AdminUserDTO> users = keycloakService.getAllUsers(page * size, size);
-        int totalCount = keycloakService.countUsers();
-
-        // Build headers with pagination info
-        HttpHeaders headers = new HttpHeaders();
-        headers.add("X-Total-Count", String.valueOf(totalCount));
-
-        return new ResponseEntity<>(users, headers, HttpStatus.OK);
+        Page<AdminUserDTO> page = userService.getAllManagedUsers(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
     /**
@@ -161,12 +145,7 @@ public class UserResource {
         keycloakService.updateUserAdmin(userDTO);
 
         // Also update in local DB if exists
-        userRepository.findById(userDTO.getId()).ifPresent(user -> {
-            user.setFirstName(userDTO.getFirstName());
-            user.setLastName(userDTO.getLastName());
-            user.setEmail(userDTO.getEmail());
-            userRepository.save(user);
-        });
+        userDirectorySyncService.applyAdminUpdate(userDTO);
 
         return ResponseEntity.ok()
                 .headers(HeaderUtil.createAlert(applicationName, "userManagement.updated", userDTO.getLogin()))
@@ -190,7 +169,7 @@ public class UserResource {
         }
 
         // Also delete from local DB if exists
-        userRepository.findOneByLogin(login).ifPresent(userRepository::delete);
+        userDirectorySyncService.applyDeleted(login);
 
         return ResponseEntity.noContent()
                 .headers(HeaderUtil.createAlert(applicationName, "userManagement.deleted", login))
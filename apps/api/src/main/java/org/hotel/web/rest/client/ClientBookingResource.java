@@ -4,9 +4,12 @@ import jakarta.validation.Valid;
 import org.hotel.service.client.ClientBookingService;
 import org.hotel.service.dto.client.request.booking.BookingCreateRequest;
 import org.hotel.service.dto.client.response.booking.BookingResponse;
+import org.hotel.service.dto.client.response.booking.FlexibleAvailabilityDTO;
 import org.hotel.service.dto.client.response.booking.RoomTypeAvailabilityDTO;
+import org.hotel.service.dto.client.response.booking.RoomTypeCalendarDTO;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -14,6 +17,7 @@ import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.PaginationUtil;
 
 import java.net.URI;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
@@ -22,6 +26,11 @@ import java.util.HashMap;
 @RestController
 @RequestMapping("/api/client/bookings")
 public class ClientBookingResource {
+    /**
+     * El calendario tolera unos segundos de retraso; el navegador lo reutiliza al moverse entre meses.
+     */
+    private static final CacheControl CALENDAR_CACHE_CONTROL = CacheControl.maxAge(Duration.ofSeconds(30)).cachePrivate();
+
     private final ClientBookingService clientBookingService;
 
     public ClientBookingResource(ClientBookingService clientBookingService) {
@@ -47,6 +56,22 @@ public class ClientBookingResource {
         return ResponseEntity.ok().body(response);
     }
 
+    @GetMapping("/availability/calendar")
+    public ResponseEntity<List<RoomTypeCalendarDTO>> getAvailabilityCalendar(@RequestParam LocalDate from, @RequestParam LocalDate to) {
+        var response = clientBookingService.getAvailabilityCalendar(from, to);
+        return ResponseEntity.ok().cacheControl(CALENDAR_CACHE_CONTROL).body(response);
+    }
+
+    @GetMapping("/availability/flexible")
+    public ResponseEntity<List<FlexibleAvailabilityDTO>> searchFlexibleAvailability(
+        @RequestParam LocalDate checkIn,
+        @RequestParam int nights,
+        @RequestParam(defaultValue = "3") int flexDays
+    ) {
+        var response = clientBookingService.searchFlexibleAvailability(checkIn, nights, flexDays);
+        return ResponseEntity.ok().cacheControl(CALENDAR_CACHE_CONTROL).body(response);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Map<String, String>> deleteBooking(@PathVariable Long id) {
         String resultMessage = clientBookingService.deleteBooking(id);
@@ -0,0 +1,109 @@
+package org.hotel.security.oauth2;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+@ExtendWith(MockitoExtension.class)
+class CachingJwtDecoderTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-17T10:00:00Z");
+
+    @Mock
+    private JwtDecoder delegate;
+
+    private MutableClock clock;
+
+    private CachingJwtDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(NOW);
+        decoder = new CachingJwtDecoder(delegate, 100, clock, () -> Duration.between(NOW, clock.instant()).toNanos());
+    }
+
+    @Test
+    void decode_ShouldVerifyEachTokenOnlyOnceUntilItExpires() {
+        Jwt jwt = jwt("token-a", NOW.plusSeconds(300));
+        when(delegate.decode("token-a")).thenReturn(jwt);
+
+        assertThat(decoder.decode("token-a")).isSameAs(jwt);
+        clock.advance(Duration.ofSeconds(299));
+        assertThat(decoder.decode("token-a")).isSameAs(jwt);
+        verify(delegate, times(1)).decode("token-a");
+
+        // Pasado el exp vuelve al decoder, que decide si lo acepta (desfase de reloj) o lo rechaza
+        clock.advance(Duration.ofSeconds(2));
+        when(delegate.decode("token-a")).thenThrow(new BadJwtException("Jwt expired"));
+        assertThatThrownBy(() -> decoder.decode("token-a")).isInstanceOf(BadJwtException.class);
+        decoder.getVerifiedTokens().cleanUp();
+        assertThat(decoder.getVerifiedTokens().estimatedSize()).isZero();
+    }
+
+    @Test
+    void decode_ShouldNotRememberRejectedTokens() {
+        when(delegate.decode("forged")).thenThrow(new BadJwtException("Signed JWT rejected"));
+
+        assertThatThrownBy(() -> decoder.decode("forged")).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> decoder.decode("forged")).isInstanceOf(BadJwtException.class);
+
+        verify(delegate, times(2)).decode("forged");
+    }
+
+    @Test
+    void decode_ShouldKeyEntriesByHashNotByToken() {
+        when(delegate.decode("token-b")).thenReturn(jwt("token-b", NOW.plusSeconds(60)));
+
+        decoder.decode("token-b");
+
+        assertThat(decoder.getVerifiedTokens().asMap()).hasSize(1).doesNotContainKey("token-b");
+    }
+
+    private static Jwt jwt(String token, Instant expiresAt) {
+        return Jwt.withTokenValue(token).header("alg", "RS256").subject("u-1").issuedAt(NOW).expiresAt(expiresAt).build();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.hotel.security.oauth2;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.Resource;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URL;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.hotel.config.ApplicationProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+/**
+ * {@link IssuerJwkSource} con un emisor simulado: descubrimiento bajo demanda, reintento espaciado y claves en caché.
+ */
+class IssuerJwkSourceTest {
+
+    private static final String ISSUER = "http://keycloak.test/realms/hotel";
+
+    private static final Instant NOW = Instant.parse("2026-10-17T10:00:00Z");
+
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+
+    private volatile boolean issuerUp = false;
+
+    private RSAKey signingKey;
+
+    private IssuerJwkSource jwkSource;
+
+    @BeforeEach
+    void setUp() throws JOSEException {
+        signingKey = new RSAKeyGenerator(2048).keyID("k1").algorithm(JWSAlgorithm.RS256).generate();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (jwkSource != null) {
+            jwkSource.close();
+        }
+    }
+
+    @Test
+    void decode_ShouldDiscoverTheIssuerOnFirstUseAndSurviveAnOutageAtBoot() throws Exception {
+        jwkSource = newJwkSource(Clock.fixed(NOW, ZoneOffset.UTC));
+        NimbusJwtDecoder decoder = decoder(jwkSource);
+        String token = sign();
+
+        // Crear la fuente no contacta con el emisor, y si está caído al calentar solo se registra
+        assertThat(requests).isEmpty();
+        jwkSource.warmUp();
+        assertThat(requests).containsExactly("/.well-known/openid-configuration");
+
+        // Dentro del intervalo de reintento no se vuelve a llamar al emisor, aunque ya responda
+        issuerUp = true;
+        assertThatThrownBy(() -> decoder.decode(token)).isInstanceOf(JwtException.class);
+        assertThat(requests).hasSize(1);
+
+        // Pasado el intervalo (otro reloj), el primer token dispara el descubrimiento
+        jwkSource = newJwkSource(Clock.fixed(NOW.plusSeconds(31), ZoneOffset.UTC));
+        NimbusJwtDecoder recovered = decoder(jwkSource);
+        requests.clear();
+
+        Jwt first = recovered.decode(token);
+        recovered.decode(sign());
+
+        assertThat(first.getSubject()).isEqualTo("u-1");
+        // Un descubrimiento y una descarga de claves para los dos tokens
+        assertThat(requests).containsExactly("/.well-known/openid-configuration", "/protocol/openid-connect/certs");
+    }
+
+    private IssuerJwkSource newJwkSource(Clock clock) {
+        return new IssuerJwkSource(ISSUER, new ApplicationProperties.Jwt(), this::retrieve, clock);
+    }
+
+    private Resource retrieve(URL url) throws IOException {
+        String path = url.toString().substring(ISSUER.length());
+        requests.add(path);
+        if (!issuerUp) {
+            throw new ConnectException("Connection refused");
+        }
+        if (path.equals("/.well-known/openid-configuration")) {
+            return new Resource("{\"issuer\":\"" + ISSUER + "\",\"jwks_uri\":\"" + ISSUER + "/protocol/openid-connect/certs\"}", "application/json");
+        }
+        return new Resource(new JWKSet(signingKey.toPublicJWK()).toString(), "application/json");
+    }
+
+    private static NimbusJwtDecoder decoder(IssuerJwkSource jwkSource) {
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwkSource));
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {});
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(jwtProcessor);
+        decoder.setJwtValidator(jwt -> OAuth2TokenValidatorResult.success());
+        return decoder;
+    }
+
+    private String sign() throws JOSEException {
+        SignedJWT jwt = new SignedJWT(
+            new JWSHeader.Builder(JWSAlgorithm.RS256).keyID("k1").build(),
+            new JWTClaimsSet.Builder().issuer(ISSUER).subject("u-1").expirationTime(Date.from(Instant.now().plusSeconds(300))).build()
+        );
+        jwt.sign(new RSASSASigner(signingKey));
+        return jwt.serialize();
+    }
+}
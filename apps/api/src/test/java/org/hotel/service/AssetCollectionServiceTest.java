@@ -0,0 +1,72 @@
+package org.hotel.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import org.hotel.domain.AssetCollection;
+import org.hotel.repository.AssetCollectionRepository;
+import org.hotel.service.dto.AssetCollectionDTO;
+import org.hotel.service.mapper.AssetCollectionMapperImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+@ExtendWith(MockitoExtension.class)
+class AssetCollectionServiceTest {
+
+    @Mock
+    private AssetCollectionRepository assetCollectionRepository;
+
+    private CacheManager cacheManager;
+
+    private AssetCollectionService assetCollectionService;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager(
+            WebContentService.ACTIVE_CONTENT_BY_COLLECTION_CACHE,
+            WebContentService.FIRST_CONTENT_BY_COLLECTION_CACHE,
+            PublicContentBundleService.PUBLIC_CONTENT_BUNDLES_CACHE
+        );
+        assetCollectionService = new AssetCollectionService(
+            assetCollectionRepository,
+            new AssetCollectionMapperImpl(),
+            cacheManager
+        );
+    }
+
+    @Test
+    void partialUpdate_ShouldEvictOldAndNewCodeAndTheBundles() {
+        AssetCollection existing = new AssetCollection().id(1L).code("HOME_HERO").name("Hero").isActive(true);
+        when(assetCollectionRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(assetCollectionRepository.save(any(AssetCollection.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        for (String code : List.of("HOME_HERO", "LANDING_HERO", "HOME_GALLERY")) {
+            cacheManager.getCache(WebContentService.ACTIVE_CONTENT_BY_COLLECTION_CACHE).put(code, List.of());
+            cacheManager.getCache(WebContentService.FIRST_CONTENT_BY_COLLECTION_CACHE).put(code, Optional.empty());
+        }
+        cacheManager.getCache(PublicContentBundleService.PUBLIC_CONTENT_BUNDLES_CACHE).put("HOME_GALLERY", new byte[0]);
+
+        AssetCollectionDTO patch = new AssetCollectionDTO();
+        patch.setId(1L);
+        patch.setCode("LANDING_HERO");
+        assetCollectionService.partialUpdate(patch);
+
+        for (String cacheName : List.of(
+            WebContentService.ACTIVE_CONTENT_BY_COLLECTION_CACHE,
+            WebContentService.FIRST_CONTENT_BY_COLLECTION_CACHE
+        )) {
+            assertThat(cacheManager.getCache(cacheName).get("HOME_HERO")).isNull();
+            assertThat(cacheManager.getCache(cacheName).get("LANDING_HERO")).isNull();
+            assertThat(cacheManager.getCache(cacheName).get("HOME_GALLERY")).isNotNull();
+        }
+        // Cualquier bundle puede incluir la colección
+        assertThat(cacheManager.getCache(PublicContentBundleService.PUBLIC_CONTENT_BUNDLES_CACHE).get("HOME_GALLERY")).isNull();
+    }
+}
@@ -0,0 +1,228 @@
+package org.hotel.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hotel.IntegrationTest;
+import org.hotel.config.ApplicationProperties;
+import org.hotel.domain.Customer;
+import org.hotel.domain.Room;
+import org.hotel.domain.RoomType;
+import org.hotel.domain.enumeration.RoomStatus;
+import org.hotel.repository.BookingRepository;
+import org.hotel.repository.CustomerRepository;
+import org.hotel.repository.RoomRepository;
+import org.hotel.repository.RoomTypeInventoryRepository;
+import org.hotel.repository.RoomTypeRepository;
+import org.hotel.service.dto.BookingDTO;
+import org.hotel.service.dto.BookingItemDTO;
+import org.hotel.service.dto.CustomerDTO;
+import org.hotel.service.dto.RoomTypeDTO;
+import org.hotel.web.rest.errors.BusinessRuleException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Prueba de estrés de creación concurrente de reservas sobre la última habitación libre.
+ * No es transaccional: cada reserva hace commit en su propio hilo.
+ * <p>
+ * Registra el rendimiento de cada escenario indicando si los advisory locks por tipo están activos; para comparar
+ * antes y después se ejecuta dos veces, la segunda con {@code -Dapplication.room-type-locks.enabled=false}.
+ */
+@IntegrationTest
+class BookingConcurrencyIT {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BookingConcurrencyIT.class);
+
+    private static final int CONTENDED_ATTEMPTS = 200;
+    private static final int PARALLEL_ROOM_TYPES = 20;
+    private static final int ATTEMPTS_PER_TYPE = 10;
+    private static final int THREADS = 32;
+
+    private static final LocalDate CHECK_IN = LocalDate.now().plusDays(30);
+    private static final LocalDate CHECK_OUT = CHECK_IN.plusDays(2);
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private RoomTypeRepository roomTypeRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private RoomTypeInventoryRepository roomTypeInventoryRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    private final List<RoomType> roomTypes = new ArrayList<>();
+    private final List<Room> rooms = new ArrayList<>();
+    private final Queue<Long> createdBookings = new ConcurrentLinkedQueue<>();
+    private Customer customer;
+
+    @BeforeEach
+    void initTest() {
+        customer = customerRepository.saveAndFlush(
+            new Customer().firstName("Carga").lastName("Concurrente").licenseId("CONC-" + System.nanoTime()).birthDate(LocalDate.of(1990, 1, 1))
+        );
+    }
+
+    @AfterEach
+    void cleanup() {
+        createdBookings.forEach(bookingRepository::deleteById);
+        for (RoomType roomType : roomTypes) {
+            roomTypeInventoryRepository.deleteAll(roomTypeInventoryRepository.findNights(roomType.getId(), CHECK_IN, CHECK_OUT));
+        }
+        roomRepository.deleteAll(rooms);
+        roomTypeRepository.deleteAll(roomTypes);
+        customerRepository.delete(customer);
+    }
+
+    @Test
+    void concurrentBookingsForLastRoom_ShouldLetExactlyOneWin() throws Exception {
+        RoomType roomType = createRoomTypeWithOneRoom("Ultima");
+
+        List<RoomType> targets = new ArrayList<>();
+        for (int i = 0; i < CONTENDED_ATTEMPTS; i++) {
+            targets.add(roomType);
+        }
+        Outcome outcome = fire(targets);
+
+        LOG.info(
+            "{} concurrent bookings for the last room (room-type locks {}): {} won, {} rejected in {} ms ({} attempts/s)",
+            CONTENDED_ATTEMPTS,
+            locksMode(),
+            outcome.wins.get(),
+            outcome.rejections.get(),
+            outcome.elapsedMillis,
+            outcome.throughput()
+        );
+        assertThat(outcome.unexpected).isEmpty();
+        assertThat(outcome.wins.get()).isEqualTo(1);
+        assertThat(outcome.rejections.get()).isEqualTo(CONTENDED_ATTEMPTS - 1);
+        assertThat(roomTypeInventoryRepository.findNights(roomType.getId(), CHECK_IN, CHECK_OUT))
+            .allSatisfy(night -> assertThat(night.getBookedCount()).isEqualTo(1));
+    }
+
+    @Test
+    void concurrentBookingsForUnrelatedRoomTypes_ShouldProceedInParallel() throws Exception {
+        List<RoomType> targets = new ArrayList<>();
+        for (int i = 0; i < PARALLEL_ROOM_TYPES; i++) {
+            RoomType roomType = createRoomTypeWithOneRoom("Paralelo " + i);
+            for (int j = 0; j < ATTEMPTS_PER_TYPE; j++) {
+                targets.add(roomType);
+            }
+        }
+        Outcome outcome = fire(targets);
+
+        LOG.info(
+            "{} concurrent bookings over {} room types (room-type locks {}): {} won, {} rejected in {} ms ({} attempts/s)",
+            targets.size(),
+            PARALLEL_ROOM_TYPES,
+            locksMode(),
+            outcome.wins.get(),
+            outcome.rejections.get(),
+            outcome.elapsedMillis,
+            outcome.throughput()
+        );
+        assertThat(outcome.unexpected).isEmpty();
+        assertThat(outcome.wins.get()).isEqualTo(PARALLEL_ROOM_TYPES);
+    }
+
+    private Outcome fire(List<RoomType> targets) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(targets.size());
+        Outcome outcome = new Outcome();
+
+        for (RoomType target : targets) {
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    BookingDTO saved = bookingService.save(bookingFor(target));
+                    createdBookings.add(saved.getId());
+                    outcome.wins.incrementAndGet();
+                } catch (BusinessRuleException e) {
+                    outcome.rejections.incrementAndGet();
+                } catch (Exception e) {
+                    outcome.unexpected.add(e);
+                } finally {
+                    done.countDown();
+                }
+                return null;
+            });
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        assertThat(done.await(2, TimeUnit.MINUTES)).isTrue();
+        outcome.elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin));
+        outcome.attempts = targets.size();
+        executor.shutdown();
+        return outcome;
+    }
+
+    private String locksMode() {
+        return applicationProperties.getRoomTypeLocks().isEnabled() ? "on" : "off";
+    }
+
+    private RoomType createRoomTypeWithOneRoom(String name) {
+        RoomType roomType = roomTypeRepository.saveAndFlush(new RoomType().name(name).basePrice(BigDecimal.TEN).maxCapacity(2));
+        roomTypes.add(roomType);
+        rooms.add(roomRepository.saveAndFlush(new Room().roomNumber("C-" + roomType.getId()).status(RoomStatus.AVAILABLE).roomType(roomType)));
+        return roomType;
+    }
+
+    private BookingDTO bookingFor(RoomType roomType) {
+        CustomerDTO customerDTO = new CustomerDTO();
+        customerDTO.setId(customer.getId());
+
+        RoomTypeDTO roomTypeDTO = new RoomTypeDTO();
+        roomTypeDTO.setId(roomType.getId());
+        BookingItemDTO item = new BookingItemDTO();
+        item.setRoomType(roomTypeDTO);
+
+        BookingDTO booking = new BookingDTO();
+        booking.setCheckInDate(CHECK_IN);
+        booking.setCheckOutDate(CHECK_OUT);
+        booking.setGuestCount(1);
+        booking.setCustomer(customerDTO);
+        booking.setItems(List.of(item));
+        return booking;
+    }
+
+    private static final class Outcome {
+
+        private final AtomicInteger wins = new AtomicInteger();
+        private final AtomicInteger rejections = new AtomicInteger();
+        private final Queue<Exception> unexpected = new ConcurrentLinkedQueue<>();
+        private long elapsedMillis;
+        private int attempts;
+
+        long throughput() {
+            return attempts * 1000L / elapsedMillis;
+        }
+    }
+}
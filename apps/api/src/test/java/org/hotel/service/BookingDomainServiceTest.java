@@ -0,0 +1,135 @@
+package org.hotel.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import org.hotel.repository.BookingRepository;
+import org.hotel.repository.RoomRepository;
+import org.hotel.repository.RoomTypeRepository;
+import org.hotel.web.rest.errors.BusinessRuleException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class BookingDomainServiceTest {
+
+    private static final LocalDate FROM = LocalDate.of(2026, 11, 1);
+    private static final LocalDate TO = FROM.plusDays(5);
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private RoomRepository roomRepository;
+
+    @Mock
+    private RoomTypeRepository roomTypeRepository;
+
+    @Mock
+    private RoomInventoryService roomInventoryService;
+
+    private BookingDomainService bookingDomainService;
+
+    @BeforeEach
+    void setUp() {
+        bookingDomainService = new BookingDomainService(
+            bookingRepository,
+            roomRepository,
+            roomTypeRepository,
+            roomInventoryService
+        );
+    }
+
+    @Test
+    void calculateFreeRoomsPerNight_ShouldSweepOverlappingBookings() {
+        when(roomRepository.countGroupedByRoomType()).thenReturn(List.of(roomCount(1L, 2L), roomCount(2L, 1L)));
+        when(bookingRepository.findOccupancyRowsOverlapping(FROM, TO)).thenReturn(
+            List.of(
+                // Empieza antes del rango: solo cuentan las noches dentro
+                bookingRow(1L, FROM.minusDays(2), FROM.plusDays(2)),
+                bookingRow(1L, FROM.plusDays(1), FROM.plusDays(3)),
+                // Termina después del rango
+                bookingRow(1L, FROM.plusDays(4), TO.plusDays(3)),
+                // Sobreventa histórica: nunca se informa un valor negativo
+                bookingRow(2L, FROM, FROM.plusDays(1)),
+                bookingRow(2L, FROM, FROM.plusDays(1))
+            )
+        );
+
+        Map<Long, int[]> free = bookingDomainService.calculateFreeRoomsPerNight(FROM, TO);
+
+        assertThat(free.get(1L)).containsExactly(1, 0, 1, 2, 1);
+        assertThat(free.get(2L)).containsExactly(0, 1, 1, 1, 1);
+    }
+
+    @Test
+    void calculateFreeRoomsPerNight_ShouldReturnFullCapacityWithoutBookings() {
+        when(roomRepository.countGroupedByRoomType()).thenReturn(List.of(roomCount(1L, 3L)));
+        when(bookingRepository.findOccupancyRowsOverlapping(FROM, TO)).thenReturn(List.of());
+
+        assertThat(bookingDomainService.calculateFreeRoomsPerNight(FROM, TO).get(1L)).containsOnly(3).hasSize(5);
+    }
+
+    @Test
+    void slidingWindowMinimum_ShouldReturnFreeRoomsForEveryStayStart() {
+        int[] freePerNight = { 3, 1, 2, 0, 4, 4, 2 };
+
+        assertThat(bookingDomainService.slidingWindowMinimum(freePerNight, 3)).containsExactly(1, 0, 0, 0, 2);
+        assertThat(bookingDomainService.slidingWindowMinimum(freePerNight, 1)).containsExactly(freePerNight);
+        assertThat(bookingDomainService.slidingWindowMinimum(freePerNight, 8)).isEmpty();
+    }
+
+    @Test
+    void validateCalendarRange_ShouldRejectRangesLongerThanLimit() {
+        assertThat(bookingDomainService.validateCalendarRange(FROM, FROM.plusDays(BookingDomainService.MAX_CALENDAR_NIGHTS)))
+            .isEqualTo(BookingDomainService.MAX_CALENDAR_NIGHTS);
+
+        assertThatThrownBy(() -> bookingDomainService.validateCalendarRange(FROM, FROM.plusDays(BookingDomainService.MAX_CALENDAR_NIGHTS + 1)))
+            .isInstanceOf(BusinessRuleException.class);
+    }
+
+    private static BookingRepository.BookingNightsRow bookingRow(Long roomTypeId, LocalDate checkIn, LocalDate checkOut) {
+        return new BookingRepository.BookingNightsRow() {
+            @Override
+            public Long getBookingId() {
+                return null;
+            }
+
+            @Override
+            public LocalDate getCheckInDate() {
+                return checkIn;
+            }
+
+            @Override
+            public LocalDate getCheckOutDate() {
+                return checkOut;
+            }
+
+            @Override
+            public Long getRoomTypeId() {
+                return roomTypeId;
+            }
+        };
+    }
+
+    private static RoomRepository.RoomTypeCountRow roomCount(Long roomTypeId, Long total) {
+        return new RoomRepository.RoomTypeCountRow() {
+            @Override
+            public Long getRoomTypeId() {
+                return roomTypeId;
+            }
+
+            @Override
+            public Long getTotal() {
+                return total;
+            }
+        };
+    }
+}
@@ -0,0 +1,102 @@
+package org.hotel.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.hotel.domain.Booking;
+import org.hotel.domain.BookingItem;
+import org.hotel.domain.RoomType;
+import org.hotel.repository.BookingItemRepository;
+import org.hotel.service.RoomInventoryService.InventoryHold;
+import org.hotel.service.dto.BookingDTO;
+import org.hotel.service.dto.BookingItemDTO;
+import org.hotel.service.dto.RoomTypeDTO;
+import org.hotel.service.mapper.BookingItemMapperImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class BookingItemServiceTest {
+
+    private static final LocalDate CHECK_IN = LocalDate.of(2026, 11, 1);
+    private static final LocalDate CHECK_OUT = LocalDate.of(2026, 11, 4);
+
+    @Mock
+    private BookingItemRepository bookingItemRepository;
+
+    @Mock
+    private RoomInventoryService roomInventoryService;
+
+    private BookingItemService bookingItemService;
+
+    @BeforeEach
+    void setUp() {
+        bookingItemService = new BookingItemService(bookingItemRepository, new BookingItemMapperImpl(), roomInventoryService);
+    }
+
+    @Test
+    void delete_ShouldReleaseTheNightsOfTheRemovedRoom() {
+        InventoryHold twoRooms = new InventoryHold(CHECK_IN, CHECK_OUT, Map.of(3L, 2));
+        InventoryHold oneRoom = new InventoryHold(CHECK_IN, CHECK_OUT, Map.of(3L, 1));
+        when(bookingItemRepository.findById(5L)).thenReturn(Optional.of(item(5L, 7L, 3L)));
+        when(roomInventoryService.findHold(7L)).thenReturn(twoRooms).thenReturn(oneRoom);
+
+        bookingItemService.delete(5L);
+
+        InOrder order = inOrder(bookingItemRepository, roomInventoryService);
+        order.verify(bookingItemRepository).deleteById(5L);
+        order.verify(bookingItemRepository).flush();
+        order.verify(roomInventoryService).lockRoomTypes(Set.of(3L));
+        order.verify(roomInventoryService).apply(twoRooms, oneRoom);
+    }
+
+    @Test
+    void update_ShouldMoveTheRoomFromTheOldBookingToTheNewOne() {
+        InventoryHold oldBookingBefore = new InventoryHold(CHECK_IN, CHECK_OUT, Map.of(3L, 1));
+        InventoryHold newBookingAfter = new InventoryHold(CHECK_IN.plusDays(7), CHECK_OUT.plusDays(7), Map.of(3L, 1));
+        when(bookingItemRepository.findById(5L)).thenReturn(Optional.of(item(5L, 7L, 3L)));
+        when(bookingItemRepository.save(any(BookingItem.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(roomInventoryService.findHold(7L)).thenReturn(oldBookingBefore).thenReturn(InventoryHold.NONE);
+        when(roomInventoryService.findHold(8L)).thenReturn(InventoryHold.NONE).thenReturn(newBookingAfter);
+
+        bookingItemService.update(itemDTO(5L, 8L, 3L));
+
+        verify(roomInventoryService).lockRoomTypes(Set.of(3L));
+        verify(roomInventoryService).apply(oldBookingBefore, InventoryHold.NONE);
+        verify(roomInventoryService).apply(InventoryHold.NONE, newBookingAfter);
+    }
+
+    private static BookingItem item(Long id, Long bookingId, Long roomTypeId) {
+        Booking booking = new Booking();
+        booking.setId(bookingId);
+        RoomType roomType = new RoomType();
+        roomType.setId(roomTypeId);
+        BookingItem item = new BookingItem();
+        item.setId(id);
+        item.setBooking(booking);
+        item.setRoomType(roomType);
+        return item;
+    }
+
+    private static BookingItemDTO itemDTO(Long id, Long bookingId, Long roomTypeId) {
+        BookingDTO booking = new BookingDTO();
+        booking.setId(bookingId);
+        RoomTypeDTO roomType = new RoomTypeDTO();
+        roomType.setId(roomTypeId);
+        BookingItemDTO item = new BookingItemDTO();
+        item.setId(id);
+        item.setBooking(booking);
+        item.setRoomType(roomType);
+        return item;
+    }
+}
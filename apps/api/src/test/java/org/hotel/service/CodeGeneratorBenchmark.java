@@ -0,0 +1,86 @@
+package org.hotel.service;
+
+import java.time.Clock;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Códigos por segundo de {@link CodeGenerator}, con 1 y 8 hilos.
+ * <ul>
+ *     <li>{@code blocks*}: bloques de {@value CodeGenerator#BLOCK_SIZE} de una secuencia que tarda
+ *     {@value #SEQUENCE_ROUND_TRIP_MICROS} us por {@code nextval} (una ida y vuelta a PostgreSQL en red local).</li>
+ *     <li>{@code nextvalPerCode}: un {@code nextval} por código, sin bloques.</li>
+ *     <li>{@code uuid}: el código anterior ({@code RES-} y 8 caracteres de un UUID), como referencia; no consulta la
+ *     base de datos pero puede repetirse.</li>
+ * </ul>
+ * Ejecutar con {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.hotel.service.CodeGeneratorBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodeGeneratorBenchmark {
+
+    private static final long SEQUENCE_ROUND_TRIP_MICROS = 200;
+
+    private final AtomicLong sequence = new AtomicLong(1);
+
+    private CodeGenerator blocks;
+
+    @Setup
+    public void setUp() {
+        blocks = new CodeGenerator(name -> nextval(CodeGenerator.BLOCK_SIZE), Clock.systemUTC());
+    }
+
+    private long nextval(int increment) {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(SEQUENCE_ROUND_TRIP_MICROS));
+        return sequence.getAndAdd(increment);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String blocksOneThread() {
+        return blocks.nextBookingCode();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String blocksEightThreads() {
+        return blocks.nextBookingCode();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String nextvalPerCode() {
+        return String.format("RES-%06d", nextval(1));
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String uuid() {
+        return "RES-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CodeGeneratorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
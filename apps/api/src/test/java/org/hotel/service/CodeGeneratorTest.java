@@ -0,0 +1,89 @@
+package org.hotel.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class CodeGeneratorTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-10-17T10:00:00Z"), ZoneOffset.UTC);
+
+    private final Map<String, AtomicLong> sequences = new ConcurrentHashMap<>();
+
+    private final AtomicInteger blockFetches = new AtomicInteger();
+
+    /**
+     * Como la secuencia de PostgreSQL: empieza en 1 y avanza {@link CodeGenerator#BLOCK_SIZE} por {@code nextval}.
+     */
+    private long nextBlockStart(String sequence) {
+        blockFetches.incrementAndGet();
+        return sequences.computeIfAbsent(sequence, name -> new AtomicLong(1)).getAndAdd(CodeGenerator.BLOCK_SIZE);
+    }
+
+    @Test
+    void shouldHandOutDatedConsecutiveCodesPerSequence() {
+        CodeGenerator generator = new CodeGenerator(this::nextBlockStart, CLOCK);
+
+        assertThat(generator.nextInvoiceCode()).isEqualTo("INV-20261017-000001");
+        assertThat(generator.nextInvoiceCode()).isEqualTo("INV-20261017-000002");
+        assertThat(generator.nextBookingCode()).isEqualTo("RES-20261017-000001");
+    }
+
+    @Test
+    void shouldFetchOneBlockPerBlockSizeCodes() {
+        CodeGenerator generator = new CodeGenerator(this::nextBlockStart, CLOCK);
+
+        for (int i = 0; i < CodeGenerator.BLOCK_SIZE * 3; i++) {
+            generator.nextInvoiceCode();
+        }
+
+        assertThat(blockFetches).hasValue(3);
+        assertThat(generator.nextInvoiceCode()).isEqualTo("INV-20261017-000151");
+    }
+
+    @Test
+    void shouldNeverRepeatACodeAcrossThreads() throws Exception {
+        CodeGenerator generator = new CodeGenerator(this::nextBlockStart, CLOCK);
+        int threads = 8;
+        int codesPerThread = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        Set<String> codes = ConcurrentHashMap.newKeySet();
+        try {
+            List<Callable<Void>> tasks = IntStream.range(0, threads)
+                .<Callable<Void>>mapToObj(i -> () -> {
+                    start.await();
+                    for (int j = 0; j < codesPerThread; j++) {
+                        codes.add(generator.nextInvoiceCode());
+                    }
+                    return null;
+                })
+                .toList();
+            List<Future<Void>> results = tasks.stream().map(executor::submit).toList();
+            start.countDown();
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(codes).hasSize(threads * codesPerThread);
+        assertThat(blockFetches).hasValue(threads * codesPerThread / CodeGenerator.BLOCK_SIZE);
+    }
+}
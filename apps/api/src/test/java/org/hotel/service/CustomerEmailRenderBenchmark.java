@@ -0,0 +1,145 @@
+package org.hotel.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.hotel.config.ApplicationProperties;
+import org.hotel.domain.Authority;
+import org.hotel.domain.Booking;
+import org.hotel.domain.BookingItem;
+import org.hotel.domain.Customer;
+import org.hotel.domain.User;
+import org.hotel.domain.enumeration.BookingStatus;
+import org.hotel.domain.enumeration.CustomerEmailType;
+import org.hotel.security.AuthoritiesConstants;
+import org.hotel.service.dto.CustomerEmailSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+/**
+ * Coste de generar un correo de reserva, antes y después de {@link CustomerEmailSnapshot}.
+ * <ul>
+ *     <li>{@code entitiesUncachedTemplate}: como lo hacía {@code MailService} con {@code spring.thymeleaf.cache=false}
+ *     (dev): entidades en el contexto y la plantilla leída y analizada en cada correo.</li>
+ *     <li>{@code entitiesCachedTemplate}: lo mismo con la caché de plantillas de prod, sin compilar SpEL.</li>
+ *     <li>{@code snapshot}: {@link CustomerEmailRenderer}, con la copia inmutable, caché siempre activa y SpEL compilado.</li>
+ * </ul>
+ * La consulta de usuario y autoridades que hacía {@code MailService} por correo no entra en la medida (no hay base de
+ * datos). Ejecutar con {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.hotel.service.CustomerEmailRenderBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerEmailRenderBenchmark {
+
+    private static final String TEMPLATE = CustomerEmailRenderer.templateName(CustomerEmailType.BOOKING_CREATED);
+
+    private SpringTemplateEngine uncachedEngine;
+
+    private SpringTemplateEngine cachedEngine;
+
+    private CustomerEmailRenderer renderer;
+
+    private Customer customer;
+
+    private Booking booking;
+
+    private CustomerEmailSnapshot snapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        uncachedEngine = CustomerEmailRenderer.createTemplateEngine(false, false);
+        cachedEngine = CustomerEmailRenderer.createTemplateEngine(true, false);
+        renderer = new CustomerEmailRenderer(new ApplicationProperties(), new SimpleMeterRegistry());
+
+        Authority client = new Authority();
+        client.setName(AuthoritiesConstants.CLIENT);
+        User user = new User();
+        user.setLogin("maria");
+        user.setLangKey("es");
+        user.getAuthorities().add(client);
+        customer = new Customer();
+        customer.setFirstName("María");
+        customer.setLastName("López");
+        customer.setEmail("maria@hotel.test");
+        customer.setUser(user);
+        booking = new Booking();
+        booking.setCode("RES-1A2B3C4D");
+        booking.setCheckInDate(LocalDate.of(2026, 11, 2));
+        booking.setCheckOutDate(LocalDate.of(2026, 11, 5));
+        booking.setGuestCount(2);
+        booking.setStatus(BookingStatus.PENDING_APPROVAL);
+        booking.setCustomer(customer);
+        for (int i = 0; i < 2; i++) {
+            BookingItem item = new BookingItem();
+            item.setPrice(new BigDecimal("225.00"));
+            booking.addBookingItems(item);
+        }
+        snapshot = new CustomerEmailSnapshot(
+            CustomerEmailType.BOOKING_CREATED,
+            CustomerEmailSnapshot.Recipient.of(customer),
+            CustomerEmailSnapshot.BookingDetails.of(booking),
+            null
+        );
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        renderer.destroy();
+    }
+
+    @Benchmark
+    public String entitiesUncachedTemplate() {
+        return uncachedEngine.process(TEMPLATE, entityContext());
+    }
+
+    @Benchmark
+    public String entitiesCachedTemplate() {
+        return cachedEngine.process(TEMPLATE, entityContext());
+    }
+
+    @Benchmark
+    public String snapshot() {
+        return renderer.render(snapshot).html();
+    }
+
+    /**
+     * Contexto que montaba {@code MailService.sendCustomerEmail} con las entidades.
+     */
+    private Context entityContext() {
+        User account = customer.getUser();
+        Context context = new Context(Locale.forLanguageTag(account.getLangKey()));
+        context.setVariable("user", customer);
+        context.setVariable("account", account);
+        context.setVariable("customer", customer);
+        context.setVariable("admin", account.getAuthorities().stream().anyMatch(a -> AuthoritiesConstants.ADMIN.equals(a.getName())));
+        context.setVariable("booking", booking);
+        context.setVariable("baseUrl", CustomerEmailRenderer.BASE_URL);
+        return context;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CustomerEmailRenderBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,85 @@
+package org.hotel.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import org.hotel.config.ApplicationProperties;
+import org.hotel.domain.enumeration.BookingStatus;
+import org.hotel.domain.enumeration.CustomerEmailType;
+import org.hotel.service.CustomerEmailRenderer.RenderedEmail;
+import org.hotel.service.dto.CustomerEmailSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class CustomerEmailRendererTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final CustomerEmailRenderer renderer = new CustomerEmailRenderer(new ApplicationProperties(), meterRegistry);
+
+    @AfterEach
+    void shutdown() {
+        renderer.destroy();
+    }
+
+    @Test
+    void render_ShouldFillTheTemplateFromTheSnapshot() {
+        RenderedEmail email = renderer.render(bookingSnapshot(CustomerEmailType.BOOKING_CREATED, false));
+
+        assertThat(email.subject()).isEqualTo("Recibimos tu solicitud de reserva - Hotel App");
+        assertThat(email.html())
+            .contains("Hola María,")
+            .contains("RES-1A2B3C4D")
+            .contains("2026-11-02")
+            .contains("$450.00")
+            .contains("PENDING_APPROVAL")
+            .contains("/client/dashboard")
+            .doesNotContain("/admin/bookings");
+        assertThat(meterRegistry.get(CustomerEmailRenderer.RENDER_METRIC).tag("type", "BOOKING_CREATED").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void render_ShouldLinkAdminsToTheBackOffice() {
+        RenderedEmail email = renderer.render(bookingSnapshot(CustomerEmailType.BOOKING_CREATED, true));
+
+        assertThat(email.html()).contains("/admin/bookings").doesNotContain("/client/dashboard");
+    }
+
+    @Test
+    void renderAsync_ShouldRenderThePaymentEmailOnTheRenderPool() {
+        CustomerEmailSnapshot snapshot = new CustomerEmailSnapshot(
+            CustomerEmailType.PAYMENT_SUCCESS,
+            recipient(false),
+            null,
+            new CustomerEmailSnapshot.InvoiceDetails("INV-1", new BigDecimal("450.00"))
+        );
+
+        RenderedEmail email = renderer.renderAsync(snapshot).join();
+
+        assertThat(email.subject()).isEqualTo("Pago Confirmado - ¡Tu viaje está listo!");
+        assertThat(email.html()).contains("$450.00").contains("REF: INV-1");
+    }
+
+    static CustomerEmailSnapshot bookingSnapshot(CustomerEmailType type, boolean admin) {
+        return new CustomerEmailSnapshot(
+            type,
+            recipient(admin),
+            new CustomerEmailSnapshot.BookingDetails(
+                "RES-1A2B3C4D",
+                LocalDate.of(2026, 11, 2),
+                LocalDate.of(2026, 11, 5),
+                2,
+                BookingStatus.PENDING_APPROVAL,
+                new BigDecimal("450.00")
+            ),
+            null
+        );
+    }
+
+    private static CustomerEmailSnapshot.Recipient recipient(boolean admin) {
+        return new CustomerEmailSnapshot.Recipient("María", "López", "maria@hotel.test", "es", admin);
+    }
+}
@@ -0,0 +1,51 @@
+package org.hotel.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import org.hotel.repository.CustomerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerIdResolverTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    private CustomerIdResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        resolver = new CustomerIdResolver(customerRepository, new ConcurrentMapCacheManager(CustomerIdResolver.CUSTOMER_ID_BY_LOGIN_CACHE));
+    }
+
+    @Test
+    void findCustomerId_ShouldQueryOncePerLoginUntilEvicted() {
+        when(customerRepository.findIdByUserLogin("maria")).thenReturn(Optional.of(7L));
+
+        assertThat(resolver.findCustomerId("maria")).contains(7L);
+        assertThat(resolver.findCustomerId("maria")).contains(7L);
+        verify(customerRepository, times(1)).findIdByUserLogin("maria");
+
+        resolver.evict("maria");
+        resolver.findCustomerId("maria");
+        verify(customerRepository, times(2)).findIdByUserLogin("maria");
+    }
+
+    @Test
+    void findCustomerId_ShouldNotRememberLoginsWithoutProfile() {
+        when(customerRepository.findIdByUserLogin("nuevo")).thenReturn(Optional.empty()).thenReturn(Optional.of(9L));
+
+        assertThat(resolver.findCustomerId("nuevo")).isEmpty();
+        // El perfil recién creado se ve en la siguiente petición sin esperar a ninguna invalidación
+        assertThat(resolver.findCustomerId("nuevo")).contains(9L);
+    }
+}
@@ -28,11 +28,14 @@ class CustomerServiceTest {
     @Mock
     private CustomerMapper customerMapper;
 
+    @Mock
+    private CustomerIdResolver customerIdResolver;
+
     private CustomerService customerService;
 
     @BeforeEach
     void setUp() {
-        customerService = new CustomerService(customerRepository, customerMapper);
+        customerService = new CustomerService(customerRepository, customerMapper, customerIdResolver);
     }
 
     @Test
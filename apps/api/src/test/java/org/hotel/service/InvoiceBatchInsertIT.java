@@ -0,0 +1,110 @@
+package org.hotel.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.hotel.IntegrationTest;
+import org.hotel.domain.Booking;
+import org.hotel.domain.BookingItem;
+import org.hotel.domain.Customer;
+import org.hotel.domain.Invoice;
+import org.hotel.domain.InvoiceItem;
+import org.hotel.domain.RoomType;
+import org.hotel.domain.enumeration.BookingStatus;
+import org.hotel.domain.enumeration.InvoiceStatus;
+import org.hotel.service.client.ClientInvoiceService;
+import org.hotel.service.dto.InvoiceDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Sentencias de la factura de una reserva de {@value #ROOMS} habitaciones: la factura y sus líneas se guardan por
+ * cascada, con las líneas en un único lote JDBC.
+ */
+@IntegrationTest
+@Transactional
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class InvoiceBatchInsertIT {
+
+    private static final int ROOMS = 10;
+
+    /**
+     * Insert de la factura, un lote con las líneas y, como mucho, un bloque nuevo de la secuencia para cada entidad.
+     */
+    private static final long MAX_STATEMENTS = 4;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private ClientInvoiceService clientInvoiceService;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Booking booking;
+
+    @BeforeEach
+    void initTest() {
+        RoomType roomType = new RoomType().name("Doble").basePrice(new BigDecimal("80.00")).maxCapacity(2);
+        em.persist(roomType);
+        Customer customer = new Customer().firstName("Ana").lastName("Perez").licenseId("BATCH-001").birthDate(LocalDate.of(1990, 1, 1));
+        em.persist(customer);
+        booking = new Booking()
+            .code("BATCH-10")
+            .guestCount(ROOMS * 2)
+            .customer(customer)
+            .checkInDate(LocalDate.now().plusDays(5))
+            .checkOutDate(LocalDate.now().plusDays(7))
+            .status(BookingStatus.PENDING_APPROVAL);
+        for (int i = 0; i < ROOMS; i++) {
+            booking.addBookingItems(new BookingItem().roomType(roomType).price(new BigDecimal("160.00")));
+        }
+        em.persist(booking);
+
+        // Calienta los generadores de ids de Invoice e InvoiceItem (primer bloque de la secuencia)
+        Invoice warmUp = new Invoice().code("BATCH-WARM-UP").status(InvoiceStatus.DRAFT).booking(booking);
+        warmUp.addItems(new InvoiceItem().description("warm-up").amount(BigDecimal.ONE).date(Instant.now()));
+        em.persist(warmUp);
+        em.flush();
+    }
+
+    @Test
+    void createInitialInvoice_ShouldInsertTheInvoiceAndItsItemsInOneBatch() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        InvoiceDTO invoice = invoiceService.createInitialInvoice(booking);
+        em.flush();
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(ROOMS + 1);
+        assertThat(statistics.getEntityUpdateCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(MAX_STATEMENTS);
+        assertThat(invoice.getTotalAmount()).isEqualByComparingTo(new BigDecimal("1600.00"));
+    }
+
+    @Test
+    void createInvoiceSnapshot_ShouldInsertTheInvoiceAndItsItemsInOneBatch() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        clientInvoiceService.createInvoiceSnapshot(booking);
+        em.flush();
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(ROOMS + 1);
+        assertThat(statistics.getEntityUpdateCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(MAX_STATEMENTS);
+    }
+}
@@ -0,0 +1,112 @@
+package org.hotel.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import org.hotel.IntegrationTest;
+import org.hotel.domain.Booking;
+import org.hotel.domain.Customer;
+import org.hotel.domain.Invoice;
+import org.hotel.domain.enumeration.BookingStatus;
+import org.hotel.domain.enumeration.InvoiceStatus;
+import org.hotel.repository.InvoiceRepository;
+import org.hotel.service.dto.InvoiceDTO;
+import org.hotel.service.dto.InvoiceItemDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Cargos de servicio sobre la factura abierta de una reserva, con el {@code update} real de
+ * {@link InvoiceRepository#addCharge}.
+ */
+@IntegrationTest
+@Transactional
+class InvoiceServiceIT {
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    private Booking booking;
+
+    @BeforeEach
+    void initTest() {
+        Customer customer = new Customer().firstName("Ana").lastName("Perez").licenseId("CHARGE-001").birthDate(LocalDate.of(1990, 1, 1));
+        em.persist(customer);
+        booking = new Booking()
+            .code("CHARGE-01")
+            .guestCount(2)
+            .customer(customer)
+            .checkInDate(LocalDate.now().plusDays(5))
+            .checkOutDate(LocalDate.now().plusDays(7))
+            .status(BookingStatus.CHECKED_IN);
+        em.persist(booking);
+    }
+
+    @Test
+    void addServiceCharge_ShouldAddTheChargeToTheOpenInvoiceTotals() {
+        Invoice open = persistInvoice("CHARGE-OPEN", InvoiceStatus.ISSUED);
+
+        InvoiceDTO result = invoiceService.addServiceCharge(booking.getId(), charge("Minibar", "12.50"));
+
+        assertThat(result.getId()).isEqualTo(open.getId());
+        assertThat(result.getTotalAmount()).isEqualByComparingTo("112.50");
+        assertThat(invoiceRepository.findAllByBookingId(booking.getId())).hasSize(1);
+    }
+
+    @Test
+    void addCharge_ShouldLeaveAPaidInvoiceUntouched() {
+        Invoice paid = persistInvoice("CHARGE-PAID", InvoiceStatus.PAID);
+
+        int updated = invoiceRepository.addCharge(paid.getId(), new BigDecimal("12.50"), BigDecimal.ZERO);
+        em.clear();
+
+        assertThat(updated).isZero();
+        assertThat(em.find(Invoice.class, paid.getId()).getTotalAmount()).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    void addServiceCharge_ShouldOpenANewInvoiceWhenTheOnlyOneIsPaid() {
+        Invoice paid = persistInvoice("CHARGE-PAID", InvoiceStatus.PAID);
+
+        InvoiceDTO result = invoiceService.addServiceCharge(booking.getId(), charge("Minibar", "12.50"));
+        em.flush();
+        em.clear();
+
+        assertThat(result.getId()).isNotEqualTo(paid.getId());
+        assertThat(result.getTotalAmount()).isEqualByComparingTo("12.50");
+        assertThat(em.find(Invoice.class, paid.getId()).getTotalAmount()).isEqualByComparingTo("100.00");
+    }
+
+    private Invoice persistInvoice(String code, InvoiceStatus status) {
+        Invoice invoice = new Invoice()
+            .code(code)
+            .status(status)
+            .issuedDate(Instant.now())
+            .totalAmount(new BigDecimal("100.00"))
+            .taxAmount(BigDecimal.ZERO)
+            .currency("USD")
+            .booking(booking);
+        em.persist(invoice);
+        em.flush();
+        em.clear();
+        return invoice;
+    }
+
+    private static InvoiceItemDTO charge(String description, String amount) {
+        InvoiceItemDTO item = new InvoiceItemDTO();
+        item.setDescription(description);
+        item.setAmount(new BigDecimal(amount));
+        return item;
+    }
+}
@@ -0,0 +1,131 @@
+package org.hotel.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import org.hotel.domain.Booking;
+import org.hotel.domain.Invoice;
+import org.hotel.domain.InvoiceItem;
+import org.hotel.repository.BookingRepository;
+import org.hotel.repository.InvoiceItemRepository;
+import org.hotel.repository.InvoiceRepository;
+import org.hotel.service.dto.InvoiceDTO;
+import org.hotel.service.dto.InvoiceItemDTO;
+import org.hotel.service.mapper.InvoiceItemMapper;
+import org.hotel.service.mapper.InvoiceMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class InvoiceServiceTest {
+
+    @Mock
+    private InvoiceRepository invoiceRepository;
+
+    @Mock
+    private InvoiceMapper invoiceMapper;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private InvoiceItemRepository invoiceItemRepository;
+
+    @Mock
+    private InvoiceItemMapper invoiceItemMapper;
+
+    @Mock
+    private MailOutboxService mailOutboxService;
+
+    @Mock
+    private CodeGenerator codeGenerator;
+
+    private InvoiceService invoiceService;
+
+    private final InvoiceItemDTO itemDTO = new InvoiceItemDTO();
+
+    @BeforeEach
+    void setUp() {
+        invoiceService = new InvoiceService(
+            invoiceRepository,
+            invoiceMapper,
+            bookingRepository,
+            invoiceItemRepository,
+            invoiceItemMapper,
+            mailOutboxService,
+            codeGenerator
+        );
+        when(invoiceItemMapper.toEntity(itemDTO)).thenReturn(new InvoiceItem().description("Minibar").amount(new BigDecimal("12.50")));
+    }
+
+    @Test
+    void addServiceCharge_ShouldAddToTheOpenInvoiceTotalsWithoutLoadingItsItems() {
+        Invoice open = new Invoice();
+        open.setId(10L);
+        InvoiceDTO expected = new InvoiceDTO();
+        when(invoiceRepository.findOpenInvoiceId(1L)).thenReturn(Optional.of(10L));
+        when(invoiceRepository.addCharge(10L, new BigDecimal("12.50"), new BigDecimal("0.0000"))).thenReturn(1);
+        when(invoiceRepository.getReferenceById(10L)).thenReturn(open);
+        when(invoiceRepository.findOneWithToOneRelationships(10L)).thenReturn(Optional.of(open));
+        when(invoiceMapper.toDto(open)).thenReturn(expected);
+
+        InvoiceDTO result = invoiceService.addServiceCharge(1L, itemDTO);
+
+        ArgumentCaptor<InvoiceItem> item = ArgumentCaptor.forClass(InvoiceItem.class);
+        verify(invoiceItemRepository).save(item.capture());
+        assertThat(item.getValue().getInvoice()).isSameAs(open);
+        verify(invoiceRepository, never()).findAllByBookingId(anyLong());
+        verify(invoiceRepository, never()).save(any());
+        assertThat(result).isSameAs(expected);
+    }
+
+    @Test
+    void addServiceCharge_ShouldOpenANewInvoiceWithTheChargeAsItsTotal() {
+        Booking booking = new Booking();
+        booking.setId(1L);
+        when(invoiceRepository.findOpenInvoiceId(1L)).thenReturn(Optional.empty());
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
+        when(codeGenerator.nextInvoiceCode()).thenReturn("INV-20261017-000001");
+        when(invoiceRepository.save(any(Invoice.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        invoiceService.addServiceCharge(1L, itemDTO);
+
+        ArgumentCaptor<Invoice> invoice = ArgumentCaptor.forClass(Invoice.class);
+        verify(invoiceRepository).save(invoice.capture());
+        assertThat(invoice.getValue().getItems()).hasSize(1);
+        assertThat(invoice.getValue().getTotalAmount()).isEqualByComparingTo("12.50");
+        assertThat(invoice.getValue().getCode()).isEqualTo("INV-20261017-000001");
+        verify(invoiceItemRepository, never()).save(any());
+        verify(invoiceRepository, never()).addCharge(anyLong(), any(), any());
+    }
+
+    @Test
+    void addServiceCharge_ShouldOpenANewInvoiceWhenTheOpenOneWasPaidMeanwhile() {
+        Booking booking = new Booking();
+        booking.setId(1L);
+        when(invoiceRepository.findOpenInvoiceId(1L)).thenReturn(Optional.of(10L));
+        when(invoiceRepository.addCharge(10L, new BigDecimal("12.50"), new BigDecimal("0.0000"))).thenReturn(0);
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
+        when(codeGenerator.nextInvoiceCode()).thenReturn("INV-20261017-000002");
+        when(invoiceRepository.save(any(Invoice.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        invoiceService.addServiceCharge(1L, itemDTO);
+
+        ArgumentCaptor<Invoice> invoice = ArgumentCaptor.forClass(Invoice.class);
+        verify(invoiceRepository).save(invoice.capture());
+        assertThat(invoice.getValue().getItems()).hasSize(1);
+        assertThat(invoice.getValue().getTotalAmount()).isEqualByComparingTo("12.50");
+        verify(invoiceItemRepository, never()).save(any());
+        verify(invoiceRepository, never()).getReferenceById(anyLong());
+    }
+}
@@ -0,0 +1,108 @@
+package org.hotel.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.hotel.config.ApplicationProperties.Bulkheads.RejectionPolicy;
+import org.hotel.config.ApplicationProperties.Bulkheads.Spec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class IoBulkheadTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private IoBulkhead bulkhead;
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        bulkhead.destroy();
+    }
+
+    @Test
+    void call_ShouldRunOnThePoolAndReturnTheResult() throws Exception {
+        bulkhead = new IoBulkhead("storage", new Spec(1, 1, RejectionPolicy.ABORT), false, meterRegistry);
+
+        String thread = bulkhead.call(() -> Thread.currentThread().getName());
+
+        assertThat(thread).startsWith("storage-io-");
+    }
+
+    @Test
+    void call_ShouldReleaseItsSlotBeforeReturning() throws Exception {
+        bulkhead = new IoBulkhead("identity", new Spec(1, 1, RejectionPolicy.ABORT), false, meterRegistry);
+
+        for (int i = 0; i < 200; i++) {
+            bulkhead.call(() -> "ok");
+            assertThat(gauge(IoBulkhead.ACTIVE_METRIC)).isZero();
+        }
+    }
+
+    @Test
+    void call_ShouldPropagateTheCheckedExceptionOfTheCall() {
+        bulkhead = new IoBulkhead("payment", new Spec(1, 1, RejectionPolicy.ABORT), false, meterRegistry);
+
+        assertThatThrownBy(() ->
+                bulkhead.call(() -> {
+                    throw new IOException("Connection reset");
+                })
+            )
+            .isInstanceOf(IOException.class)
+            .hasMessage("Connection reset");
+    }
+
+    @Test
+    void execute_ShouldRejectWhenThePoolAndQueueAreFull() throws Exception {
+        bulkhead = new IoBulkhead("identity", new Spec(1, 1, RejectionPolicy.ABORT), false, meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        bulkhead.execute(() -> {
+            started.countDown();
+            await(release);
+        });
+        started.await(5, TimeUnit.SECONDS);
+        bulkhead.execute(() -> await(release));
+
+        assertThatThrownBy(() -> bulkhead.call(() -> "rejected")).isInstanceOf(BulkheadFullException.class);
+
+        assertThat(gauge(IoBulkhead.ACTIVE_METRIC)).isEqualTo(1);
+        assertThat(gauge(IoBulkhead.QUEUED_METRIC)).isEqualTo(1);
+        assertThat(meterRegistry.get(IoBulkhead.REJECTED_METRIC).tag("name", "identity").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_ShouldRunInTheCallerWhenFullWithCallerRuns() throws Exception {
+        bulkhead = new IoBulkhead("payment", new Spec(1, 1, RejectionPolicy.CALLER_RUNS), false, meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        bulkhead.execute(() -> {
+            started.countDown();
+            await(release);
+        });
+        started.await(5, TimeUnit.SECONDS);
+        bulkhead.execute(() -> await(release));
+
+        String thread = bulkhead.call(() -> Thread.currentThread().getName());
+
+        assertThat(thread).isEqualTo(Thread.currentThread().getName());
+        assertThat(meterRegistry.get(IoBulkhead.REJECTED_METRIC).tag("name", "payment").counter().count()).isEqualTo(1);
+    }
+
+    private double gauge(String metric) {
+        return meterRegistry.get(metric).tag("name", bulkhead.getName()).gauge().value();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
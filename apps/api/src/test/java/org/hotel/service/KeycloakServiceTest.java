@@ -0,0 +1,235 @@
+package org.hotel.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.hotel.config.ApplicationProperties;
+import org.hotel.config.KeycloakAdminConfiguration;
+import org.hotel.security.AuthoritiesConstants;
+import org.hotel.service.dto.AdminUserDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.Keycloak;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link KeycloakService} contra un Keycloak simulado en local: cuenta las peticiones de token que hace el cliente compartido.
+ */
+class KeycloakServiceTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(KeycloakServiceTest.class);
+
+    private static final String REALM = "hotel";
+
+    private final List<String> tokenGrants = new CopyOnWriteArrayList<>();
+
+    private final List<String> adminRequests = new CopyOnWriteArrayList<>();
+
+    private HttpServer server;
+
+    private int tokenExpiresIn = 300;
+
+    private int similarGroups = 0;
+
+    private ApplicationProperties applicationProperties;
+
+    private MeterRegistry meterRegistry;
+
+    private Keycloak keycloak;
+
+    private IoBulkhead identityBulkhead;
+
+    @BeforeEach
+    void startStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/realms/" + REALM + "/protocol/openid-connect/token", exchange -> {
+            String form = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            tokenGrants.add(form.contains("grant_type=refresh_token") ? "refresh_token" : "password");
+            respond(
+                exchange,
+                200,
+                "{\"access_token\":\"admin-token\",\"token_type\":\"Bearer\",\"expires_in\":" +
+                tokenExpiresIn +
+                ",\"refresh_token\":\"refresh\",\"refresh_expires_in\":1800}"
+            );
+        });
+        server.createContext("/admin/realms/" + REALM + "/users", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            adminRequests.add(exchange.getRequestMethod() + " " + path);
+            if (path.endsWith("/count")) {
+                respond(exchange, 200, "3");
+            } else if ("DELETE".equals(exchange.getRequestMethod())) {
+                respond(exchange, 204, null);
+            } else {
+                respondPage(
+                    exchange,
+                    List.of(
+                        "{\"id\":\"u-1\",\"username\":\"maria\",\"enabled\":true}",
+                        "{\"id\":\"u-2\",\"username\":\"jose\",\"enabled\":true}",
+                        "{\"id\":\"u-3\",\"username\":\"carla\",\"enabled\":false}"
+                    )
+                );
+            }
+        });
+        server.createContext("/admin/realms/" + REALM + "/groups", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            adminRequests.add(exchange.getRequestMethod() + " " + path);
+            if (path.endsWith("/g-Employees/members")) {
+                respondPage(exchange, List.of("{\"id\":\"u-1\"}", "{\"id\":\"u-2\"}"));
+            } else if (path.endsWith("/members")) {
+                respondPage(exchange, List.of());
+            } else {
+                // La búsqueda es por subcadena: primero los grupos cuyo nombre solo contiene el buscado
+                String name = queryParam(exchange, "search");
+                List<String> groups = new ArrayList<>();
+                for (int i = 0; i < similarGroups; i++) {
+                    groups.add("{\"id\":\"g-old-" + i + "\",\"name\":\"" + name + " old " + i + "\"}");
+                }
+                groups.add("{\"id\":\"g-" + name + "\",\"name\":\"" + name + "\"}");
+                respondPage(exchange, groups);
+            }
+        });
+        server.start();
+
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getKeycloak().setServerUrl("http://127.0.0.1:" + server.getAddress().getPort());
+        applicationProperties.getKeycloak().setRealm(REALM);
+        applicationProperties.getKeycloak().setUsername("admin");
+        applicationProperties.getKeycloak().setPassword("admin");
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void stopStubServer() {
+        if (keycloak != null) {
+            keycloak.close();
+        }
+        if (identityBulkhead != null) {
+            identityBulkhead.destroy();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    void adminOperations_ShouldReuseOneTokenAcrossCalls() {
+        KeycloakService keycloakService = newKeycloakService();
+
+        assertThat(keycloakService.countUsers()).isEqualTo(3);
+        assertThat(keycloakService.countUsers()).isEqualTo(3);
+        assertThat(keycloakService.deleteUserByUsername("maria")).isTrue();
+
+        // Con un cliente nuevo por operación serían 3 password grants (uno por operación)
+        LOG.info("3 admin operations: {} token requests, {} admin requests", tokenGrants.size(), adminRequests.size());
+        assertThat(tokenGrants).containsExactly("password");
+        assertThat(adminRequests).hasSize(4);
+        assertThat(requestCount("token")).isEqualTo(1);
+        assertThat(requestCount("admin")).isEqualTo(4);
+        assertThat(meterRegistry.get(KeycloakService.OPERATIONS_METRIC).tag("operation", "count-users").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(KeycloakService.OPERATIONS_METRIC).tag("operation", "delete-user").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(IoBulkhead.ACTIVE_METRIC).tag("name", "identity").gauge().value()).isZero();
+        assertThat(meterRegistry.get(IoBulkhead.REJECTED_METRIC).tag("name", "identity").counter().count()).isZero();
+    }
+
+    @Test
+    void adminOperations_ShouldRefreshTokenBeforeItExpires() {
+        // El token dura menos que la validez mínima exigida: cada operación lo renueva con el refresh token
+        tokenExpiresIn = 20;
+        applicationProperties.getKeycloak().setTokenMinValidity(Duration.ofSeconds(30));
+        KeycloakService keycloakService = newKeycloakService();
+
+        keycloakService.countUsers();
+        keycloakService.countUsers();
+
+        assertThat(tokenGrants).containsExactly("password", "refresh_token");
+    }
+
+    @Test
+    void fetchDirectory_ShouldResolveGroupsPerGroupInsteadOfPerUser() {
+        KeycloakService keycloakService = newKeycloakService();
+
+        List<AdminUserDTO> directory = keycloakService.fetchDirectory(100);
+
+        assertThat(directory).extracting(AdminUserDTO::getLogin).containsExactly("maria", "jose", "carla");
+        assertThat(directory.get(0).getAuthorities()).containsExactly(AuthoritiesConstants.EMPLOYEE);
+        assertThat(directory.get(2).getAuthorities()).isEmpty();
+        assertThat(directory.get(2).isActivated()).isFalse();
+        // 1 página de usuarios + (búsqueda + miembros) por cada uno de los 3 grupos, sin importar cuántos usuarios haya
+        assertThat(adminRequests).hasSize(1 + 2 * KeycloakService.GROUP_AUTHORITIES.size());
+    }
+
+    @Test
+    void fetchDirectory_ShouldPageThroughGroupSearchResultsAndMembers() {
+        similarGroups = 3;
+        KeycloakService keycloakService = newKeycloakService();
+
+        List<AdminUserDTO> directory = keycloakService.fetchDirectory(2);
+
+        assertThat(directory).extracting(AdminUserDTO::getLogin).containsExactly("maria", "jose", "carla");
+        assertThat(directory.get(0).getAuthorities()).containsExactly(AuthoritiesConstants.EMPLOYEE);
+        assertThat(directory.get(1).getAuthorities()).containsExactly(AuthoritiesConstants.EMPLOYEE);
+        // Cada grupo aparece en la segunda página de su búsqueda
+        assertThat(adminRequests.stream().filter(request -> request.endsWith("/groups"))).hasSize(2 * KeycloakService.GROUP_AUTHORITIES.size());
+    }
+
+    /**
+     * Peticiones HTTP medidas para un endpoint (hay un timer por método y estado).
+     */
+    private long requestCount(String endpoint) {
+        return meterRegistry.get(KeycloakAdminConfiguration.REQUESTS_METRIC).tag("endpoint", endpoint).timers().stream().mapToLong(Timer::count).sum();
+    }
+
+    private KeycloakService newKeycloakService() {
+        keycloak = new KeycloakAdminConfiguration(applicationProperties).keycloakAdminClient(meterRegistry);
+        identityBulkhead = new IoBulkhead("identity", applicationProperties.getBulkheads().getIdentity(), false, meterRegistry);
+        return new KeycloakService(applicationProperties, keycloak, meterRegistry, identityBulkhead);
+    }
+
+    /**
+     * Responde la página pedida con {@code first} y {@code max}, como la API de administración.
+     */
+    private static void respondPage(HttpExchange exchange, List<String> items) throws IOException {
+        String first = queryParam(exchange, "first");
+        String max = queryParam(exchange, "max");
+        int from = first == null ? 0 : Math.min(items.size(), Integer.parseInt(first));
+        int to = max == null ? items.size() : Math.min(items.size(), from + Integer.parseInt(max));
+        respond(exchange, 200, "[" + String.join(",", items.subList(from, to)) + "]");
+    }
+
+    private static String queryParam(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            if (pair.startsWith(name + "=")) {
+                return pair.substring(name.length() + 1);
+            }
+        }
+        return null;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        if (json == null) {
+            exchange.sendResponseHeaders(status, -1);
+        } else {
+            byte[] body = json.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+        }
+        exchange.close();
+    }
+}
@@ -0,0 +1,205 @@
+package org.hotel.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import org.hotel.config.ApplicationProperties;
+import org.hotel.domain.MailOutbox;
+import org.hotel.domain.enumeration.CustomerEmailType;
+import org.hotel.domain.enumeration.MailOutboxStatus;
+import org.hotel.repository.MailOutboxRepository;
+import org.hotel.service.CustomerEmailRenderer.RenderedEmail;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.MailSendException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class MailOutboxDispatcherTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-17T10:00:00Z");
+
+    @Mock
+    private MailOutboxRepository mailOutboxRepository;
+
+    @Mock
+    private CustomerEmailRenderer renderer;
+
+    @Mock
+    private MailService mailService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private IoBulkhead mailBulkhead;
+
+    private MeterRegistry meterRegistry;
+
+    private MailOutboxDispatcher dispatcher;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        dispatcher = new MailOutboxDispatcher(
+            mailOutboxRepository,
+            renderer,
+            mailService,
+            objectMapper,
+            transactionManager,
+            new ApplicationProperties(),
+            meterRegistry,
+            mailBulkhead,
+            Clock.fixed(NOW, ZoneOffset.UTC)
+        );
+    }
+
+    @Test
+    void drain_ShouldSendTheBatchInOneCallAndDeleteTheSentRows() throws Exception {
+        MailOutbox created = mail(1L, CustomerEmailType.BOOKING_CREATED, 0);
+        MailOutbox approved = mail(2L, CustomerEmailType.BOOKING_APPROVED, 0);
+        when(mailOutboxRepository.findDueForUpdate(eq(MailOutboxStatus.PENDING), eq(NOW), any())).thenReturn(List.of(created, approved));
+        when(renderer.renderAsync(any())).thenReturn(CompletableFuture.completedFuture(new RenderedEmail("Asunto", "<p>Hola</p>")));
+        MimeMessage first = message();
+        MimeMessage second = message();
+        when(mailService.createHtmlMessage("maria@hotel.test", "Asunto", "<p>Hola</p>")).thenReturn(first, second);
+        when(mailService.sendBatch(List.of(first, second))).thenReturn(Map.of());
+
+        assertThat(dispatcher.drain()).isEqualTo(2);
+
+        verify(mailService).sendBatch(List.of(first, second));
+        verify(mailOutboxRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        assertThat(meterRegistry.get(MailOutboxDispatcher.SENT_METRIC).tag("type", "BOOKING_CREATED").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(MailOutboxDispatcher.BATCH_METRIC).timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void drain_ShouldRetryAFailedEmailWithExponentialBackoff() throws Exception {
+        MailOutbox failing = mail(1L, CustomerEmailType.BOOKING_CREATED, 2);
+        when(mailOutboxRepository.findDueForUpdate(eq(MailOutboxStatus.PENDING), eq(NOW), any())).thenReturn(List.of(failing));
+        when(renderer.renderAsync(any())).thenReturn(CompletableFuture.completedFuture(new RenderedEmail("Asunto", "<p>Hola</p>")));
+        MimeMessage message = message();
+        when(mailService.createHtmlMessage("maria@hotel.test", "Asunto", "<p>Hola</p>")).thenReturn(message);
+        when(mailService.sendBatch(List.of(message))).thenReturn(Map.of(message, new MailSendException("Connection refused")));
+        when(mailOutboxRepository.findById(1L)).thenReturn(Optional.of(failing));
+
+        dispatcher.drain();
+
+        // Tercer intento: 1 min * 2^2
+        assertThat(failing.getAttempts()).isEqualTo(3);
+        assertThat(failing.getNextAttemptAt()).isEqualTo(NOW.plus(Duration.ofMinutes(4)));
+        assertThat(failing.getStatus()).isEqualTo(MailOutboxStatus.PENDING);
+        assertThat(failing.getLastError()).isEqualTo("Connection refused");
+        verify(mailOutboxRepository).deleteAllByIdInBatch(List.of());
+        assertThat(meterRegistry.get(MailOutboxDispatcher.RETRIED_METRIC).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void drain_ShouldGiveUpAfterTheLastAttempt() throws Exception {
+        MailOutbox failing = mail(1L, CustomerEmailType.BOOKING_APPROVED, 7);
+        when(mailOutboxRepository.findDueForUpdate(eq(MailOutboxStatus.PENDING), eq(NOW), any())).thenReturn(List.of(failing));
+        when(renderer.renderAsync(any())).thenReturn(CompletableFuture.completedFuture(new RenderedEmail("Asunto", "<p>Hola</p>")));
+        MimeMessage message = message();
+        when(mailService.createHtmlMessage("maria@hotel.test", "Asunto", "<p>Hola</p>")).thenReturn(message);
+        when(mailService.sendBatch(List.of(message))).thenReturn(Map.of(message, new MailSendException("Mailbox unavailable")));
+        when(mailOutboxRepository.findById(1L)).thenReturn(Optional.of(failing));
+
+        dispatcher.drain();
+
+        assertThat(failing.getStatus()).isEqualTo(MailOutboxStatus.FAILED);
+        assertThat(meterRegistry.get(MailOutboxDispatcher.FAILED_METRIC).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void drain_ShouldGiveUpOnAnUnreadablePayload() {
+        MailOutbox unreadable = mail(1L, CustomerEmailType.BOOKING_DECLINED, 0);
+        unreadable.setPayload("{");
+        when(mailOutboxRepository.findDueForUpdate(eq(MailOutboxStatus.PENDING), eq(NOW), any())).thenReturn(List.of(unreadable));
+
+        assertThat(dispatcher.drain()).isZero();
+
+        assertThat(unreadable.getStatus()).isEqualTo(MailOutboxStatus.FAILED);
+        verify(renderer, never()).renderAsync(any());
+        verify(mailService, never()).sendBatch(any());
+    }
+
+    @Test
+    void drain_ShouldRetryAnEmailThatFailedToRender() {
+        MailOutbox broken = mail(1L, CustomerEmailType.BOOKING_APPROVED, 0);
+        when(mailOutboxRepository.findDueForUpdate(eq(MailOutboxStatus.PENDING), eq(NOW), any())).thenReturn(List.of(broken));
+        when(renderer.renderAsync(any())).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Template error")));
+        when(mailOutboxRepository.findById(1L)).thenReturn(Optional.of(broken));
+
+        dispatcher.drain();
+
+        assertThat(broken.getLastError()).isEqualTo("Template error");
+        assertThat(broken.getNextAttemptAt()).isEqualTo(NOW.plus(Duration.ofMinutes(1)));
+        verify(mailService, never()).sendBatch(any());
+    }
+
+    @Test
+    void requestDrain_ShouldLeaveTheDrainToThePollWhenTheMailBulkheadIsFull() {
+        doThrow(new BulkheadFullException("Too many concurrent calls to mail", null)).when(mailBulkhead).execute(any());
+
+        dispatcher.requestDrain();
+        dispatcher.requestDrain();
+
+        // Cada petición lo vuelve a intentar: un rechazo no deja el despacho marcado como pedido
+        verify(mailBulkhead, times(2)).execute(any());
+        verify(mailOutboxRepository, never()).findDueForUpdate(any(), any(), any());
+    }
+
+    @Test
+    void backoff_ShouldDoubleUpToTheMaximum() {
+        assertThat(dispatcher.backoff(1)).isEqualTo(Duration.ofMinutes(1));
+        assertThat(dispatcher.backoff(3)).isEqualTo(Duration.ofMinutes(4));
+        assertThat(dispatcher.backoff(30)).isEqualTo(Duration.ofHours(1));
+    }
+
+    private static MailOutbox mail(Long id, CustomerEmailType type, int attempts) {
+        MailOutbox mail = new MailOutbox();
+        mail.setId(id);
+        mail.setType(type);
+        mail.setRecipient("maria@hotel.test");
+        mail.setBookingId(7L);
+        mail.setStatus(MailOutboxStatus.PENDING);
+        mail.setAttempts(attempts);
+        mail.setNextAttemptAt(NOW);
+        mail.setCreatedAt(NOW.minusSeconds(5));
+        mail.setPayload(
+            "{\"type\":\"" +
+            type +
+            "\",\"user\":{\"firstName\":\"María\",\"email\":\"maria@hotel.test\",\"langKey\":\"es\",\"admin\":false}," +
+            "\"booking\":{\"code\":\"RES-1\",\"checkInDate\":\"2026-11-02\",\"checkOutDate\":\"2026-11-05\",\"guestCount\":2}}"
+        );
+        return mail;
+    }
+
+    private static MimeMessage message() {
+        return new MimeMessage((Session) null);
+    }
+}
@@ -0,0 +1,145 @@
+package org.hotel.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.paypal.sdk.Environment;
+import com.paypal.sdk.PaypalServerSdkClient;
+import com.paypal.sdk.authentication.ClientCredentialsAuthModel;
+import com.paypal.sdk.exceptions.ApiException;
+import com.paypal.sdk.models.AmountWithBreakdown;
+import com.paypal.sdk.models.CaptureOrderInput;
+import com.paypal.sdk.models.CheckoutPaymentIntent;
+import com.paypal.sdk.models.CreateOrderInput;
+import com.paypal.sdk.models.Order;
+import com.paypal.sdk.models.OrderRequest;
+import com.paypal.sdk.models.OrderStatus;
+import com.paypal.sdk.models.PurchaseUnitRequest;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetricsPublisher;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import org.hotel.config.ApplicationProperties.Bulkheads.RejectionPolicy;
+import org.hotel.config.ApplicationProperties.Bulkheads.Spec;
+import org.hotel.config.FakePaypalServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pasarela contra {@link FakePaypalServer}: el SDK real habla HTTP con el PayPal falso.
+ */
+class PaypalPaymentGatewayTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private FakePaypalServer paypal;
+
+    private IoBulkhead paymentBulkhead;
+
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    private PaypalPaymentGateway gateway;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        paypal = new FakePaypalServer(0, Duration.ZERO);
+        paypal.start();
+        PaypalServerSdkClient client = new PaypalServerSdkClient.Builder()
+            .clientCredentialsAuth(new ClientCredentialsAuthModel.Builder("client", "secret").build())
+            .environment(Environment.SANDBOX)
+            .httpClientConfig(config -> config.timeout(5).httpClientInstance(paypal.httpClient()))
+            .build();
+        paymentBulkhead = new IoBulkhead("payment", new Spec(2, 2, RejectionPolicy.ABORT), false, meterRegistry);
+        circuitBreakerRegistry = CircuitBreakerRegistry.custom()
+            .withCircuitBreakerConfig(
+                CircuitBreakerConfig.custom()
+                    .slidingWindowSize(4)
+                    .minimumNumberOfCalls(2)
+                    .failureRateThreshold(50)
+                    .waitDurationInOpenState(Duration.ofMinutes(1))
+                    .ignoreExceptions(ApiException.class, BulkheadFullException.class)
+                    .build()
+            )
+            .addRegistryEventConsumer(new TaggedCircuitBreakerMetricsPublisher(meterRegistry))
+            .build();
+        TimeLimiterRegistry timeLimiterRegistry = TimeLimiterRegistry.of(TimeLimiterConfig.custom().timeoutDuration(Duration.ofSeconds(2)).build());
+        gateway = new PaypalPaymentGateway(client, paymentBulkhead, circuitBreakerRegistry, timeLimiterRegistry, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        paymentBulkhead.destroy();
+        paypal.stop();
+    }
+
+    @Test
+    void captureOrder_ShouldCompleteAnOrderCreatedOnTheFakeServer() throws Exception {
+        Order created = gateway.createOrder(orderInput("450.00"));
+        Order captured = gateway.captureOrder(new CaptureOrderInput.Builder(created.getId(), "application/json").paypalRequestId(created.getId()).build());
+
+        assertThat(created.getStatus()).isEqualTo(OrderStatus.CREATED);
+        assertThat(captured.getId()).isEqualTo(created.getId());
+        assertThat(captured.getStatus()).isEqualTo(OrderStatus.COMPLETED);
+        assertThat(captured.getPurchaseUnits().get(0).getAmount().getValue()).isEqualTo("450.00");
+        assertThat(meterRegistry.get(PaypalPaymentGateway.METRIC).tag("operation", "capture-order").tag("outcome", "success").timer().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void captureOrder_ShouldPassRejectionsThroughWithoutCountingThemAsFailures() {
+        assertThatThrownBy(() -> gateway.captureOrder(new CaptureOrderInput.Builder("UNKNOWN", "application/json").build()))
+            .isInstanceOf(ApiException.class);
+        assertThatThrownBy(() -> gateway.captureOrder(new CaptureOrderInput.Builder("UNKNOWN", "application/json").build()))
+            .isInstanceOf(ApiException.class);
+
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(PaypalPaymentGateway.CIRCUIT_BREAKER);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(circuitBreaker.getMetrics().getNumberOfFailedCalls()).isZero();
+    }
+
+    @Test
+    void createOrder_ShouldGiveUpWhenPaypalIsSlow() {
+        paypal.setLatency(Duration.ofSeconds(5));
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> gateway.createOrder(orderInput("10.00")))
+            .isInstanceOf(PaymentGatewayUnavailableException.class)
+            .hasMessageContaining("in time");
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(4));
+        assertThat(meterRegistry.get(PaypalPaymentGateway.METRIC).tag("outcome", "timeout").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void createOrder_ShouldFailFastOnceTheCircuitIsOpen() {
+        paypal.setFailing(true);
+        assertThatThrownBy(() -> gateway.createOrder(orderInput("10.00"))).isInstanceOf(PaymentGatewayUnavailableException.class);
+        assertThatThrownBy(() -> gateway.createOrder(orderInput("10.00"))).isInstanceOf(PaymentGatewayUnavailableException.class);
+        int requests = paypal.getRequestCount();
+
+        assertThatThrownBy(() -> gateway.createOrder(orderInput("10.00")))
+            .isInstanceOf(PaymentGatewayUnavailableException.class)
+            .hasCauseInstanceOf(CallNotPermittedException.class);
+
+        assertThat(paypal.getRequestCount()).isEqualTo(requests);
+        assertThat(
+            meterRegistry.get("resilience4j.circuitbreaker.state").tag("name", PaypalPaymentGateway.CIRCUIT_BREAKER).tag("state", "open").gauge().value()
+        ).isEqualTo(1.0);
+    }
+
+    private static CreateOrderInput orderInput(String amount) {
+        OrderRequest request = new OrderRequest.Builder(
+            CheckoutPaymentIntent.CAPTURE,
+            List.of(new PurchaseUnitRequest.Builder(new AmountWithBreakdown.Builder("USD", amount).build()).referenceId("INV-1").build())
+        ).build();
+        return new CreateOrderInput.Builder("application/json", request).build();
+    }
+}
@@ -0,0 +1,104 @@
+package org.hotel.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import org.hotel.config.ApplicationProperties;
+import org.hotel.domain.AssetCollection;
+import org.hotel.repository.AssetCollectionRepository;
+import org.hotel.service.dto.WebContentDTO;
+import org.hotel.web.rest.errors.BusinessRuleException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+@ExtendWith(MockitoExtension.class)
+class PublicContentBundleServiceTest {
+
+    @Mock
+    private WebContentService webContentService;
+
+    @Mock
+    private AssetCollectionRepository assetCollectionRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ApplicationProperties applicationProperties;
+
+    private CacheManager cacheManager;
+
+    private PublicContentBundleService bundleService;
+
+    @BeforeEach
+    void setUp() {
+        applicationProperties = new ApplicationProperties();
+        cacheManager = new ConcurrentMapCacheManager(PublicContentBundleService.PUBLIC_CONTENT_BUNDLES_CACHE);
+        bundleService = new PublicContentBundleService(
+            webContentService,
+            assetCollectionRepository,
+            objectMapper,
+            cacheManager,
+            applicationProperties
+        );
+    }
+
+    @Test
+    void getBundle_ShouldServeStoredBytesUntilTheBundlesAreEvicted() throws Exception {
+        WebContentDTO hero = new WebContentDTO();
+        hero.setTitle("Bienvenido");
+        when(webContentService.findActiveByCollectionCode("HOME_HERO")).thenReturn(List.of(hero));
+        when(webContentService.findActiveByCollectionCode("HOME_GALLERY")).thenReturn(List.of());
+        when(assetCollectionRepository.findByCode("HOME_HERO")).thenReturn(Optional.empty());
+        when(assetCollectionRepository.findByCode("HOME_GALLERY")).thenReturn(Optional.of(new AssetCollection().isActive(false)));
+        List<String> codes = bundleService.normalizeCodes(List.of("HOME_HERO", "HOME_GALLERY"));
+
+        PublicContentBundleService.Bundle first = bundleService.getBundle(codes);
+        PublicContentBundleService.Bundle second = bundleService.getBundle(codes);
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.etag()).isEqualTo(ContentEtag.of(first.json()));
+        JsonNode json = objectMapper.readTree(first.json());
+        assertThat(json.get("HOME_HERO").get("active").asBoolean()).isTrue();
+        assertThat(json.get("HOME_HERO").get("items").get(0).get("title").asText()).isEqualTo("Bienvenido");
+        assertThat(json.get("HOME_GALLERY").get("active").asBoolean()).isFalse();
+        verify(webContentService, times(1)).findActiveByCollectionCode("HOME_HERO");
+
+        when(webContentService.findActiveByCollectionCode("HOME_GALLERY")).thenReturn(List.of(hero));
+        cacheManager.getCache(PublicContentBundleService.PUBLIC_CONTENT_BUNDLES_CACHE).clear();
+        PublicContentBundleService.Bundle rebuilt = bundleService.getBundle(codes);
+
+        assertThat(rebuilt).isNotSameAs(first);
+        assertThat(rebuilt.etag()).isNotEqualTo(first.etag());
+        verify(webContentService, times(2)).findActiveByCollectionCode("HOME_HERO");
+    }
+
+    @Test
+    void normalizeCodes_ShouldSortDeduplicateAndDefaultToHomeBundle() {
+        assertThat(bundleService.normalizeCodes(Arrays.asList(" HOME_HERO", "FOOTER_INFO", "HOME_HERO", "", null))).containsExactly(
+            "FOOTER_INFO",
+            "HOME_HERO"
+        );
+        assertThat(bundleService.normalizeCodes(null)).containsExactlyInAnyOrderElementsOf(
+            applicationProperties.getPublicContent().getHomeBundle()
+        );
+    }
+
+    @Test
+    void normalizeCodes_ShouldRejectTooManyCollections() {
+        applicationProperties.getPublicContent().setMaxBundleCodes(2);
+
+        assertThatThrownBy(() -> bundleService.normalizeCodes(List.of("A", "B", "C"))).isInstanceOf(BusinessRuleException.class);
+    }
+}
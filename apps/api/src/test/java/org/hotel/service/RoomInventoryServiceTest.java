@@ -0,0 +1,119 @@
+package org.hotel.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.longThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.hotel.config.ApplicationProperties;
+import org.hotel.domain.Booking;
+import org.hotel.domain.BookingItem;
+import org.hotel.domain.RoomType;
+import org.hotel.domain.enumeration.BookingStatus;
+import org.hotel.repository.BookingRepository;
+import org.hotel.repository.RoomRepository;
+import org.hotel.repository.RoomTypeInventoryRepository;
+import org.hotel.repository.RoomTypeRepository;
+import org.hotel.service.RoomInventoryService.InventoryHold;
+import org.hotel.web.rest.errors.BusinessRuleException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class RoomInventoryServiceTest {
+
+    private static final LocalDate CHECK_IN = LocalDate.of(2026, 11, 1);
+    private static final LocalDate CHECK_OUT = LocalDate.of(2026, 11, 4);
+
+    @Mock
+    private RoomTypeInventoryRepository roomTypeInventoryRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private RoomRepository roomRepository;
+
+    @Mock
+    private RoomTypeRepository roomTypeRepository;
+
+    private RoomInventoryService roomInventoryService;
+
+    @BeforeEach
+    void setUp() {
+        roomInventoryService = new RoomInventoryService(
+            roomTypeInventoryRepository,
+            bookingRepository,
+            roomRepository,
+            roomTypeRepository,
+            new ApplicationProperties()
+        );
+    }
+
+    @Test
+    void hold_ShouldCountRoomsPerTypeAndIgnoreCancelledBookings() {
+        Booking booking = new Booking().checkInDate(CHECK_IN).checkOutDate(CHECK_OUT).status(BookingStatus.PENDING_APPROVAL);
+        booking.addBookingItems(new BookingItem().roomType(new RoomType().id(1L)));
+        booking.addBookingItems(new BookingItem().roomType(new RoomType().id(1L)));
+        booking.addBookingItems(new BookingItem().roomType(new RoomType().id(2L)));
+
+        assertThat(InventoryHold.of(booking)).isEqualTo(new InventoryHold(CHECK_IN, CHECK_OUT, Map.of(1L, 2, 2L, 1)));
+
+        booking.setStatus(BookingStatus.CANCELLED);
+        assertThat(InventoryHold.of(booking)).isEqualTo(InventoryHold.NONE);
+    }
+
+    @Test
+    void apply_ShouldReleasePreviousNightsAndReserveNewOnes() {
+        InventoryHold previous = new InventoryHold(CHECK_IN, CHECK_OUT, Map.of(1L, 1));
+        InventoryHold next = new InventoryHold(CHECK_IN.plusDays(1), CHECK_OUT.plusDays(1), Map.of(1L, 1));
+        when(roomTypeInventoryRepository.reserveNights(1L, next.checkIn(), next.checkOut(), 1)).thenReturn(3);
+
+        roomInventoryService.apply(previous, next);
+
+        verify(roomTypeInventoryRepository).releaseNights(1L, CHECK_IN, CHECK_OUT, 1);
+        verify(roomTypeInventoryRepository).createMissingNights(1L, next.checkIn(), next.checkOut());
+    }
+
+    @Test
+    void apply_ShouldFailWhenAnyNightIsFull() {
+        InventoryHold next = new InventoryHold(CHECK_IN, CHECK_OUT, Map.of(1L, 1));
+        when(roomTypeInventoryRepository.reserveNights(any(), any(), any(), any(Integer.class))).thenReturn(2);
+        when(roomTypeRepository.findById(1L)).thenReturn(Optional.of(new RoomType().id(1L).name("Suite")));
+
+        assertThatThrownBy(() -> roomInventoryService.apply(InventoryHold.NONE, next))
+            .isInstanceOf(BusinessRuleException.class)
+            .hasMessageContaining("Suite");
+    }
+
+    @Test
+    void lockRoomTypes_ShouldLockEachTypeOnceInAscendingOrder() {
+        roomInventoryService.lockRoomTypes(List.of(7L, 3L, 7L));
+
+        InOrder inOrder = inOrder(roomTypeInventoryRepository);
+        inOrder.verify(roomTypeInventoryRepository).lockTransactionScoped(longThat(key -> (key & 0xFFFFFFFFL) == 3L));
+        inOrder.verify(roomTypeInventoryRepository).lockTransactionScoped(longThat(key -> (key & 0xFFFFFFFFL) == 7L));
+        inOrder.verifyNoMoreInteractions();
+    }
+
+    @Test
+    void apply_ShouldSkipUnchangedHolds() {
+        InventoryHold hold = new InventoryHold(CHECK_IN, CHECK_OUT, Map.of(1L, 1));
+
+        roomInventoryService.apply(hold, new InventoryHold(CHECK_IN, CHECK_OUT, Map.of(1L, 1)));
+
+        verifyNoInteractions(roomTypeInventoryRepository);
+    }
+}
@@ -0,0 +1,152 @@
+package org.hotel.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.hotel.IntegrationTest;
+import org.hotel.domain.Customer;
+import org.hotel.domain.Room;
+import org.hotel.domain.RoomType;
+import org.hotel.domain.enumeration.BookingStatus;
+import org.hotel.domain.enumeration.RoomStatus;
+import org.hotel.service.dto.BookingDTO;
+import org.hotel.service.dto.BookingItemDTO;
+import org.hotel.service.dto.CustomerDTO;
+import org.hotel.service.dto.RoomDTO;
+import org.hotel.service.dto.RoomTypeDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Sentencias SQL de un ciclo completo de reserva (crear → aprobar → facturar) con y sin caché de segundo nivel.
+ * Cada paso se ejecuta con el contexto de persistencia vacío, como si fuera una petición distinta.
+ */
+@IntegrationTest
+@Transactional
+@TestPropertySource(
+    properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.region.factory_class=jcache",
+        "spring.jpa.properties.hibernate.cache.auto_evict_collection_cache=true",
+        "spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy=fail",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+    }
+)
+class SecondLevelCacheIT {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SecondLevelCacheIT.class);
+
+    private static final int ROOMS = 3;
+
+    private static final LocalDate FIRST_CHECK_IN = LocalDate.now().plusDays(40);
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Room> rooms = new ArrayList<>();
+    private RoomType roomType;
+    private Customer customer;
+    private int cycles;
+
+    @BeforeEach
+    void initTest() {
+        roomType = new RoomType().name("Cache L2").basePrice(BigDecimal.TEN).maxCapacity(2);
+        em.persist(roomType);
+        for (int i = 0; i < ROOMS; i++) {
+            Room room = new Room().roomNumber("L2-" + i).status(RoomStatus.AVAILABLE).roomType(roomType);
+            em.persist(room);
+            rooms.add(room);
+        }
+        customer = new Customer().firstName("Cache").lastName("Segundo Nivel").licenseId("L2-001").birthDate(LocalDate.of(1990, 1, 1));
+        em.persist(customer);
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void bookingCycle_ShouldIssueFewerStatementsWithSecondLevelCache() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Session session = em.unwrap(Session.class);
+
+        // Calentamiento: carga tipos de habitación y autoridades en la caché
+        runCycle();
+
+        session.setCacheMode(CacheMode.IGNORE);
+        statistics.clear();
+        runCycle();
+        long uncachedStatements = statistics.getPrepareStatementCount();
+
+        session.setCacheMode(CacheMode.NORMAL);
+        statistics.clear();
+        runCycle();
+        long cachedStatements = statistics.getPrepareStatementCount();
+        long hits = statistics.getSecondLevelCacheHitCount();
+
+        LOG.info("Booking create -> approve -> invoice: {} statements without L2 cache, {} with L2 cache ({} hits)", uncachedStatements, cachedStatements, hits);
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            LOG.info("  region {}: {}", region, statistics.getDomainDataRegionStatistics(region));
+        }
+
+        assertThat(hits).isPositive();
+        assertThat(cachedStatements).isLessThan(uncachedStatements);
+    }
+
+    private void runCycle() {
+        LocalDate checkIn = FIRST_CHECK_IN.plusDays(10L * cycles++);
+
+        BookingDTO created = bookingService.save(bookingFor(checkIn, checkIn.plusDays(2)));
+        em.flush();
+        em.clear();
+
+        BookingDTO approved = bookingService.approveBooking(created.getId());
+        em.flush();
+        em.clear();
+
+        assertThat(approved.getStatus()).isEqualTo(BookingStatus.PENDING_PAYMENT);
+    }
+
+    private BookingDTO bookingFor(LocalDate checkIn, LocalDate checkOut) {
+        CustomerDTO customerDTO = new CustomerDTO();
+        customerDTO.setId(customer.getId());
+
+        List<BookingItemDTO> items = new ArrayList<>();
+        for (Room room : rooms) {
+            RoomTypeDTO roomTypeDTO = new RoomTypeDTO();
+            roomTypeDTO.setId(roomType.getId());
+            RoomDTO roomDTO = new RoomDTO();
+            roomDTO.setId(room.getId());
+            BookingItemDTO item = new BookingItemDTO();
+            item.setRoomType(roomTypeDTO);
+            item.setAssignedRoom(roomDTO);
+            items.add(item);
+        }
+
+        BookingDTO booking = new BookingDTO();
+        booking.setCheckInDate(checkIn);
+        booking.setCheckOutDate(checkOut);
+        booking.setGuestCount(2);
+        booking.setCustomer(customerDTO);
+        booking.setItems(items);
+        return booking;
+    }
+}
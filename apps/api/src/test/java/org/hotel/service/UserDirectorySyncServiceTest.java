@@ -0,0 +1,138 @@
+package org.hotel.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.hotel.config.ApplicationProperties;
+import org.hotel.domain.Authority;
+import org.hotel.domain.User;
+import org.hotel.repository.AuthorityRepository;
+import org.hotel.repository.UserRepository;
+import org.hotel.security.AuthoritiesConstants;
+import org.hotel.service.dto.AdminUserDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class UserDirectorySyncServiceTest {
+
+    @Mock
+    private KeycloakService keycloakService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private AuthorityRepository authorityRepository;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ApplicationProperties applicationProperties = new ApplicationProperties();
+
+    private UserDirectorySyncService syncService;
+
+    @BeforeEach
+    void setUp() {
+        applicationProperties.getKeycloak().getDirectorySync().setPageSize(2);
+        syncService = new UserDirectorySyncService(
+            keycloakService,
+            userRepository,
+            authorityRepository,
+            userService,
+            applicationProperties,
+            transactionManager
+        );
+        when(authorityRepository.findAllById(any())).thenReturn(
+            List.of(authority(AuthoritiesConstants.ADMIN), authority(AuthoritiesConstants.EMPLOYEE), authority(AuthoritiesConstants.CLIENT))
+        );
+    }
+
+    @Test
+    void sync_ShouldWriteOnlyDifferences() {
+        User unchanged = user("u-1", "ana", AuthoritiesConstants.CLIENT);
+        User renamedEmployee = user("u-2", "luis", AuthoritiesConstants.CLIENT, "ROLE_EXTERNAL");
+        User removedInKeycloak = user("u-3", "pedro", AuthoritiesConstants.CLIENT);
+        // Dos páginas de la réplica local, cada una con sus autoridades en una sola consulta
+        when(userRepository.findIdsAfter("", PageRequest.of(0, 2))).thenReturn(List.of("u-1", "u-2"));
+        when(userRepository.findAllWithAuthoritiesByIdIn(List.of("u-1", "u-2"))).thenReturn(List.of(unchanged, renamedEmployee));
+        when(userRepository.findIdsAfter("u-2", PageRequest.of(0, 2))).thenReturn(List.of("u-3"));
+        when(userRepository.findAllWithAuthoritiesByIdIn(List.of("u-3"))).thenReturn(List.of(removedInKeycloak));
+        when(keycloakService.fetchDirectory(2)).thenReturn(
+            List.of(
+                remote("u-1", "ana", "Ana", AuthoritiesConstants.CLIENT),
+                remote("u-2", "luis", "Luis Alberto", AuthoritiesConstants.EMPLOYEE),
+                remote("u-4", "sofia", "Sofia", AuthoritiesConstants.ADMIN)
+            )
+        );
+
+        UserDirectorySyncService.SyncResult result = syncService.sync();
+
+        assertThat(result).isEqualTo(new UserDirectorySyncService.SyncResult(1, 1, 1, 1));
+        // Cambia el grupo mapeado; la autoridad que no viene de grupos se conserva
+        assertThat(renamedEmployee.getFirstName()).isEqualTo("Luis Alberto");
+        assertThat(renamedEmployee.getAuthorities()).extracting(Authority::getName).containsExactlyInAnyOrder(
+            AuthoritiesConstants.EMPLOYEE,
+            "ROLE_EXTERNAL"
+        );
+        assertThat(removedInKeycloak.isActivated()).isFalse();
+
+        ArgumentCaptor<User> created = ArgumentCaptor.forClass(User.class);
+        verify(userRepository).save(created.capture());
+        assertThat(created.getValue().getId()).isEqualTo("u-4");
+        assertThat(created.getValue().getAuthorities()).extracting(Authority::getName).containsExactly(AuthoritiesConstants.ADMIN);
+        verify(userRepository, never()).findAll();
+        // Dos páginas locales y una de altas, cada una en su transacción
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    private static AdminUserDTO remote(String id, String login, String firstName, String authority) {
+        AdminUserDTO dto = new AdminUserDTO();
+        dto.setId(id);
+        dto.setLogin(login);
+        dto.setEmail(login + "@hotel.test");
+        dto.setFirstName(firstName);
+        dto.setLastName("Test");
+        dto.setActivated(true);
+        dto.setLangKey("es");
+        dto.setAuthorities(new HashSet<>(Set.of(authority)));
+        return dto;
+    }
+
+    private static User user(String id, String login, String... authorities) {
+        User user = new User();
+        user.setId(id);
+        user.setLogin(login);
+        user.setEmail(login + "@hotel.test");
+        user.setFirstName(login.substring(0, 1).toUpperCase() + login.substring(1));
+        user.setLastName("Test");
+        user.setActivated(true);
+        user.setLangKey("es");
+        for (String name : authorities) {
+            user.getAuthorities().add(authority(name));
+        }
+        return user;
+    }
+
+    private static Authority authority(String name) {
+        Authority authority = new Authority();
+        authority.setName(name);
+        return authority;
+    }
+}
@@ -0,0 +1,111 @@
+package org.hotel.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.hotel.domain.Authority;
+import org.hotel.domain.User;
+import org.hotel.repository.AuthorityRepository;
+import org.hotel.repository.UserRepository;
+import org.hotel.security.AuthoritiesConstants;
+import org.hotel.service.dto.AdminUserDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+@ExtendWith(MockitoExtension.class)
+class UserServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private AuthorityRepository authorityRepository;
+
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        userService = new UserService(
+            userRepository,
+            authorityRepository,
+            new ConcurrentMapCacheManager(UserService.USER_SYNC_FINGERPRINTS_CACHE)
+        );
+    }
+
+    @Test
+    void getUserFromAuthentication_ShouldSkipSyncWhenClaimsAreUnchanged() {
+        when(authorityRepository.findAllById(any())).thenReturn(List.of(authority(AuthoritiesConstants.CLIENT)));
+        when(userRepository.findOneByLogin("maria")).thenReturn(Optional.empty());
+
+        AdminUserDTO first = userService.getUserFromAuthentication(token(Map.of("given_name", "María")));
+        verify(userRepository).save(any(User.class));
+        clearInvocations(userRepository);
+        clearInvocations(authorityRepository);
+
+        // Un token nuevo con los mismos claims (otro jti/exp) no toca la base de datos
+        AdminUserDTO second = userService.getUserFromAuthentication(token(Map.of("given_name", "María", "jti", "otro")));
+
+        verifyNoInteractions(userRepository, authorityRepository);
+        assertThat(second.getLogin()).isEqualTo(first.getLogin());
+        assertThat(second.getFirstName()).isEqualTo("María");
+        assertThat(second.getAuthorities()).containsExactly(AuthoritiesConstants.CLIENT);
+    }
+
+    @Test
+    void getUserFromAuthentication_ShouldSyncAgainWhenAClaimChanges() {
+        when(authorityRepository.findAllById(any())).thenReturn(List.of(authority(AuthoritiesConstants.CLIENT)));
+        when(userRepository.findOneByLogin("maria")).thenReturn(Optional.empty());
+        userService.getUserFromAuthentication(token(Map.of("given_name", "María")));
+        clearInvocations(userRepository);
+        clearInvocations(authorityRepository);
+
+        userService.getUserFromAuthentication(token(Map.of("given_name", "María José")));
+
+        verify(userRepository).findOneByLogin("maria");
+    }
+
+    @Test
+    void evictSyncFingerprint_ShouldForceTheNextSync() {
+        when(authorityRepository.findAllById(any())).thenReturn(List.of(authority(AuthoritiesConstants.CLIENT)));
+        when(userRepository.findOneByLogin("maria")).thenReturn(Optional.empty());
+        userService.getUserFromAuthentication(token(Map.of("given_name", "María")));
+        clearInvocations(userRepository);
+        clearInvocations(authorityRepository);
+
+        userService.evictSyncFingerprint("maria");
+        userService.getUserFromAuthentication(token(Map.of("given_name", "María")));
+
+        verify(userRepository).save(any(User.class));
+    }
+
+    private static JwtAuthenticationToken token(Map<String, Object> claims) {
+        Jwt jwt = Jwt.withTokenValue("token")
+            .header("alg", "none")
+            .subject("u-1")
+            .claim("preferred_username", "maria")
+            .claim("email", "maria@hotel.test")
+            .claims(all -> all.putAll(claims))
+            .build();
+        return new JwtAuthenticationToken(jwt, List.of(new SimpleGrantedAuthority(AuthoritiesConstants.CLIENT)));
+    }
+
+    private static Authority authority(String name) {
+        Authority authority = new Authority();
+        authority.setName(name);
+        return authority;
+    }
+}
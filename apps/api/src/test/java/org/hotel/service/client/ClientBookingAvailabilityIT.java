@@ -0,0 +1,160 @@
+package org.hotel.service.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.hotel.IntegrationTest;
+import org.hotel.domain.Booking;
+import org.hotel.domain.BookingItem;
+import org.hotel.domain.Customer;
+import org.hotel.domain.Room;
+import org.hotel.domain.RoomType;
+import org.hotel.domain.enumeration.BookingStatus;
+import org.hotel.domain.enumeration.RoomStatus;
+import org.hotel.repository.RoomRepository;
+import org.hotel.repository.RoomTypeRepository;
+import org.hotel.service.RoomInventoryService;
+import org.hotel.service.RoomInventoryService.InventoryHold;
+import org.hotel.service.dto.client.response.booking.RoomTypeAvailabilityDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Benchmark de idas a la base de datos de {@link ClientBookingService#getAvailability}
+ * frente al recorrido anterior por tipo de habitación (2N+1 consultas).
+ */
+@IntegrationTest
+@Transactional
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ClientBookingAvailabilityIT {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ClientBookingAvailabilityIT.class);
+
+    private static final int ROOM_TYPES = 60;
+    private static final int ROOMS_PER_TYPE = 3;
+    private static final int ITERATIONS = 20;
+
+    private static final LocalDate CHECK_IN = LocalDate.now().plusDays(10);
+    private static final LocalDate CHECK_OUT = CHECK_IN.plusDays(3);
+
+    @Autowired
+    private ClientBookingService clientBookingService;
+
+    @Autowired
+    private RoomTypeRepository roomTypeRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private RoomInventoryService roomInventoryService;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<RoomType> roomTypes = new ArrayList<>();
+
+    @BeforeEach
+    void initTest() {
+        for (int i = 0; i < ROOM_TYPES; i++) {
+            RoomType roomType = new RoomType().name("Tipo " + i).basePrice(BigDecimal.TEN).maxCapacity(2);
+            em.persist(roomType);
+            for (int j = 0; j < ROOMS_PER_TYPE; j++) {
+                em.persist(new Room().roomNumber("B-" + i + "-" + j).status(RoomStatus.AVAILABLE).roomType(roomType));
+            }
+            roomTypes.add(roomType);
+        }
+        Customer customer = new Customer().firstName("Ana").lastName("Perez").licenseId("AVAIL-001").birthDate(LocalDate.of(1990, 1, 1));
+        em.persist(customer);
+        // Una reserva solapada cada dos tipos
+        for (int i = 0; i < ROOM_TYPES; i += 2) {
+            Booking booking = new Booking()
+                .code("AVAIL-" + i)
+                .guestCount(1)
+                .customer(customer)
+                .checkInDate(CHECK_IN.plusDays(1))
+                .checkOutDate(CHECK_OUT.plusDays(1))
+                .status(BookingStatus.CONFIRMED);
+            booking.addBookingItems(new BookingItem().roomType(roomTypes.get(i)));
+            em.persist(booking);
+            roomInventoryService.apply(InventoryHold.NONE, InventoryHold.of(booking));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void getAvailability_ShouldUseSingleQueryForAllRoomTypes() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        long start = System.nanoTime();
+        List<RoomTypeAvailabilityDTO> result = null;
+        for (int i = 0; i < ITERATIONS; i++) {
+            result = clientBookingService.getAvailability(CHECK_IN, CHECK_OUT);
+        }
+        long groupedNanos = System.nanoTime() - start;
+        long groupedStatements = statistics.getPrepareStatementCount() / ITERATIONS;
+
+        statistics.clear();
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            legacyAvailability();
+        }
+        long legacyNanos = System.nanoTime() - start;
+        long legacyStatements = statistics.getPrepareStatementCount() / ITERATIONS;
+
+        LOG.info(
+            "Availability for {} room types: grouped query {} statements / {} us, per-type loop {} statements / {} us",
+            ROOM_TYPES,
+            groupedStatements,
+            groupedNanos / ITERATIONS / 1000,
+            legacyStatements,
+            legacyNanos / ITERATIONS / 1000
+        );
+
+        assertThat(groupedStatements).isEqualTo(1);
+        assertThat(legacyStatements).isGreaterThanOrEqualTo(2L * ROOM_TYPES + 1);
+        assertThat(result).hasSizeGreaterThanOrEqualTo(ROOM_TYPES);
+        assertThat(result).filteredOn(dto -> dto.getId().equals(roomTypes.get(0).getId()))
+            .singleElement()
+            .extracting(RoomTypeAvailabilityDTO::getAvailableQuantity)
+            .isEqualTo(ROOMS_PER_TYPE - 1);
+        assertThat(result).filteredOn(dto -> dto.getId().equals(roomTypes.get(1).getId()))
+            .singleElement()
+            .extracting(RoomTypeAvailabilityDTO::getAvailableQuantity)
+            .isEqualTo(ROOMS_PER_TYPE);
+    }
+
+    private void legacyAvailability() {
+        for (RoomType type : roomTypeRepository.findAll()) {
+            long totalPhysicalRooms = roomRepository.countByRoomTypeId(type.getId());
+            long occupiedRooms = em
+                .createQuery(
+                    "select count(b) from Booking b join b.bookingItems bi where bi.roomType.id = :roomTypeId " +
+                    "and b.status <> 'CANCELLED' and b.checkInDate < :checkOut and b.checkOutDate > :checkIn",
+                    Long.class
+                )
+                .setParameter("roomTypeId", type.getId())
+                .setParameter("checkIn", CHECK_IN)
+                .setParameter("checkOut", CHECK_OUT)
+                .getSingleResult();
+            assertThat(totalPhysicalRooms - occupiedRooms).isNotNegative();
+        }
+    }
+}
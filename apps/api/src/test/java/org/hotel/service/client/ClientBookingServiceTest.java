@@ -1,16 +1,21 @@
 package org.hotel.service.client;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
-
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.hotel.domain.Booking;
 import org.hotel.domain.Customer;
@@ -18,15 +23,20 @@ import org.hotel.domain.RoomType;
 import org.hotel.repository.BookingRepository;
 import org.hotel.repository.CustomerRepository;
 import org.hotel.repository.InvoiceRepository;
-import org.hotel.repository.RoomRepository;
 import org.hotel.repository.RoomTypeRepository;
 import org.hotel.security.SecurityUtils;
 import org.hotel.service.BookingDomainService;
-import org.hotel.service.MailService;
+import org.hotel.service.CodeGenerator;
+import org.hotel.service.CustomerIdResolver;
+import org.hotel.service.MailOutboxService;
+import org.hotel.service.RoomInventoryService;
 import org.hotel.service.dto.client.request.booking.BookingCreateRequest;
 import org.hotel.service.dto.client.request.booking.BookingItemRequest;
 import org.hotel.service.dto.client.response.booking.BookingResponse;
+import org.hotel.service.dto.client.response.booking.FlexibleAvailabilityDTO;
+import org.hotel.service.dto.client.response.booking.StayWindowDTO;
 import org.hotel.service.mapper.client.ClientBookingMapper;
+import org.hotel.web.rest.errors.BusinessRuleException;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -51,18 +61,24 @@ class ClientBookingServiceTest {
     @Mock
     private RoomTypeRepository roomTypeRepository;
 
-    @Mock
-    private RoomRepository roomRepository;
-
     @Mock
     private BookingDomainService bookingDomainService;
 
     @Mock
-    private MailService mailService;
+    private MailOutboxService mailOutboxService;
 
     @Mock
     private InvoiceRepository invoiceRepository;
 
+    @Mock
+    private RoomInventoryService roomInventoryService;
+
+    @Mock
+    private CustomerIdResolver customerIdResolver;
+
+    @Mock
+    private CodeGenerator codeGenerator;
+
     private ClientBookingService clientBookingService;
 
     private MockedStatic<SecurityUtils> securityUtilsMock;
@@ -74,10 +90,12 @@ class ClientBookingServiceTest {
             clientBookingMapper,
             customerRepository,
             roomTypeRepository,
-            roomRepository,
             bookingDomainService,
-            mailService,
-            invoiceRepository
+            mailOutboxService,
+            invoiceRepository,
+            roomInventoryService,
+            customerIdResolver,
+            codeGenerator
         );
         securityUtilsMock = Mockito.mockStatic(SecurityUtils.class);
     }
@@ -113,7 +131,8 @@ class ClientBookingServiceTest {
         roomType.setId(1L);
         roomType.setBasePrice(BigDecimal.valueOf(100));
 
-        when(customerRepository.findOneByUser_Login(userLogin)).thenReturn(Optional.of(customer));
+        when(customerIdResolver.findCustomerId(userLogin)).thenReturn(Optional.of(100L));
+        when(customerRepository.findById(100L)).thenReturn(Optional.of(customer));
         when(bookingDomainService.validateAndCalculateNights(any(LocalDate.class), any(LocalDate.class))).thenReturn(2L);
         when(clientBookingMapper.toEntity(request)).thenReturn(bookingEntity);
         when(roomTypeRepository.findById(1L)).thenReturn(Optional.of(roomType));
@@ -129,8 +148,100 @@ class ClientBookingServiceTest {
 
         // Assert
         assertThat(result).isNotNull();
-        verify(customerRepository).findOneByUser_Login(userLogin);
+        verify(customerIdResolver).findCustomerId(userLogin);
         verify(bookingRepository).save(bookingEntity);
-        verify(mailService).sendBookingCreationEmail(eq(customer), eq(bookingEntity));
+        verify(roomInventoryService).apply(eq(RoomInventoryService.InventoryHold.NONE), any(RoomInventoryService.InventoryHold.class));
+        verify(mailOutboxService).enqueueBookingCreation(eq(bookingEntity));
+    }
+
+    @Test
+    void searchFlexibleAvailability_ShouldListEveryPricedWindowWithAFreeRoom() {
+        LocalDate checkIn = LocalDate.now().plusDays(10);
+        LocalDate firstCheckIn = checkIn.minusDays(2);
+        LocalDate rangeEnd = checkIn.plusDays(2 + 2);
+        RoomType doble = roomType(1L, "100.00");
+        // Sin habitaciones físicas: no aparece en el barrido
+        RoomType suite = roomType(2L, "300.00");
+
+        when(bookingDomainService.calculateFreeRoomsPerNight(firstCheckIn, rangeEnd)).thenReturn(Map.of(1L, new int[] { 2, 1, 0, 1, 1, 3 }));
+        when(bookingDomainService.slidingWindowMinimum(any(int[].class), anyInt())).thenCallRealMethod();
+        when(bookingDomainService.calculateItemPrice(doble, 2L)).thenCallRealMethod();
+        when(roomTypeRepository.findAll()).thenReturn(List.of(doble, suite));
+
+        List<FlexibleAvailabilityDTO> result = clientBookingService.searchFlexibleAvailability(checkIn, 2, 2);
+
+        verify(bookingDomainService).validateCalendarRange(firstCheckIn, rangeEnd);
+        assertThat(result).extracting(FlexibleAvailabilityDTO::getId).containsExactly(1L, 2L);
+        // La noche llena (posición 2) descarta las dos estancias que la cubren
+        assertThat(result.get(0).getWindows())
+            .extracting(StayWindowDTO::getCheckInDate, StayWindowDTO::getCheckOutDate, StayWindowDTO::getAvailableQuantity)
+            .containsExactly(
+                tuple(firstCheckIn, firstCheckIn.plusDays(2), 1),
+                tuple(firstCheckIn.plusDays(3), firstCheckIn.plusDays(5), 1),
+                tuple(firstCheckIn.plusDays(4), firstCheckIn.plusDays(6), 1)
+            );
+        assertThat(result.get(0).getWindows()).allSatisfy(window -> assertThat(window.getTotalPrice()).isEqualByComparingTo("200.00"));
+        assertThat(result.get(1).getWindows()).isEmpty();
+    }
+
+    @Test
+    void searchFlexibleAvailability_ShouldStartTheSearchToday_WhenTheMarginReachesThePast() {
+        LocalDate today = LocalDate.now();
+        LocalDate checkIn = today.plusDays(1);
+        LocalDate rangeEnd = checkIn.plusDays(3 + 2);
+
+        when(bookingDomainService.calculateFreeRoomsPerNight(today, rangeEnd)).thenReturn(Map.of());
+        when(roomTypeRepository.findAll()).thenReturn(List.of());
+
+        clientBookingService.searchFlexibleAvailability(checkIn, 2, 3);
+
+        verify(bookingDomainService).validateCalendarRange(today, rangeEnd);
+        verify(bookingDomainService).calculateFreeRoomsPerNight(today, rangeEnd);
+    }
+
+    @Test
+    void searchFlexibleAvailability_ShouldAcceptTheMaximumMargin() {
+        LocalDate checkIn = LocalDate.now().plusDays(30);
+        LocalDate firstCheckIn = checkIn.minusDays(ClientBookingService.MAX_FLEX_DAYS);
+        LocalDate rangeEnd = checkIn.plusDays(ClientBookingService.MAX_FLEX_DAYS + 3);
+
+        when(bookingDomainService.calculateFreeRoomsPerNight(firstCheckIn, rangeEnd)).thenReturn(Map.of());
+        when(roomTypeRepository.findAll()).thenReturn(List.of());
+
+        assertThat(clientBookingService.searchFlexibleAvailability(checkIn, 3, ClientBookingService.MAX_FLEX_DAYS)).isEmpty();
+        verify(bookingDomainService).validateCalendarRange(firstCheckIn, rangeEnd);
+    }
+
+    @Test
+    void searchFlexibleAvailability_ShouldRejectMarginsOutsideTheAllowedRange() {
+        LocalDate checkIn = LocalDate.now().plusDays(30);
+
+        assertThatThrownBy(() -> clientBookingService.searchFlexibleAvailability(checkIn, 2, ClientBookingService.MAX_FLEX_DAYS + 1))
+            .isInstanceOf(BusinessRuleException.class)
+            .hasMessageContaining(String.valueOf(ClientBookingService.MAX_FLEX_DAYS));
+        assertThatThrownBy(() -> clientBookingService.searchFlexibleAvailability(checkIn, 2, -1)).isInstanceOf(BusinessRuleException.class);
+        assertThatThrownBy(() -> clientBookingService.searchFlexibleAvailability(checkIn, 0, 2)).isInstanceOf(BusinessRuleException.class);
+
+        verify(bookingDomainService, never()).calculateFreeRoomsPerNight(any(), any());
+    }
+
+    @Test
+    void searchFlexibleAvailability_ShouldRejectASearchEntirelyInThePast() {
+        LocalDate checkIn = LocalDate.now().minusDays(10);
+
+        assertThatThrownBy(() -> clientBookingService.searchFlexibleAvailability(checkIn, 2, 3))
+            .isInstanceOf(BusinessRuleException.class)
+            .hasMessageContaining("pasadas");
+
+        verify(bookingDomainService, never()).calculateFreeRoomsPerNight(any(), any());
+    }
+
+    private static RoomType roomType(Long id, String basePrice) {
+        RoomType roomType = new RoomType();
+        roomType.setId(id);
+        roomType.setName("Tipo " + id);
+        roomType.setBasePrice(new BigDecimal(basePrice));
+        roomType.setMaxCapacity(2);
+        return roomType;
     }
 }
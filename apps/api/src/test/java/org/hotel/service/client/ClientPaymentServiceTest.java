@@ -0,0 +1,262 @@
+package org.hotel.service.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.paypal.sdk.models.CaptureOrderInput;
+import com.paypal.sdk.models.Order;
+import com.paypal.sdk.models.OrderStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Optional;
+import org.hotel.domain.Booking;
+import org.hotel.domain.Customer;
+import org.hotel.domain.Invoice;
+import org.hotel.domain.Payment;
+import org.hotel.domain.enumeration.BookingStatus;
+import org.hotel.domain.enumeration.InvoiceStatus;
+import org.hotel.domain.enumeration.PaymentMethod;
+import org.hotel.repository.InvoiceRepository;
+import org.hotel.repository.PaymentCapture;
+import org.hotel.repository.PaymentRepository;
+import org.hotel.security.SecurityUtils;
+import org.hotel.service.BulkheadFullException;
+import org.hotel.service.CustomerIdResolver;
+import org.hotel.service.MailOutboxService;
+import org.hotel.service.PaymentGateway;
+import org.hotel.service.PaymentGatewayUnavailableException;
+import org.hotel.service.dto.client.request.payment.PaymentCaptureRequest;
+import org.hotel.service.dto.client.request.payment.PaymentInitRequest;
+import org.hotel.service.dto.client.response.payment.PaymentResponse;
+import org.hotel.web.rest.errors.BusinessRuleException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ExtendWith(MockitoExtension.class)
+class ClientPaymentServiceTest {
+
+    private static final String ORDER_ID = "5O190127TN364715T";
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private InvoiceRepository invoiceRepository;
+
+    @Mock
+    private PaymentGateway paymentGateway;
+
+    @Mock
+    private MailOutboxService mailOutboxService;
+
+    @Mock
+    private CustomerIdResolver customerIdResolver;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ClientPaymentService clientPaymentService;
+
+    private MockedStatic<SecurityUtils> securityUtilsMock;
+
+    private Invoice invoice;
+
+    @BeforeEach
+    void setUp() {
+        clientPaymentService = new ClientPaymentService(
+            paymentRepository,
+            invoiceRepository,
+            paymentGateway,
+            mailOutboxService,
+            customerIdResolver,
+            transactionManager,
+            meterRegistry
+        );
+        securityUtilsMock = Mockito.mockStatic(SecurityUtils.class);
+        securityUtilsMock.when(SecurityUtils::getCurrentUserLogin).thenReturn(Optional.of("maria"));
+
+        Customer customer = new Customer();
+        customer.setId(3L);
+        Booking booking = new Booking();
+        booking.setStatus(BookingStatus.PENDING_PAYMENT);
+        booking.setCustomer(customer);
+        invoice = new Invoice();
+        invoice.setId(10L);
+        invoice.setCode("INV-1");
+        invoice.setCurrency("USD");
+        invoice.setStatus(InvoiceStatus.ISSUED);
+        invoice.setTotalAmount(new BigDecimal("450.00"));
+        invoice.setBooking(booking);
+    }
+
+    @AfterEach
+    void tearDown() {
+        securityUtilsMock.close();
+    }
+
+    @Test
+    void capturePayment_ShouldCallPaypalBetweenTwoShortTransactions() throws Exception {
+        when(customerIdResolver.findCustomerId("maria")).thenReturn(Optional.of(3L));
+        when(invoiceRepository.findById(10L)).thenReturn(Optional.of(invoice));
+        when(paymentRepository.findCaptureByReferenceId(ORDER_ID)).thenReturn(Optional.empty());
+        when(paymentGateway.captureOrder(any())).thenReturn(new Order.Builder().id(ORDER_ID).status(OrderStatus.COMPLETED).build());
+        when(paymentRepository.saveAndFlush(any(Payment.class))).thenAnswer(invocation -> {
+            Payment payment = invocation.getArgument(0);
+            payment.setId(99L);
+            return payment;
+        });
+
+        PaymentResponse response = clientPaymentService.capturePayment(captureRequest());
+
+        // Lectura (commit), PayPal sin transacción abierta, escritura (commit)
+        InOrder order = inOrder(transactionManager, paymentGateway, paymentRepository);
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(transactionManager).commit(any());
+        order.verify(paymentGateway).captureOrder(any());
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(paymentRepository).saveAndFlush(any(Payment.class));
+        order.verify(transactionManager).commit(any());
+
+        ArgumentCaptor<CaptureOrderInput> input = ArgumentCaptor.forClass(CaptureOrderInput.class);
+        verify(paymentGateway).captureOrder(input.capture());
+        assertThat(input.getValue().getPaypalRequestId()).isEqualTo(ORDER_ID);
+        assertThat(response.getId()).isEqualTo(99L);
+        assertThat(invoice.getStatus()).isEqualTo(InvoiceStatus.PAID);
+        assertThat(invoice.getBooking().getStatus()).isEqualTo(BookingStatus.CONFIRMED);
+        verify(mailOutboxService).enqueuePaymentSuccess(invoice);
+        assertThat(meterRegistry.get(ClientPaymentService.TRANSACTION_METRIC).tag("phase", "read").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(ClientPaymentService.TRANSACTION_METRIC).tag("phase", "write").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void capturePayment_ShouldReturnTheRecordedPaymentFromASingleLookup() throws Exception {
+        when(customerIdResolver.findCustomerId("maria")).thenReturn(Optional.of(3L));
+        when(paymentRepository.findCaptureByReferenceId(ORDER_ID)).thenReturn(Optional.of(recordedCapture(3L)));
+
+        PaymentResponse response = clientPaymentService.capturePayment(captureRequest());
+
+        assertThat(response.getId()).isEqualTo(99L);
+        assertThat(response.getInvoiceId()).isEqualTo(10L);
+        assertThat(response.getPaypalOrderId()).isEqualTo(ORDER_ID);
+        verify(invoiceRepository, never()).findById(any());
+        verify(paymentGateway, never()).captureOrder(any());
+        verify(paymentRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void capturePayment_ShouldNotReplayAnotherCustomersCapture() throws Exception {
+        when(customerIdResolver.findCustomerId("maria")).thenReturn(Optional.of(3L));
+        when(paymentRepository.findCaptureByReferenceId(ORDER_ID)).thenReturn(Optional.of(recordedCapture(4L)));
+
+        assertThatThrownBy(() -> clientPaymentService.capturePayment(captureRequest())).isInstanceOf(BusinessRuleException.class);
+
+        verify(paymentGateway, never()).captureOrder(any());
+    }
+
+    @Test
+    void capturePayment_ShouldReturnTheConcurrentCaptureWhenTheUniqueIndexRejectsTheInsert() throws Exception {
+        when(customerIdResolver.findCustomerId("maria")).thenReturn(Optional.of(3L));
+        when(invoiceRepository.findById(10L)).thenReturn(Optional.of(invoice));
+        when(paymentRepository.findCaptureByReferenceId(ORDER_ID))
+            .thenReturn(Optional.empty())
+            .thenReturn(Optional.empty())
+            .thenReturn(Optional.of(recordedCapture(3L)));
+        when(paymentGateway.captureOrder(any())).thenReturn(new Order.Builder().id(ORDER_ID).status(OrderStatus.COMPLETED).build());
+        when(paymentRepository.saveAndFlush(any(Payment.class))).thenThrow(new DataIntegrityViolationException("ux_payment__reference_id"));
+
+        PaymentResponse response = clientPaymentService.capturePayment(captureRequest());
+
+        assertThat(response.getId()).isEqualTo(99L);
+        verify(mailOutboxService, never()).enqueuePaymentSuccess(any());
+    }
+
+    @Test
+    void capturePayment_ShouldLeaveTheInvoiceUntouchedWhenPaypalIsUnavailable() throws Exception {
+        when(customerIdResolver.findCustomerId("maria")).thenReturn(Optional.of(3L));
+        when(invoiceRepository.findById(10L)).thenReturn(Optional.of(invoice));
+        when(paymentRepository.findCaptureByReferenceId(ORDER_ID)).thenReturn(Optional.empty());
+        when(paymentGateway.captureOrder(any())).thenThrow(new PaymentGatewayUnavailableException("PayPal circuit breaker is open", null));
+
+        assertThatThrownBy(() -> clientPaymentService.capturePayment(captureRequest())).isInstanceOf(PaymentGatewayUnavailableException.class);
+
+        assertThat(invoice.getStatus()).isEqualTo(InvoiceStatus.ISSUED);
+        verify(paymentRepository, never()).saveAndFlush(any());
+        verify(mailOutboxService, never()).enqueuePaymentSuccess(any());
+    }
+
+    @Test
+    void initPayment_ShouldAnswerServiceUnavailableWhenThePaymentBulkheadIsFull() throws Exception {
+        when(customerIdResolver.findCustomerId("maria")).thenReturn(Optional.of(3L));
+        when(invoiceRepository.findById(10L)).thenReturn(Optional.of(invoice));
+        when(paymentGateway.createOrder(any())).thenThrow(new BulkheadFullException("Too many concurrent calls to payment", null));
+
+        PaymentInitRequest request = new PaymentInitRequest();
+        request.setInvoiceId(10L);
+
+        assertThatThrownBy(() -> clientPaymentService.initPayment(request))
+            .isInstanceOf(BulkheadFullException.class)
+            .satisfies(e -> assertThat(e.getClass().getAnnotation(ResponseStatus.class).value()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+
+        assertThat(invoice.getStatus()).isEqualTo(InvoiceStatus.ISSUED);
+    }
+
+    @Test
+    void capturePayment_ShouldAnswerServiceUnavailableWithoutWritingWhenThePaymentBulkheadIsFull() throws Exception {
+        when(customerIdResolver.findCustomerId("maria")).thenReturn(Optional.of(3L));
+        when(invoiceRepository.findById(10L)).thenReturn(Optional.of(invoice));
+        when(paymentRepository.findCaptureByReferenceId(ORDER_ID)).thenReturn(Optional.empty());
+        when(paymentGateway.captureOrder(any())).thenThrow(new BulkheadFullException("Too many concurrent calls to payment", null));
+
+        assertThatThrownBy(() -> clientPaymentService.capturePayment(captureRequest()))
+            .isInstanceOf(BulkheadFullException.class)
+            .satisfies(e -> assertThat(e.getClass().getAnnotation(ResponseStatus.class).value()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+
+        // Solo la lectura: la orden sigue sin capturar y el cliente puede reintentar con el mismo paypalOrderId
+        verify(transactionManager, times(1)).getTransaction(any());
+        assertThat(invoice.getStatus()).isEqualTo(InvoiceStatus.ISSUED);
+        assertThat(invoice.getBooking().getStatus()).isEqualTo(BookingStatus.PENDING_PAYMENT);
+        verify(paymentRepository, never()).saveAndFlush(any());
+        verify(mailOutboxService, never()).enqueuePaymentSuccess(any());
+    }
+
+    private static PaymentCapture recordedCapture(Long customerId) {
+        return new PaymentCapture(
+            99L,
+            Instant.parse("2026-10-17T10:00:00Z"),
+            new BigDecimal("450.00"),
+            PaymentMethod.PAYPAL,
+            ORDER_ID,
+            10L,
+            customerId
+        );
+    }
+
+    private static PaymentCaptureRequest captureRequest() {
+        PaymentCaptureRequest request = new PaymentCaptureRequest();
+        request.setPaypalOrderId(ORDER_ID);
+        request.setInvoiceId(10L);
+        return request;
+    }
+}
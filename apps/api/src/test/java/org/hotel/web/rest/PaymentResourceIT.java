@@ -16,6 +16,7 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
 import org.hotel.IntegrationTest;
@@ -196,6 +197,36 @@ class PaymentResourceIT {
         assertSameRepositoryCount(databaseSizeBeforeCreate);
     }
 
+    @Test
+    @Transactional
+    void createPaymentsWithBlankReference() throws Exception {
+        long databaseSizeBeforeCreate = getRepositoryCount();
+        payment.setMethod(PaymentMethod.CASH);
+        payment.setReferenceId("");
+        PaymentDTO paymentDTO = paymentMapper.toDto(payment);
+
+        // Dos pagos sin referencia externa, como los envía el formulario de administración
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            PaymentDTO returnedPaymentDTO = om.readValue(
+                restPaymentMockMvc
+                    .perform(
+                        post(ENTITY_API_URL).with(csrf()).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(paymentDTO))
+                    )
+                    .andExpect(status().isCreated())
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString(),
+                PaymentDTO.class
+            );
+            ids.add(returnedPaymentDTO.getId());
+        }
+        em.flush();
+
+        assertThat(getRepositoryCount()).isEqualTo(databaseSizeBeforeCreate + 2);
+        assertThat(paymentRepository.findAllById(ids)).hasSize(2).allSatisfy(saved -> assertThat(saved.getReferenceId()).isNull());
+    }
+
     @Test
     @Transactional
     void checkDateIsRequired() throws Exception {
@@ -0,0 +1,155 @@
+package org.hotel.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import org.hotel.domain.AssetCollection;
+import org.hotel.repository.AssetCollectionRepository;
+import org.hotel.service.ContentEtag;
+import org.hotel.service.PublicContentBundleService;
+import org.hotel.service.WebContentService;
+import org.hotel.service.dto.WebContentDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+/**
+ * Unit tests for the conditional GET support of {@link PublicContentResource}.
+ */
+@ExtendWith(MockitoExtension.class)
+class PublicContentResourceTest {
+
+    private static final String CODE = "HOME_GALLERY";
+
+    @Mock
+    private WebContentService webContentService;
+
+    @Mock
+    private AssetCollectionRepository assetCollectionRepository;
+
+    @Mock
+    private PublicContentBundleService publicContentBundleService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(
+            new PublicContentResource(webContentService, assetCollectionRepository, publicContentBundleService, objectMapper)
+        ).build();
+    }
+
+    @Test
+    void getContentList_ShouldReturnEtagAndCacheControl() throws Exception {
+        List<WebContentDTO> contents = List.of(webContent("Piscina"));
+        when(webContentService.findActiveByCollectionCode(CODE)).thenReturn(contents);
+
+        mockMvc
+            .perform(get("/api/public/content/{code}", CODE))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, etagOf(contents)))
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, PublicContentResource.PUBLIC_CONTENT_CACHE_CONTROL.getHeaderValue()))
+            .andExpect(jsonPath("$[0].title").value("Piscina"));
+    }
+
+    @Test
+    void getContentList_ShouldAnswerNotModifiedWhileTheContentIsUnchanged() throws Exception {
+        List<WebContentDTO> contents = List.of(webContent("Piscina"));
+        when(webContentService.findActiveByCollectionCode(CODE)).thenReturn(contents);
+
+        mockMvc
+            .perform(get("/api/public/content/{code}", CODE).header(HttpHeaders.IF_NONE_MATCH, etagOf(contents)))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, etagOf(contents)))
+            .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void getSingleContent_ShouldServeChangedContentDespiteAnEarlierEtag() throws Exception {
+        // El cliente validó la versión anterior (por ejemplo contra otra instancia); el contenido ha cambiado después
+        String staleEtag = etagOf(webContent("Bienvenido"));
+        WebContentDTO current = webContent("Bienvenidos");
+        when(webContentService.findFirstActiveByCollectionCode(CODE)).thenReturn(Optional.of(current));
+
+        String etag = mockMvc
+            .perform(get("/api/public/content/{code}/single", CODE).header(HttpHeaders.IF_NONE_MATCH, staleEtag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.title").value("Bienvenidos"))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        assertThat(etag).isNotEqualTo(staleEtag).isEqualTo(etagOf(current));
+    }
+
+    @Test
+    void getSingleContent_ShouldReturnNotFoundWithoutEtag() throws Exception {
+        when(webContentService.findFirstActiveByCollectionCode(CODE)).thenReturn(Optional.empty());
+
+        mockMvc
+            .perform(get("/api/public/content/{code}/single", CODE))
+            .andExpect(status().isNotFound())
+            .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void getCollectionStatus_ShouldTagTheStatusItself() throws Exception {
+        when(assetCollectionRepository.findByCode(CODE)).thenReturn(Optional.of(new AssetCollection().code(CODE).isActive(false)));
+
+        mockMvc
+            .perform(get("/api/public/content/status/{code}", CODE).header(HttpHeaders.IF_NONE_MATCH, etagOf(true)))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, etagOf(false)))
+            .andExpect(jsonPath("$").value(false));
+    }
+
+    @Test
+    void getBundle_ShouldServeStoredJsonAndAnswerNotModified() throws Exception {
+        List<String> codes = List.of("HOME_GALLERY", "HOME_HERO");
+        byte[] json = "{\"HOME_HERO\":{\"active\":true,\"items\":[]}}".getBytes(StandardCharsets.UTF_8);
+        PublicContentBundleService.Bundle bundle = PublicContentBundleService.Bundle.of(json);
+        when(publicContentBundleService.normalizeCodes(List.of("HOME_HERO", "HOME_GALLERY"))).thenReturn(codes);
+        when(publicContentBundleService.getBundle(codes)).thenReturn(bundle);
+
+        mockMvc
+            .perform(get("/api/public/content/bundle").param("codes", "HOME_HERO,HOME_GALLERY"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, ContentEtag.of(json)))
+            .andExpect(content().bytes(json));
+
+        mockMvc
+            .perform(get("/api/public/content/bundle").param("codes", "HOME_HERO,HOME_GALLERY").header(HttpHeaders.IF_NONE_MATCH, bundle.etag()))
+            .andExpect(status().isNotModified());
+
+        verify(webContentService, never()).findActiveByCollectionCode(any());
+    }
+
+    private static WebContentDTO webContent(String title) {
+        WebContentDTO content = new WebContentDTO();
+        content.setTitle(title);
+        return content;
+    }
+
+    private String etagOf(Object body) throws Exception {
+        return ContentEtag.of(objectMapper.writeValueAsBytes(body));
+    }
+}
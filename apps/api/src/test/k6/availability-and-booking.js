@@ -0,0 +1,69 @@
+// Carga sobre disponibilidad y reservas del portal del cliente, para comparar hilos de plataforma y virtuales.
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e TOKEN=<access token de un cliente> -e ROOM_TYPE_ID=1 \
+//     src/test/k6/availability-and-booking.js
+//
+// Cada iteración consulta la disponibilidad de unas fechas al azar y, una de cada BOOKING_RATIO, crea una reserva y
+// la borra (para no agotar el inventario durante la prueba).
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const ROOM_TYPE_ID = Number(__ENV.ROOM_TYPE_ID || 1);
+const BOOKING_RATIO = Number(__ENV.BOOKING_RATIO || 10);
+
+export const options = {
+  scenarios: {
+    portal: {
+      executor: 'ramping-vus',
+      startVUs: 0,
+      stages: [
+        { duration: '30s', target: Number(__ENV.VUS || 200) },
+        { duration: __ENV.DURATION || '2m', target: Number(__ENV.VUS || 200) },
+        { duration: '15s', target: 0 },
+      ],
+    },
+  },
+  thresholds: {
+    'http_req_duration{endpoint:availability}': ['p(95)<500'],
+    'http_req_duration{endpoint:create-booking}': ['p(95)<1500'],
+    http_req_failed: ['rate<0.01'],
+  },
+};
+
+const params = endpoint => ({
+  headers: { Authorization: `Bearer ${__ENV.TOKEN}`, 'Content-Type': 'application/json' },
+  tags: { endpoint },
+});
+
+const isoDate = daysFromToday => {
+  const date = new Date();
+  date.setUTCDate(date.getUTCDate() + daysFromToday);
+  return date.toISOString().slice(0, 10);
+};
+
+export default function () {
+  const start = 1 + Math.floor(Math.random() * 90);
+  const checkIn = isoDate(start);
+  const checkOut = isoDate(start + 1 + Math.floor(Math.random() * 4));
+
+  const availability = http.get(
+    `${BASE_URL}/api/client/bookings/availability?checkIn=${checkIn}&checkOut=${checkOut}`,
+    params('availability'),
+  );
+  check(availability, { 'availability 200': r => r.status === 200 });
+
+  if (__ITER % BOOKING_RATIO !== 0) {
+    return;
+  }
+  const booking = http.post(
+    `${BASE_URL}/api/client/bookings`,
+    JSON.stringify({ checkInDate: checkIn, checkOutDate: checkOut, guestCount: 1, items: [{ roomTypeId: ROOM_TYPE_ID }] }),
+    params('create-booking'),
+  );
+  // 409 = sin habitaciones libres esas fechas: es una respuesta válida bajo carga
+  check(booking, { 'booking 201/409': r => r.status === 201 || r.status === 409 });
+  if (booking.status === 201) {
+    http.del(`${BASE_URL}/api/client/bookings/${booking.json('id')}`, null, params('delete-booking'));
+  }
+}
@@ -0,0 +1,74 @@
+// Carga sobre el pago del portal del cliente (orden y captura de PayPal), pensada para el PayPal falso en proceso:
+//
+//   PAYPAL_MODE=fake PAYPAL_CLIENT_ID=fake PAYPAL_CLIENT_SECRET=fake PAYPAL_FAKE_LATENCY=300ms ./mvnw
+//   k6 run -e BASE_URL=http://localhost:8080 -e TOKEN=<access token de un cliente> -e ROOM_TYPE_ID=1 \
+//     src/test/k6/payment-capture.js
+//
+// Cada iteración crea una reserva, inicia el pago de su factura, lo captura y repite la captura (debe devolver el
+// mismo pago sin volver a cobrar).
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const ROOM_TYPE_ID = Number(__ENV.ROOM_TYPE_ID || 1);
+
+export const options = {
+  scenarios: {
+    payments: {
+      executor: 'ramping-vus',
+      startVUs: 0,
+      stages: [
+        { duration: '30s', target: Number(__ENV.VUS || 50) },
+        { duration: __ENV.DURATION || '2m', target: Number(__ENV.VUS || 50) },
+        { duration: '15s', target: 0 },
+      ],
+    },
+  },
+  thresholds: {
+    'http_req_duration{endpoint:init-payment}': ['p(95)<1500'],
+    'http_req_duration{endpoint:capture-payment}': ['p(95)<2000'],
+    // 503 = pool de pagos lleno, tiempo agotado o circuito abierto: respuestas rápidas, no hilos esperando
+    checks: ['rate>0.99'],
+  },
+};
+
+const params = endpoint => ({
+  headers: { Authorization: `Bearer ${__ENV.TOKEN}`, 'Content-Type': 'application/json' },
+  tags: { endpoint },
+});
+
+const isoDate = daysFromToday => {
+  const date = new Date();
+  date.setUTCDate(date.getUTCDate() + daysFromToday);
+  return date.toISOString().slice(0, 10);
+};
+
+export default function () {
+  const start = 1 + Math.floor(Math.random() * 300);
+  const booking = http.post(
+    `${BASE_URL}/api/client/bookings`,
+    JSON.stringify({ checkInDate: isoDate(start), checkOutDate: isoDate(start + 1), guestCount: 1, items: [{ roomTypeId: ROOM_TYPE_ID }] }),
+    params('create-booking'),
+  );
+  if (booking.status !== 201) {
+    return;
+  }
+  const invoices = http.get(`${BASE_URL}/api/client/invoices/booking/${booking.json('id')}`, params('booking-invoices'));
+  if (invoices.status !== 200 || invoices.json().length === 0) {
+    return;
+  }
+  const invoiceId = invoices.json()[0].id;
+
+  const init = http.post(`${BASE_URL}/api/client/payments/init`, JSON.stringify({ invoiceId }), params('init-payment'));
+  check(init, { 'init 200/503': r => r.status === 200 || r.status === 503 });
+  if (init.status !== 200) {
+    return;
+  }
+  const capture = JSON.stringify({ invoiceId, paypalOrderId: init.json('paypalOrderId') });
+  const captured = http.post(`${BASE_URL}/api/client/payments/capture`, capture, params('capture-payment'));
+  check(captured, { 'capture 200/503': r => r.status === 200 || r.status === 503 });
+  if (captured.status === 200) {
+    const replay = http.post(`${BASE_URL}/api/client/payments/capture`, capture, params('replay-capture'));
+    check(replay, { 'replay returns the same payment': r => r.status === 200 && r.json('id') === captured.json('id') });
+  }
+}
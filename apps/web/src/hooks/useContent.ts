@@ -2,6 +2,8 @@ import { useState, useEffect } from 'react';
 import { PublicContentService } from '../services/public/publicContentService';
 import type { WebContent } from '../types/webContentTypes';
 
+// Los hooks leen sus secciones con getSection: los componentes montados a la vez comparten un único bundle
+
 // Sobrecarga para Single
 export function useSingleContent(code: string) {
   const [data, setData] = useState<WebContent | null>(null);
@@ -11,9 +13,8 @@ export function useSingleContent(code: string) {
     let isMounted = true;
     const fetch = async () => {
       try {
-        const result = await PublicContentService.getSingle(code);
-        console.log(result);
-        if (isMounted) setData(result);
+        const section = await PublicContentService.getSection(code);
+        if (isMounted) setData(section.items[0] ?? null);
       } catch (err) {
         console.error(`Error fetching single content [${code}]:`, err);
       } finally {
@@ -39,8 +40,8 @@ export function useSectionVisibility(code: string) {
     let isMounted = true;
     const fetch = async () => {
       try {
-        const result = await PublicContentService.checkVisibility(code);
-        if (isMounted) setIsVisible(result);
+        const section = await PublicContentService.getSection(code);
+        if (isMounted) setIsVisible(section.active);
       } catch (err) {
         if (isMounted) setIsVisible(true);
       } finally {
@@ -63,9 +64,8 @@ export function useListContent(code: string) {
     let isMounted = true;
     const fetch = async () => {
       try {
-        const result = await PublicContentService.getList(code);
-        if (isMounted) setData(result);
-        console.log(result);
+        const section = await PublicContentService.getSection(code);
+        if (isMounted) setData(section.items);
       } catch (err) {
         console.error(`Error fetching list content [${code}]:`, err);
       } finally {
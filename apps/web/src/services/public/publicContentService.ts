@@ -3,6 +3,43 @@ import type { WebContent } from '../../types/webContentTypes';
 
 const API_URL = 'api/public/content';
 
+/** Debe coincidir con application.public-content.max-bundle-codes del backend */
+const MAX_BUNDLE_CODES = 20;
+
+export type ContentSection = { active: boolean; items: WebContent[] };
+
+type PendingSection = { resolve: (section: ContentSection) => void; reject: (error: unknown) => void };
+
+/** Secciones pedidas por los componentes que aún no se han enviado al backend */
+const pendingSections = new Map<string, PendingSection>();
+
+/** Secciones en vuelo: dos componentes que piden el mismo código comparten la petición */
+const inFlightSections = new Map<string, Promise<ContentSection>>();
+
+let bundleScheduled = false;
+
+/**
+ * Envía en un solo bundle (o en los mínimos, si superan el máximo) todas las secciones pedidas durante el render.
+ */
+const flushPendingSections = async () => {
+  bundleScheduled = false;
+  const batch = new Map(pendingSections);
+  pendingSections.clear();
+  // Orden estable: la misma página pide siempre la misma URL (cacheable por navegador y CDN)
+  const codes = [...batch.keys()].sort();
+  for (let start = 0; start < codes.length; start += MAX_BUNDLE_CODES) {
+    const chunk = codes.slice(start, start + MAX_BUNDLE_CODES);
+    try {
+      const bundle = await PublicContentService.getBundle(chunk);
+      chunk.forEach(code => batch.get(code)?.resolve(bundle[code] ?? { active: true, items: [] }));
+    } catch (error) {
+      chunk.forEach(code => batch.get(code)?.reject(error));
+    } finally {
+      chunk.forEach(code => inFlightSections.delete(code));
+    }
+  }
+};
+
 /**
  * Servicio para consumir el CMS público del hotel.
  * Usa los códigos definidos en el Backend (HOME_HERO, HOME_GALLERY, etc.)
@@ -27,6 +64,36 @@ export const PublicContentService = {
     return response.data;
   },
 
+  /**
+   * Obtiene varias secciones en una sola petición (sin códigos: la portada configurada en el backend)
+   * Ej: getBundle(['HOME_HERO', 'HOME_GALLERY'])
+   */
+  getBundle: async (codes: string[] = []) => {
+    const response = await apiClient.get<Record<string, ContentSection>>(`${API_URL}/bundle`, {
+      params: codes.length ? { codes: codes.join(',') } : undefined
+    });
+    return response.data;
+  },
+
+  /**
+   * Una sección (visibilidad y contenidos activos). Las secciones pedidas en el mismo ciclo de render se cargan
+   * juntas con getBundle: la portada hace una sola petición en vez de una por componente.
+   * Ej: getSection('HOME_GALLERY')
+   */
+  getSection: (code: string): Promise<ContentSection> => {
+    const inFlight = inFlightSections.get(code);
+    if (inFlight) {
+      return inFlight;
+    }
+    const section = new Promise<ContentSection>((resolve, reject) => pendingSections.set(code, { resolve, reject }));
+    inFlightSections.set(code, section);
+    if (!bundleScheduled) {
+      bundleScheduled = true;
+      setTimeout(flushPendingSections, 0);
+    }
+    return section;
+  },
+
   getHero: () => PublicContentService.getSingle('HOME_HERO'),
 
   getFeatures: () => PublicContentService.getList('HOME_FEATURES'),